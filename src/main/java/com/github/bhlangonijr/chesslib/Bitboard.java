@@ -58,6 +58,14 @@ public class Bitboard {
      * The constant bits between Table.
      */
     final static long[][] bbTable = new long[64][64];
+    /**
+     * The constant squares strictly between two aligned squares.
+     */
+    final static long[][] betweenBB = new long[64][64];
+    /**
+     * The constant full line crossing two aligned squares.
+     */
+    final static long[][] lineBB = new long[64][64];
     /**
      * The constant squareToDiagonalA1H8.
      */
@@ -275,6 +283,22 @@ public class Bitboard {
                 bbTable[x][y] = ((1L << y) | ((1L << y) - (1L << x)));
             }
         }
+        for (int x = 0; x < 64; x++) {
+            Square sqx = Square.squareAt(x);
+            for (int y = 0; y < 64; y++) {
+                Square sqy = Square.squareAt(y);
+                if (x == y) {
+                    continue;
+                }
+                if ((getRookAttacks(0L, sqx) & (1L << y)) != 0L) {
+                    betweenBB[x][y] = getRookAttacks(1L << y, sqx) & getRookAttacks(1L << x, sqy);
+                    lineBB[x][y] = (getRookAttacks(0L, sqx) & getRookAttacks(0L, sqy)) | (1L << x) | (1L << y);
+                } else if ((getBishopAttacks(0L, sqx) & (1L << y)) != 0L) {
+                    betweenBB[x][y] = getBishopAttacks(1L << y, sqx) & getBishopAttacks(1L << x, sqy);
+                    lineBB[x][y] = (getBishopAttacks(0L, sqx) & getBishopAttacks(0L, sqy)) | (1L << x) | (1L << y);
+                }
+            }
+        }
     }
 
     /**
@@ -376,7 +400,7 @@ public class Bitboard {
      * @return the boolean
      */
     public static boolean hasOnly1Bit(Long bb) {
-        return bb > 0L && extractLsb(bb) == 0L;
+        return bb != 0L && extractLsb(bb) == 0L;
     }
 
     /**
@@ -389,6 +413,28 @@ public class Bitboard {
         return 1L << sq.ordinal();
     }
 
+    /**
+     * Gets the squares strictly between two squares sharing a rank, file or diagonal
+     *
+     * @param sq1 the sq 1
+     * @param sq2 the sq 2
+     * @return the squares between, or 0 if the squares are not aligned
+     */
+    public static long getBetweenbb(Square sq1, Square sq2) {
+        return betweenBB[sq1.ordinal()][sq2.ordinal()];
+    }
+
+    /**
+     * Gets the entire rank, file or diagonal crossing two aligned squares
+     *
+     * @param sq1 the sq 1
+     * @param sq2 the sq 2
+     * @return the line, or 0 if the squares are not aligned
+     */
+    public static long getLinebb(Square sq1, Square sq2) {
+        return lineBB[sq1.ordinal()][sq2.ordinal()];
+    }
+
     /**
      * get slider attacks based on the attacks mask and occupance
      *
@@ -63,6 +63,7 @@ public class Board implements Cloneable, BoardEvent {
     private GameContext context;
     private boolean enableEvents;
     private boolean updateHistory;
+    private final boolean forwardOnly;
     private long incrementalHashKey;
 
     /**
@@ -79,6 +80,21 @@ public class Board implements Cloneable, BoardEvent {
      * @param updateHistory the update history
      */
     public Board(GameContext gameContext, boolean updateHistory) {
+        this(gameContext, updateHistory, false);
+    }
+
+    /**
+     * Instantiates a new Board.
+     * <p>
+     * A forward-only board does not keep undo records, move history or fire events, which makes
+     * replaying large numbers of games cheaper. Moves cannot be undone on such a board, and the
+     * repetition draw rule is not tracked.
+     *
+     * @param gameContext   the game context
+     * @param updateHistory the update history, ignored when the board is forward-only
+     * @param forwardOnly   whether the board only moves forward
+     */
+    public Board(GameContext gameContext, boolean updateHistory, boolean forwardOnly) {
 
         bitboard = new long[Piece.allPieces.length];
         bbSide = new long[Side.allSides.length];
@@ -87,7 +103,8 @@ public class Board implements Cloneable, BoardEvent {
         backup = new LinkedList<>();
         context = gameContext;
         eventListener = new EnumMap<>(BoardEventType.class);
-        this.updateHistory = updateHistory;
+        this.forwardOnly = forwardOnly;
+        this.updateHistory = updateHistory && !forwardOnly;
         setSideToMove(Side.WHITE);
         setEnPassantTarget(Square.NONE);
         setEnPassant(Square.NONE);
@@ -169,7 +186,7 @@ public class Board implements Cloneable, BoardEvent {
         Piece movingPiece = getPiece(move.getFrom());
         Side side = getSideToMove();
 
-        MoveBackup backupMove = new MoveBackup(this, move);
+        MoveBackup backupMove = forwardOnly ? null : new MoveBackup(this, move);
         final boolean isCastle = context.isCastleMove(move);
 
         incrementalHashKey ^= getSideKey(getSideToMove());
@@ -277,6 +294,10 @@ public class Board implements Cloneable, BoardEvent {
         setSideToMove(side.flip());
         incrementalHashKey ^= getSideKey(getSideToMove());
 
+        if (forwardOnly) {
+            return true;
+        }
+
         if (updateHistory) {
             getHistory().addLast(getIncrementalHashKey());
         }
@@ -306,7 +327,7 @@ public class Board implements Cloneable, BoardEvent {
         Piece movingPiece = getPiece(move.getFrom());
         Side side = getSideToMove();
 
-        MoveBackup backupMove = new MoveBackup(this, move);
+        MoveBackup backupMove = forwardOnly ? null : new MoveBackup(this, move);
         final boolean isCastle = context.isCastleMove(move);
 
         incrementalHashKey ^= getSideKey(getSideToMove());
@@ -410,6 +431,10 @@ public class Board implements Cloneable, BoardEvent {
         setSideToMove(side.flip());
         incrementalHashKey ^= getSideKey(getSideToMove());
 
+        if (forwardOnly) {
+            return true;
+        }
+
         if (updateHistory) {
             getHistory().addLast(getIncrementalHashKey());
         }
@@ -424,6 +449,63 @@ public class Board implements Cloneable, BoardEvent {
         return true;
     }
 
+    /**
+     * Plays a sequence of packed moves from the current position and returns the resulting
+     * incremental hash key. Meant for bulk replay, preferably on a forward-only board.
+     *
+     * @param packedMoves the moves, as encoded by {@link Move#toPacked()}
+     * @return the hash key of the final position
+     * @throws IllegalArgumentException if any of the moves is illegal
+     */
+    public long playAll(int[] packedMoves) {
+        for (int i = 0; i < packedMoves.length; i++) {
+            playPacked(packedMoves[i], i);
+        }
+        return getIncrementalHashKey();
+    }
+
+    /**
+     * Plays a sequence of packed moves from the current position and returns the incremental
+     * hash key of the position after each ply.
+     *
+     * @param packedMoves the moves, as encoded by {@link Move#toPacked()}
+     * @return the hash keys, one per move played
+     * @throws IllegalArgumentException if any of the moves is illegal
+     */
+    public long[] playAllHashes(int[] packedMoves) {
+        long[] hashes = new long[packedMoves.length];
+        for (int i = 0; i < packedMoves.length; i++) {
+            playPacked(packedMoves[i], i);
+            hashes[i] = getIncrementalHashKey();
+        }
+        return hashes;
+    }
+
+    private void playPacked(int packedMove, int ply) {
+        Move move = Move.fromPacked(packedMove);
+        if (Piece.NONE.equals(getPiece(move.getFrom())) || !doMove(move, true)) {
+            throw new IllegalArgumentException("Illegal move " + move + " at ply " + (ply + 1));
+        }
+    }
+
+    /**
+     * Is forward only boolean.
+     *
+     * @return whether the board keeps no undo records, history or events
+     */
+    public boolean isForwardOnly() {
+        return forwardOnly;
+    }
+
+    /**
+     * Is update history boolean.
+     *
+     * @return whether the board records the hash key of every position in its history
+     */
+    public boolean isUpdateHistory() {
+        return updateHistory;
+    }
+
     /**
      * Execute a null move on the board -
      *
@@ -432,7 +514,7 @@ public class Board implements Cloneable, BoardEvent {
     public boolean doNullMove() {
 
         Side side = getSideToMove();
-        MoveBackup backupMove = new MoveBackup(this, emptyMove);
+        MoveBackup backupMove = forwardOnly ? null : new MoveBackup(this, emptyMove);
 
         setHalfMoveCounter(getHalfMoveCounter() + 1);
 
@@ -445,7 +527,9 @@ public class Board implements Cloneable, BoardEvent {
         if (updateHistory) {
             getHistory().addLast(getIncrementalHashKey());
         }
-        backup.add(backupMove);
+        if (!forwardOnly) {
+            backup.add(backupMove);
+        }
         return true;
     }
 
@@ -453,8 +537,12 @@ public class Board implements Cloneable, BoardEvent {
      * Undo the last move executed on the board
      *
      * @return the move
+     * @throws UnsupportedOperationException if the board is forward-only
      */
     public Move undoMove() {
+        if (forwardOnly) {
+            throw new UnsupportedOperationException("Moves cannot be undone on a forward-only board");
+        }
         Move move = null;
         final MoveBackup b = backup.removeLast();
         if (updateHistory) {
@@ -519,10 +607,12 @@ public class Board implements Cloneable, BoardEvent {
                 !to.getFile().equals(from.getFile()) &&
                 Piece.NONE.equals(capturedPiece)) {
             capturedPiece = getPiece(getEnPassantTarget());
-            if (backup != null && !Piece.NONE.equals(capturedPiece)) {
+            if (!Piece.NONE.equals(capturedPiece)) {
                 unsetPiece(capturedPiece, getEnPassantTarget());
-                backup.setCapturedSquare(getEnPassantTarget());
-                backup.setCapturedPiece(capturedPiece);
+                if (backup != null) {
+                    backup.setCapturedSquare(getEnPassantTarget());
+                    backup.setCapturedPiece(capturedPiece);
+                }
             }
         }
         return capturedPiece;
@@ -1195,6 +1285,36 @@ public class Board implements Cloneable, BoardEvent {
         return squareAttackedBy(getKingSquare(getSideToMove()), getSideToMove().flip()) != 0;
     }
 
+    /**
+     * Get the pieces of the given side which are pinned against their own king
+     *
+     * @param side the side
+     * @return bitboard of pinned pieces
+     */
+    public long getPinnedPieces(Side side) {
+        Square kingSq = getKingSquare(side);
+        if (Square.NONE.equals(kingSq)) {
+            return 0L;
+        }
+        Side other = side.flip();
+        long occ = getBitboard();
+        long queens = getBitboard(Piece.make(other, PieceType.QUEEN));
+        long snipers = (Bitboard.getRookAttacks(getBitboard(other), kingSq) &
+                (getBitboard(Piece.make(other, PieceType.ROOK)) | queens)) |
+                (Bitboard.getBishopAttacks(getBitboard(other), kingSq) &
+                        (getBitboard(Piece.make(other, PieceType.BISHOP)) | queens));
+        long pinned = 0L;
+        while (snipers != 0L) {
+            Square sniper = Square.squareAt(Bitboard.bitScanForward(snipers));
+            snipers = extractLsb(snipers);
+            long blockers = Bitboard.getBetweenbb(kingSq, sniper) & occ;
+            if (Bitboard.hasOnly1Bit(blockers) && (blockers & getBitboard(side)) != 0L) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
     /**
      * set of squares attacked by
      *
@@ -1631,6 +1751,25 @@ public class Board implements Cloneable, BoardEvent {
         return MoveGenerator.generateLegalMoves(this);
     }
 
+    /**
+     * Count the legal moves for the current board, without generating them
+     *
+     * @return number of legal moves
+     */
+    public int countLegalMoves() {
+        return MoveGenerator.countLegalMoves(this);
+    }
+
+    /**
+     * Count the legal moves of the given piece type for the current board, without generating them
+     *
+     * @param pieceType the piece type
+     * @return number of legal moves of the piece type
+     */
+    public int countLegalMoves(PieceType pieceType) {
+        return MoveGenerator.countLegalMoves(this, pieceType);
+    }
+
     /**
      * The pseudo-legal moves for the current board
      *
@@ -1802,7 +1941,7 @@ public class Board implements Cloneable, BoardEvent {
 
     @Override
     public Board clone() {
-        Board copy = new Board(getContext(), this.updateHistory);
+        Board copy = new Board(getContext(), this.updateHistory, this.forwardOnly);
         copy.loadFromFen(this.getFen());
         copy.setEnPassantTarget(this.getEnPassantTarget());
         copy.getHistory().clear();
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib;
+
+/**
+ * Compact, immutable copy of a board position: piece bitboards plus the state needed to
+ * continue playing from it. Restoring a snapshot is much cheaper than parsing a FEN.
+ * <p>
+ * The move history and undo records of the board are not part of the snapshot.
+ */
+public class BoardSnapshot {
+
+    private final long[] bitboard;
+    private final Side sideToMove;
+    private final Square enPassantTarget;
+    private final Square enPassant;
+    private final CastleRight whiteCastleRight;
+    private final CastleRight blackCastleRight;
+    private final int moveCounter;
+    private final int halfMoveCounter;
+    private final long incrementalHashKey;
+
+    /**
+     * Instantiates a new Board snapshot.
+     *
+     * @param board the board
+     */
+    public BoardSnapshot(Board board) {
+        bitboard = new long[Piece.allPieces.length - 1];
+        for (int i = 0; i < bitboard.length; i++) {
+            bitboard[i] = board.getBitboard(Piece.allPieces[i]);
+        }
+        sideToMove = board.getSideToMove();
+        enPassantTarget = board.getEnPassantTarget();
+        enPassant = board.getEnPassant();
+        whiteCastleRight = board.getCastleRight(Side.WHITE);
+        blackCastleRight = board.getCastleRight(Side.BLACK);
+        moveCounter = board.getMoveCounter();
+        halfMoveCounter = board.getHalfMoveCounter();
+        incrementalHashKey = board.getIncrementalHashKey();
+    }
+
+    /**
+     * restore the board. Its history and undo records are cleared.
+     *
+     * @param board the board
+     */
+    public void restore(Board board) {
+        board.clear();
+        for (int i = 0; i < bitboard.length; i++) {
+            Piece piece = Piece.allPieces[i];
+            long pieces = bitboard[i];
+            while (pieces != 0L) {
+                board.setPiece(piece, Square.squareAt(Bitboard.bitScanForward(pieces)));
+                pieces = Bitboard.extractLsb(pieces);
+            }
+        }
+        board.setSideToMove(sideToMove);
+        board.setEnPassantTarget(enPassantTarget);
+        board.setEnPassant(enPassant);
+        board.getCastleRight().put(Side.WHITE, whiteCastleRight);
+        board.getCastleRight().put(Side.BLACK, blackCastleRight);
+        board.setMoveCounter(moveCounter);
+        board.setHalfMoveCounter(halfMoveCounter);
+        board.setIncrementalHashKey(incrementalHashKey);
+        if (board.isUpdateHistory()) {
+            board.getHistory().addLast(incrementalHashKey);
+        }
+    }
+
+    /**
+     * Gets side to move.
+     *
+     * @return the sideToMove
+     */
+    public Side getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Gets incremental hash key.
+     *
+     * @return the incremental hash key
+     */
+    public long getIncrementalHashKey() {
+        return incrementalHashKey;
+    }
+}
@@ -32,35 +32,35 @@ public class Constants {
     /**
      * The constant DEFAULT_WHITE_OO.
      */
-    public static final Move DEFAULT_WHITE_OO = new Move(Square.E1, Square.G1);
+    public static final Move DEFAULT_WHITE_OO = Move.of(Square.E1, Square.G1);
     /**
      * The constant DEFAULT_WHITE_OOO.
      */
-    public static final Move DEFAULT_WHITE_OOO = new Move(Square.E1, Square.C1);
+    public static final Move DEFAULT_WHITE_OOO = Move.of(Square.E1, Square.C1);
     /**
      * The constant DEFAULT_BLACK_OO.
      */
-    public static final Move DEFAULT_BLACK_OO = new Move(Square.E8, Square.G8);
+    public static final Move DEFAULT_BLACK_OO = Move.of(Square.E8, Square.G8);
     /**
      * The constant DEFAULT_BLACK_OOO.
      */
-    public static final Move DEFAULT_BLACK_OOO = new Move(Square.E8, Square.C8);
+    public static final Move DEFAULT_BLACK_OOO = Move.of(Square.E8, Square.C8);
     /**
      * The constant DEFAULT_WHITE_ROOK_OO.
      */
-    public static final Move DEFAULT_WHITE_ROOK_OO = new Move(Square.H1, Square.F1);
+    public static final Move DEFAULT_WHITE_ROOK_OO = Move.of(Square.H1, Square.F1);
     /**
      * The constant DEFAULT_WHITE_ROOK_OOO.
      */
-    public static final Move DEFAULT_WHITE_ROOK_OOO = new Move(Square.A1, Square.D1);
+    public static final Move DEFAULT_WHITE_ROOK_OOO = Move.of(Square.A1, Square.D1);
     /**
      * The constant DEFAULT_BLACK_ROOK_OO.
      */
-    public static final Move DEFAULT_BLACK_ROOK_OO = new Move(Square.H8, Square.F8);
+    public static final Move DEFAULT_BLACK_ROOK_OO = Move.of(Square.H8, Square.F8);
     /**
      * The constant DEFAULT_BLACK_ROOK_OOO.
      */
-    public static final Move DEFAULT_BLACK_ROOK_OOO = new Move(Square.A8, Square.D8);
+    public static final Move DEFAULT_BLACK_ROOK_OOO = Move.of(Square.A8, Square.D8);
     /**
      * The constant DEFAULT_WHITE_OO_SQUARES.
      */
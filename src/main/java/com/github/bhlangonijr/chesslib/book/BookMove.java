@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.book;
+
+import com.github.bhlangonijr.chesslib.move.Move;
+
+/**
+ * A move of an opening book with its weight, i.e.: how often it should be chosen relative to
+ * the other moves of the position.
+ */
+public class BookMove {
+
+    private final Move move;
+    private final int weight;
+
+    /**
+     * Instantiates a new Book move.
+     *
+     * @param move   the move
+     * @param weight the weight
+     */
+    public BookMove(Move move, int weight) {
+        this.move = move;
+        this.weight = weight;
+    }
+
+    /**
+     * Gets move.
+     *
+     * @return the move
+     */
+    public Move getMove() {
+        return move;
+    }
+
+    /**
+     * Gets weight.
+     *
+     * @return the weight
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return move + " " + weight;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.book;
+
+/**
+ * An open addressing hash map from a position key and a packed move to the statistics of the
+ * move, kept in primitive arrays.
+ */
+final class MoveStatsMap {
+
+    static final int WHITE_WIN = 0;
+    static final int DRAW = 1;
+    static final int BLACK_WIN = 2;
+    static final int UNKNOWN = -1;
+
+    long[] keys;
+    int[] moves;
+    int[] games;
+    int[] whiteWins;
+    int[] draws;
+    int[] blackWins;
+    int[] eloCount;
+    long[] eloSum;
+    private int size;
+    private int mask;
+
+    MoveStatsMap(int capacity) {
+        allocate(Integer.highestOneBit(Math.max(16, capacity) - 1) << 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return moves.length;
+    }
+
+    /**
+     * Adds a game where the move was played.
+     */
+    void add(long key, int move, int result, int elo) {
+        int slot = slot(key, move);
+        games[slot]++;
+        if (result == WHITE_WIN) {
+            whiteWins[slot]++;
+        } else if (result == DRAW) {
+            draws[slot]++;
+        } else if (result == BLACK_WIN) {
+            blackWins[slot]++;
+        }
+        if (elo > 0) {
+            eloSum[slot] += elo;
+            eloCount[slot]++;
+        }
+    }
+
+    void merge(MoveStatsMap other) {
+        for (int i = 0; i < other.moves.length; i++) {
+            if (other.moves[i] != 0) {
+                int slot = slot(other.keys[i], other.moves[i]);
+                games[slot] += other.games[i];
+                whiteWins[slot] += other.whiteWins[i];
+                draws[slot] += other.draws[i];
+                blackWins[slot] += other.blackWins[i];
+                eloSum[slot] += other.eloSum[i];
+                eloCount[slot] += other.eloCount[i];
+            }
+        }
+    }
+
+    /*
+     * finds the slot of the entry, creating it if missing; empty slots have no move, as no
+     * valid move packs to 0
+     */
+    private int slot(long key, int move) {
+        int i = hash(key, move) & mask;
+        while (moves[i] != 0) {
+            if (keys[i] == key && moves[i] == move) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        if (size + 1 > moves.length * 3 / 4) {
+            grow();
+            return slot(key, move);
+        }
+        keys[i] = key;
+        moves[i] = move;
+        size++;
+        return i;
+    }
+
+    private static int hash(long key, int move) {
+        long h = key ^ (move * 0x9E3779B97F4A7C15L);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void grow() {
+        MoveStatsMap old = new MoveStatsMap(0);
+        old.keys = keys;
+        old.moves = moves;
+        old.games = games;
+        old.whiteWins = whiteWins;
+        old.draws = draws;
+        old.blackWins = blackWins;
+        old.eloCount = eloCount;
+        old.eloSum = eloSum;
+        allocate(moves.length << 1);
+        merge(old);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        moves = new int[capacity];
+        games = new int[capacity];
+        whiteWins = new int[capacity];
+        draws = new int[capacity];
+        blackWins = new int[capacity];
+        eloCount = new int[capacity];
+        eloSum = new long[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.book;
+
+import com.github.bhlangonijr.chesslib.move.Move;
+
+/**
+ * A move played from a position of an {@link OpeningTree}, with the results of the games
+ * where it was played.
+ */
+public class OpeningMove {
+
+    private final Move move;
+    private final int games;
+    private final int whiteWins;
+    private final int draws;
+    private final int blackWins;
+    private final int averageElo;
+
+    /**
+     * Instantiates a new Opening move.
+     *
+     * @param move       the move
+     * @param games      the number of games
+     * @param whiteWins  the number of games won by white
+     * @param draws      the number of draws
+     * @param blackWins  the number of games won by black
+     * @param averageElo the average Elo of the players making the move
+     */
+    public OpeningMove(Move move, int games, int whiteWins, int draws, int blackWins, int averageElo) {
+        this.move = move;
+        this.games = games;
+        this.whiteWins = whiteWins;
+        this.draws = draws;
+        this.blackWins = blackWins;
+        this.averageElo = averageElo;
+    }
+
+    /**
+     * Gets move.
+     *
+     * @return the move
+     */
+    public Move getMove() {
+        return move;
+    }
+
+    /**
+     * Gets the number of games where the move was played.
+     *
+     * @return the games
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the number of games won by white.
+     *
+     * @return the white wins
+     */
+    public int getWhiteWins() {
+        return whiteWins;
+    }
+
+    /**
+     * Gets the number of draws.
+     *
+     * @return the draws
+     */
+    public int getDraws() {
+        return draws;
+    }
+
+    /**
+     * Gets the number of games won by black.
+     *
+     * @return the black wins
+     */
+    public int getBlackWins() {
+        return blackWins;
+    }
+
+    /**
+     * Gets the average Elo of the players making the move.
+     *
+     * @return the average Elo, or 0 if unknown
+     */
+    public int getAverageElo() {
+        return averageElo;
+    }
+
+    @Override
+    public String toString() {
+        return move + " " + games + " (+" + whiteWins + " =" + draws + " -" + blackWins + ")";
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.book;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.game.GameContext;
+import com.github.bhlangonijr.chesslib.move.Move;
+import com.github.bhlangonijr.chesslib.pgn.PgnException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An opening tree, as written by an {@link OpeningTreeBuilder}: the moves played from every
+ * position of the first plies of a game database, with their statistics. Positions are
+ * identified by their hash key, see {@link Board#getIncrementalHashKey()}, so the moves of a
+ * position are found by a binary search over the memory-mapped file, and the tree is walked by
+ * playing the moves on a board.
+ * <p>
+ * Lookups are thread safe.
+ */
+public class OpeningTree implements Closeable {
+
+    static final byte[] MAGIC = {'C', 'L', 'O', 'T'};
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int ENTRY_SIZE = 28;
+
+    private static final int SEGMENT_SHIFT = 25;
+    private static final long SEGMENT_ENTRIES = 1L << SEGMENT_SHIFT;
+
+    private final ByteBuffer[] segments;
+    private final long size;
+    private final int maxPly;
+
+    /**
+     * Opens an opening tree.
+     *
+     * @param treeFile the tree file
+     * @throws IOException if the file cannot be opened
+     */
+    public OpeningTree(Path treeFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(treeFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            if (channel.read(header, 0) < HEADER_SIZE) {
+                throw new PgnException("Not an opening tree: " + treeFile);
+            }
+            header.flip();
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new PgnException("Not an opening tree: " + treeFile);
+            }
+            if (header.getInt() != VERSION || header.getInt() != ENTRY_SIZE) {
+                throw new PgnException("Unsupported opening tree version: " + treeFile);
+            }
+            this.size = header.getLong();
+            this.maxPly = header.getInt();
+            if (channel.size() < HEADER_SIZE + size * ENTRY_SIZE) {
+                throw new PgnException("Truncated opening tree: " + treeFile);
+            }
+            this.segments = new ByteBuffer[(int) ((size + SEGMENT_ENTRIES - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * ENTRY_SIZE,
+                        Math.min(SEGMENT_ENTRIES, size - first) * ENTRY_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of moves in the tree, over all the positions.
+     *
+     * @return the size
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of plies of each game added to the tree.
+     *
+     * @return the max ply
+     */
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    /**
+     * Gets the moves played from the position with the given hash key.
+     *
+     * @param key the hash key, see {@link Board#getIncrementalHashKey()}
+     * @return the moves, most played first
+     */
+    public List<OpeningMove> lookup(long key) {
+        List<OpeningMove> moves = new ArrayList<>();
+        for (long i = lowerBound(key); i < size && key(i) == key; i++) {
+            ByteBuffer segment = segments[(int) (i >>> SEGMENT_SHIFT)];
+            int p = position(i);
+            moves.add(new OpeningMove(Move.fromPacked(segment.getShort(p + 8) & 0xFFFF),
+                    segment.getInt(p + 10), segment.getInt(p + 14), segment.getInt(p + 18),
+                    segment.getInt(p + 22), segment.getShort(p + 26) & 0xFFFF));
+        }
+        moves.sort((a, b) -> Integer.compare(b.getGames(), a.getGames()));
+        return moves;
+    }
+
+    /**
+     * Gets the moves played from the position on the board.
+     *
+     * @param board the board
+     * @return the moves, most played first
+     */
+    public List<OpeningMove> lookup(Board board) {
+        return lookup(board.getIncrementalHashKey());
+    }
+
+    /**
+     * Gets the moves played from the position.
+     *
+     * @param fen the position in FEN
+     * @return the moves, most played first
+     */
+    public List<OpeningMove> lookup(String fen) {
+        Board board = new Board(new GameContext(), false, true);
+        board.loadFromFen(fen);
+        return lookup(board);
+    }
+
+    /**
+     * Releases the tree. The mapped file is unmapped once unreachable.
+     */
+    @Override
+    public void close() {
+        Arrays.fill(segments, null);
+    }
+
+    private long key(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].getLong(position(index));
+    }
+
+    private static int position(long index) {
+        return (int) (index & (SEGMENT_ENTRIES - 1)) * ENTRY_SIZE;
+    }
+
+    private long lowerBound(long key) {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (key(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
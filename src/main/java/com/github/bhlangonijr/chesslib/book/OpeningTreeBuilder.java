@@ -0,0 +1,295 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.book;
+
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.game.GameResult;
+import com.github.bhlangonijr.chesslib.pgn.MainLineReplayer;
+import com.github.bhlangonijr.chesslib.pgn.PgnException;
+import com.github.bhlangonijr.chesslib.pgn.PgnReader;
+import com.github.bhlangonijr.chesslib.pgn.PgnRecord;
+import com.github.bhlangonijr.chesslib.util.ByteCharSequence;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Builds an {@link OpeningTree} from the games of a PGN file. For every position of the first
+ * plies of the main lines, it counts the moves played next with the results of their games and
+ * the average Elo of the players making them.
+ * <p>
+ * Games are replayed in parallel batches straight from the raw movetext, each thread adding to
+ * its own primitive hash map. The maps are merged once all the games are read and written to
+ * the tree file sorted by position.
+ */
+public class OpeningTreeBuilder {
+
+    /**
+     * The default number of plies of each game added to the tree.
+     */
+    public static final int DEFAULT_MAX_PLY = 30;
+
+    /**
+     * The default number of games replayed by each task.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private int maxPly = DEFAULT_MAX_PLY;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int minGames = 1;
+
+    /**
+     * Gets the number of plies of each game added to the tree.
+     *
+     * @return the max ply
+     */
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    /**
+     * Sets the number of plies of each game added to the tree.
+     *
+     * @param maxPly the max ply
+     */
+    public void setMaxPly(int maxPly) {
+        if (maxPly <= 0) {
+            throw new IllegalArgumentException("Invalid max ply: " + maxPly);
+        }
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Gets parallelism.
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads replaying the games.
+     *
+     * @param parallelism the parallelism
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Gets batch size.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the number of games replayed by each task.
+     *
+     * @param batchSize the batch size
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the minimum number of games for a move to be kept in the tree.
+     *
+     * @return the min games
+     */
+    public int getMinGames() {
+        return minGames;
+    }
+
+    /**
+     * Sets the minimum number of games for a move to be kept in the tree.
+     *
+     * @param minGames the min games
+     */
+    public void setMinGames(int minGames) {
+        this.minGames = minGames;
+    }
+
+    /**
+     * Builds the opening tree of a PGN file.
+     *
+     * @param pgnFile  the pgn file
+     * @param treeFile the tree file, created or replaced
+     * @return the number of games read
+     * @throws IOException if the files cannot be read or written
+     */
+    public long build(Path pgnFile, Path treeFile) throws IOException {
+        Queue<MoveStatsMap> maps = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> {
+            Worker worker = new Worker(maxPly);
+            maps.add(worker.map);
+            return worker;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Semaphore permits = new Semaphore(parallelism * 2);
+        List<Future<?>> tasks = new ArrayList<>();
+        long games = 0;
+        try (PgnReader reader = new PgnReader(pgnFile)) {
+            List<PgnRecord> records = new ArrayList<>(batchSize);
+            PgnRecord record;
+            while (true) {
+                record = reader.read();
+                if (record != null) {
+                    records.add(record);
+                    games++;
+                }
+                if (records.size() == batchSize || record == null && !records.isEmpty()) {
+                    permits.acquire();
+                    List<PgnRecord> batch = records;
+                    tasks.add(executor.submit(() -> {
+                        try {
+                            workers.get().add(batch);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                    records = new ArrayList<>(batchSize);
+                }
+                if (record == null) {
+                    break;
+                }
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Opening tree build interrupted");
+        } catch (ExecutionException e) {
+            throw new PgnException("Error building the opening tree of " + pgnFile, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        MoveStatsMap merged = null;
+        for (MoveStatsMap map : maps) {
+            if (merged == null || map.size() > merged.size()) {
+                merged = map;
+            }
+        }
+        if (merged == null) {
+            merged = new MoveStatsMap(0);
+        }
+        for (MoveStatsMap map : maps) {
+            if (map != merged) {
+                merged.merge(map);
+            }
+        }
+        write(merged, treeFile);
+        return games;
+    }
+
+    private void write(MoveStatsMap map, Path treeFile) throws IOException {
+        int count = 0;
+        int[] order = new int[map.size()];
+        for (int i = 0; i < map.capacity(); i++) {
+            if (map.moves[i] != 0 && map.games[i] >= minGames) {
+                order[count++] = i;
+            }
+        }
+        SlotSorter.sort(order, count, (a, b) ->
+                map.keys[a] < map.keys[b] || map.keys[a] == map.keys[b] && map.moves[a] < map.moves[b]);
+
+        Path tmp = treeFile.resolveSibling(treeFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tmp), 1 << 16))) {
+            out.write(OpeningTree.MAGIC);
+            out.writeInt(OpeningTree.VERSION);
+            out.writeInt(OpeningTree.ENTRY_SIZE);
+            out.writeLong(count);
+            out.writeInt(maxPly);
+            out.write(new byte[OpeningTree.HEADER_SIZE - OpeningTree.MAGIC.length - 20]);
+            for (int i = 0; i < count; i++) {
+                int slot = order[i];
+                out.writeLong(map.keys[slot]);
+                out.writeShort(map.moves[slot]);
+                out.writeInt(map.games[slot]);
+                out.writeInt(map.whiteWins[slot]);
+                out.writeInt(map.draws[slot]);
+                out.writeInt(map.blackWins[slot]);
+                out.writeShort(map.eloCount[slot] == 0 ? 0 : (int) (map.eloSum[slot] / map.eloCount[slot]));
+            }
+        }
+        Files.move(tmp, treeFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /*
+     * replays games into the map of its thread
+     */
+    private static class Worker {
+
+        final MoveStatsMap map = new MoveStatsMap(1 << 16);
+        final MainLineReplayer replayer = new MainLineReplayer();
+        final int maxPly;
+        long key;
+
+        Worker(int maxPly) {
+            this.maxPly = maxPly;
+        }
+
+        void add(List<PgnRecord> records) {
+            for (PgnRecord record : records) {
+                int result = result(record.getTag("Result"));
+                int whiteElo = record.getTagAsInt("WhiteElo", 0);
+                int blackElo = record.getTagAsInt("BlackElo", 0);
+                try {
+                    key = replayer.start(record).getIncrementalHashKey();
+                    replayer.replay(record, (board, ply, move) -> {
+                        map.add(key, move, result, board.getSideToMove() == Side.BLACK ? whiteElo : blackElo);
+                        key = board.getIncrementalHashKey();
+                        return ply < maxPly;
+                    });
+                } catch (RuntimeException e) {
+                    // keeps the moves played before the illegal one
+                }
+            }
+        }
+
+        private static int result(ByteCharSequence tag) {
+            GameResult result = tag != null ? GameResult.fromNotation(tag.toString()) : null;
+            if (result == GameResult.WHITE_WON) {
+                return MoveStatsMap.WHITE_WIN;
+            } else if (result == GameResult.DRAW) {
+                return MoveStatsMap.DRAW;
+            } else if (result == GameResult.BLACK_WON) {
+                return MoveStatsMap.BLACK_WIN;
+            }
+            return MoveStatsMap.UNKNOWN;
+        }
+    }
+}
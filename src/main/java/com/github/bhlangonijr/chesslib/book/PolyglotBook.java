@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.book;
+
+import com.github.bhlangonijr.chesslib.*;
+import com.github.bhlangonijr.chesslib.move.Move;
+import com.github.bhlangonijr.chesslib.pgn.PgnException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An opening book in the Polyglot format, memory-mapped and searched in place. The book is a
+ * sequence of 16-byte big-endian entries sorted by key: the {@link PolyglotKey} of a position,
+ * a move, its weight and a learning value.
+ * <p>
+ * Probes are thread safe, and {@link #probe(Board, int[], int[])} allocates no object, so it
+ * can be called from the search loop of an engine. The file is unmapped once the book is
+ * unreachable.
+ */
+public class PolyglotBook {
+
+    static final int ENTRY_SIZE = 16;
+
+    private static final Piece[] WHITE_PROMOTIONS = {Piece.NONE, Piece.WHITE_KNIGHT, Piece.WHITE_BISHOP,
+            Piece.WHITE_ROOK, Piece.WHITE_QUEEN};
+    private static final Piece[] BLACK_PROMOTIONS = {Piece.NONE, Piece.BLACK_KNIGHT, Piece.BLACK_BISHOP,
+            Piece.BLACK_ROOK, Piece.BLACK_QUEEN};
+
+    private final ByteBuffer book;
+    private final PolyglotKey keys;
+    private final int size;
+
+    /**
+     * Opens a Polyglot book keyed with the standard Random64 table.
+     *
+     * @param bookFile the book file
+     * @throws IOException if the file cannot be opened
+     * @see PolyglotKey#getDefault()
+     */
+    public PolyglotBook(Path bookFile) throws IOException {
+        this(bookFile, PolyglotKey.getDefault());
+    }
+
+    /**
+     * Opens a Polyglot book.
+     *
+     * @param bookFile the book file
+     * @param keys     the polyglot key
+     * @throws IOException if the file cannot be opened
+     */
+    public PolyglotBook(Path bookFile, PolyglotKey keys) throws IOException {
+        this.keys = keys;
+        try (FileChannel channel = FileChannel.open(bookFile, StandardOpenOption.READ)) {
+            if (channel.size() % ENTRY_SIZE != 0 || channel.size() > Integer.MAX_VALUE) {
+                throw new PgnException("Not a Polyglot book: " + bookFile);
+            }
+            this.book = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            this.size = (int) (channel.size() / ENTRY_SIZE);
+        }
+    }
+
+    /**
+     * Gets the number of entries of the book.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the polyglot key.
+     *
+     * @return the polyglot key
+     */
+    public PolyglotKey getPolyglotKey() {
+        return keys;
+    }
+
+    /**
+     * Finds the book moves of the position on the board, in the order of the book, without
+     * allocating any object. Moves beyond the length of the arrays are skipped.
+     *
+     * @param board   the board
+     * @param moves   receives the moves, packed as by {@link Move#toPacked()}
+     * @param weights receives the weights of the moves
+     * @return the number of moves found
+     */
+    public int probe(Board board, int[] moves, int[] weights) {
+        long key = keys.getKey(board);
+        int count = 0;
+        int max = Math.min(moves.length, weights.length);
+        for (int i = lowerBound(key); i < size && count < max && book.getLong(i * ENTRY_SIZE) == key; i++) {
+            moves[count] = toMove(board, book.getShort(i * ENTRY_SIZE + 8) & 0xFFFF).toPacked();
+            weights[count] = book.getShort(i * ENTRY_SIZE + 10) & 0xFFFF;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the book moves of the position on the board.
+     *
+     * @param board the board
+     * @return the moves, with the highest weight first
+     */
+    public List<BookMove> getMoves(Board board) {
+        long key = keys.getKey(board);
+        List<BookMove> moves = new ArrayList<>();
+        for (int i = lowerBound(key); i < size && book.getLong(i * ENTRY_SIZE) == key; i++) {
+            moves.add(new BookMove(toMove(board, book.getShort(i * ENTRY_SIZE + 8) & 0xFFFF),
+                    book.getShort(i * ENTRY_SIZE + 10) & 0xFFFF));
+        }
+        moves.sort((a, b) -> Integer.compare(b.getWeight(), a.getWeight()));
+        return moves;
+    }
+
+    /**
+     * Picks a book move at random, each move being chosen in proportion to its weight.
+     *
+     * @param board  the board
+     * @param random the random generator
+     * @return the move, or null if the position is not in the book
+     */
+    public Move pickMove(Board board, Random random) {
+        long key = keys.getKey(board);
+        int first = lowerBound(key);
+        long total = 0;
+        int last = first;
+        for (; last < size && book.getLong(last * ENTRY_SIZE) == key; last++) {
+            total += book.getShort(last * ENTRY_SIZE + 10) & 0xFFFF;
+        }
+        if (last == first) {
+            return null;
+        }
+        long pick = total == 0 ? 0 : (long) (random.nextDouble() * total);
+        for (int i = first; i < last; i++) {
+            pick -= book.getShort(i * ENTRY_SIZE + 10) & 0xFFFF;
+            if (pick < 0 || i == last - 1) {
+                return toMove(board, book.getShort(i * ENTRY_SIZE + 8) & 0xFFFF);
+            }
+        }
+        return null;
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(book.getLong(mid * ENTRY_SIZE), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /*
+     * decodes a Polyglot move, where castling is written as the king taking its own rook
+     */
+    static Move toMove(Board board, int move) {
+        int to = move & 0x3F;
+        int from = (move >>> 6) & 0x3F;
+        int promotion = (move >>> 12) & 0x7;
+        Square fromSquare = Square.squareAt(from);
+        Piece piece = board.getPiece(fromSquare);
+        if (piece.getPieceType() == PieceType.KING && (from == 4 || from == 60) && (to == from + 3 || to == from - 4)) {
+            to = to > from ? from + 2 : from - 2;
+        }
+        Piece[] promotions = board.getSideToMove() == Side.WHITE ? WHITE_PROMOTIONS : BLACK_PROMOTIONS;
+        return Move.of(fromSquare, Square.squareAt(to), promotion < promotions.length ? promotions[promotion] : Piece.NONE);
+    }
+
+    /*
+     * encodes a move in the Polyglot format
+     */
+    static int fromMove(Move move, boolean kingMove) {
+        int from = move.getFrom().ordinal();
+        int to = move.getTo().ordinal();
+        if (kingMove && Math.abs(to - from) == 2) {
+            to = to > from ? from + 3 : from - 4;
+        }
+        int promotion = 0;
+        if (move.getPromotion() != Piece.NONE) {
+            promotion = move.getPromotion().getPieceType().ordinal();
+        }
+        return to | (from << 6) | (promotion << 12);
+    }
+}
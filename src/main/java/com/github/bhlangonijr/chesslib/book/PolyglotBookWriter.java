@@ -0,0 +1,227 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.book;
+
+import com.github.bhlangonijr.chesslib.PieceType;
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.game.GameResult;
+import com.github.bhlangonijr.chesslib.move.Move;
+import com.github.bhlangonijr.chesslib.pgn.MainLineReplayer;
+import com.github.bhlangonijr.chesslib.pgn.PgnReader;
+import com.github.bhlangonijr.chesslib.pgn.PgnRecord;
+import com.github.bhlangonijr.chesslib.util.ByteCharSequence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Builds an opening book in the Polyglot format from the games of a PGN file. Every move of the
+ * first plies of the main lines is weighted by its results for the side making it, 2 points a
+ * win and 1 a draw, as done by the Polyglot book maker. Moves played in fewer games or with a
+ * lower weight than the given thresholds are left out, and the weights of each position are
+ * scaled down to fit in 16 bits when needed.
+ */
+public class PolyglotBookWriter {
+
+    /**
+     * The default number of plies of each game added to the book.
+     */
+    public static final int DEFAULT_MAX_PLY = 20;
+
+    private static final int WIN = MoveStatsMap.WHITE_WIN;
+    private static final int DRAW = MoveStatsMap.DRAW;
+    private static final int LOSS = MoveStatsMap.BLACK_WIN;
+
+    private final PolyglotKey keys;
+    private int maxPly = DEFAULT_MAX_PLY;
+    private int minGames = 1;
+    private int minWeight;
+
+    /**
+     * Instantiates a new Polyglot book writer, keyed with the standard Random64 table.
+     *
+     * @see PolyglotKey#getDefault()
+     */
+    public PolyglotBookWriter() {
+        this(PolyglotKey.getDefault());
+    }
+
+    /**
+     * Instantiates a new Polyglot book writer.
+     *
+     * @param keys the polyglot key
+     */
+    public PolyglotBookWriter(PolyglotKey keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Gets the number of plies of each game added to the book.
+     *
+     * @return the max ply
+     */
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    /**
+     * Sets the number of plies of each game added to the book.
+     *
+     * @param maxPly the max ply
+     */
+    public void setMaxPly(int maxPly) {
+        if (maxPly <= 0) {
+            throw new IllegalArgumentException("Invalid max ply: " + maxPly);
+        }
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Gets the minimum number of games for a move to be kept in the book.
+     *
+     * @return the min games
+     */
+    public int getMinGames() {
+        return minGames;
+    }
+
+    /**
+     * Sets the minimum number of games for a move to be kept in the book.
+     *
+     * @param minGames the min games
+     */
+    public void setMinGames(int minGames) {
+        this.minGames = minGames;
+    }
+
+    /**
+     * Gets the minimum weight for a move to be kept in the book.
+     *
+     * @return the min weight
+     */
+    public int getMinWeight() {
+        return minWeight;
+    }
+
+    /**
+     * Sets the minimum weight for a move to be kept in the book, before scaling. A weight of 1
+     * leaves out the moves which never scored.
+     *
+     * @param minWeight the min weight
+     */
+    public void setMinWeight(int minWeight) {
+        this.minWeight = minWeight;
+    }
+
+    /**
+     * Builds the book from a PGN file.
+     *
+     * @param pgnFile  the pgn file
+     * @param bookFile the book file, created or replaced
+     * @return the number of entries of the book
+     * @throws IOException if the files cannot be read or written
+     */
+    public int build(Path pgnFile, Path bookFile) throws IOException {
+        MoveStatsMap map = new MoveStatsMap(1 << 16);
+        MainLineReplayer replayer = new MainLineReplayer();
+        long[] key = new long[1];
+        try (PgnReader reader = new PgnReader(pgnFile)) {
+            PgnRecord record;
+            while ((record = reader.read()) != null) {
+                GameResult result = result(record.getTag("Result"));
+                try {
+                    key[0] = keys.getKey(replayer.start(record));
+                    replayer.replay(record, (board, ply, packed) -> {
+                        Move move = Move.fromPacked(packed);
+                        boolean kingMove = board.getPiece(move.getTo()).getPieceType() == PieceType.KING;
+                        map.add(key[0], PolyglotBook.fromMove(move, kingMove),
+                                score(result, board.getSideToMove().flip()), 0);
+                        key[0] = keys.getKey(board);
+                        return ply < maxPly;
+                    });
+                } catch (RuntimeException e) {
+                    // keeps the moves played before the illegal one
+                }
+            }
+        }
+        return write(map, bookFile);
+    }
+
+    private int write(MoveStatsMap map, Path bookFile) throws IOException {
+        int count = 0;
+        int[] order = new int[map.size()];
+        for (int i = 0; i < map.capacity(); i++) {
+            if (map.moves[i] != 0 && map.games[i] >= minGames && weight(map, i) >= minWeight) {
+                order[count++] = i;
+            }
+        }
+        SlotSorter.sort(order, count, (a, b) -> {
+            int c = Long.compareUnsigned(map.keys[a], map.keys[b]);
+            return c < 0 || c == 0 && weight(map, a) > weight(map, b);
+        });
+
+        Path tmp = bookFile.resolveSibling(bookFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tmp), 1 << 16))) {
+            int first = 0;
+            while (first < count) {
+                long key = map.keys[order[first]];
+                int last = first;
+                while (last < count && map.keys[order[last]] == key) {
+                    last++;
+                }
+                long max = weight(map, order[first]);
+                for (int i = first; i < last; i++) {
+                    long weight = weight(map, order[i]);
+                    out.writeLong(key);
+                    out.writeShort(map.moves[order[i]]);
+                    out.writeShort((int) (max > 0xFFFF ? weight * 0xFFFF / max : weight));
+                    out.writeInt(0);
+                }
+                first = last;
+            }
+        }
+        Files.move(tmp, bookFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /*
+     * the statistics of the map are kept for the side making the move: wins, draws and losses
+     */
+    private static long weight(MoveStatsMap map, int slot) {
+        return 2L * map.whiteWins[slot] + map.draws[slot];
+    }
+
+    private static int score(GameResult result, Side mover) {
+        if (result == GameResult.DRAW) {
+            return DRAW;
+        } else if (result == GameResult.WHITE_WON) {
+            return mover == Side.WHITE ? WIN : LOSS;
+        } else if (result == GameResult.BLACK_WON) {
+            return mover == Side.BLACK ? WIN : LOSS;
+        }
+        return MoveStatsMap.UNKNOWN;
+    }
+
+    private static GameResult result(ByteCharSequence tag) {
+        return tag != null ? GameResult.fromNotation(tag.toString()) : null;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.book;
+
+import com.github.bhlangonijr.chesslib.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Computes the hash key of a position as defined by the Polyglot opening book format, which is
+ * unrelated to {@link Board#getIncrementalHashKey()}: the XOR of the entries of a table of 781
+ * random numbers for every piece on its square, the castle rights, the en passant file when a
+ * pawn of the side to move stands next to the pawn that just moved two squares, and white to
+ * move.
+ * <p>
+ * The table, known as Random64, is published with the specification of the Polyglot book
+ * format and bundled with the library, see {@link #getDefault()}; another table can be given to
+ * this class, e.g.: read with {@link #load(InputStream)}. Keys are computed without allocating
+ * any object and the class is immutable, thus thread safe.
+ */
+public final class PolyglotKey {
+
+    /**
+     * The number of entries of the random table.
+     */
+    public static final int TABLE_SIZE = 781;
+
+    private static final int CASTLE = 768;
+    private static final int EN_PASSANT = 772;
+    private static final int TURN = 780;
+    private static final String RANDOM64_RESOURCE = "random64.txt";
+
+    private final long[] random64;
+
+    /**
+     * Instantiates a new Polyglot key.
+     *
+     * @param random64 the 781 entries of the Random64 table, in the order of the specification
+     */
+    public PolyglotKey(long[] random64) {
+        if (random64.length != TABLE_SIZE) {
+            throw new IllegalArgumentException("The table must have " + TABLE_SIZE + " entries: " + random64.length);
+        }
+        this.random64 = random64.clone();
+    }
+
+    /**
+     * Gets the Polyglot key computed with the Random64 table of the specification, which is
+     * read from the library resources on the first call.
+     *
+     * @return the polyglot key
+     */
+    public static PolyglotKey getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Reads the Random64 table from a text holding its entries as hexadecimal numbers prefixed
+     * with 0x, e.g.: the C array of the specification. Any other text is ignored.
+     *
+     * @param input the input stream, left open
+     * @return the polyglot key
+     * @throws IOException if the input cannot be read
+     * @throws IllegalArgumentException if the text does not hold 781 entries
+     */
+    public static PolyglotKey load(InputStream input) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = input.read(buffer)) > 0) {
+            bytes.write(buffer, 0, n);
+        }
+        return parse(new String(bytes.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Reads the Random64 table from a text file.
+     *
+     * @param path the path
+     * @return the polyglot key
+     * @throws IOException if the file cannot be read
+     * @see #load(InputStream)
+     */
+    public static PolyglotKey load(Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            return load(input);
+        }
+    }
+
+    private static PolyglotKey loadDefault() {
+        try (InputStream input = PolyglotKey.class.getResourceAsStream(RANDOM64_RESOURCE)) {
+            if (input == null) {
+                throw new IllegalStateException("Resource not found: " + RANDOM64_RESOURCE);
+            }
+            return load(input);
+        } catch (IOException e) {
+            throw new IllegalStateException("Couldn't read the resource " + RANDOM64_RESOURCE, e);
+        }
+    }
+
+    private static PolyglotKey parse(String text) {
+        long[] table = new long[TABLE_SIZE];
+        int count = 0;
+        int i = text.indexOf("0x");
+        while (i >= 0) {
+            int start = i + 2;
+            int end = start;
+            while (end < text.length() && Character.digit(text.charAt(end), 16) >= 0) {
+                end++;
+            }
+            if (end - start > 0 && end - start <= 16) {
+                if (count == TABLE_SIZE) {
+                    throw new IllegalArgumentException("The table has more than " + TABLE_SIZE + " entries");
+                }
+                table[count++] = Long.parseUnsignedLong(text.substring(start, end), 16);
+            }
+            i = text.indexOf("0x", end);
+        }
+        if (count != TABLE_SIZE) {
+            throw new IllegalArgumentException("The table must have " + TABLE_SIZE + " entries: " + count);
+        }
+        return new PolyglotKey(table);
+    }
+
+    /**
+     * Computes the Polyglot key of the position on the board.
+     *
+     * @param board the board
+     * @return the key
+     */
+    public long getKey(Board board) {
+        long key = 0L;
+        for (Piece piece : Piece.allPieces) {
+            if (piece == Piece.NONE) {
+                continue;
+            }
+            int kind = piece.getPieceType().ordinal() * 2 + (piece.getPieceSide() == Side.WHITE ? 1 : 0);
+            long pieces = board.getBitboard(piece);
+            while (pieces != 0L) {
+                key ^= random64[kind * 64 + Long.numberOfTrailingZeros(pieces)];
+                pieces &= pieces - 1;
+            }
+        }
+
+        CastleRight white = board.getCastleRight(Side.WHITE);
+        CastleRight black = board.getCastleRight(Side.BLACK);
+        if (white == CastleRight.KING_SIDE || white == CastleRight.KING_AND_QUEEN_SIDE) {
+            key ^= random64[CASTLE];
+        }
+        if (white == CastleRight.QUEEN_SIDE || white == CastleRight.KING_AND_QUEEN_SIDE) {
+            key ^= random64[CASTLE + 1];
+        }
+        if (black == CastleRight.KING_SIDE || black == CastleRight.KING_AND_QUEEN_SIDE) {
+            key ^= random64[CASTLE + 2];
+        }
+        if (black == CastleRight.QUEEN_SIDE || black == CastleRight.KING_AND_QUEEN_SIDE) {
+            key ^= random64[CASTLE + 3];
+        }
+
+        Side side = board.getSideToMove();
+        Square enPassant = board.getEnPassant();
+        if (enPassant != null && enPassant != Square.NONE) {
+            int file = enPassant.ordinal() & 7;
+            int pawnRank = side == Side.WHITE ? 4 : 3;
+            long adjacent = 0L;
+            if (file > 0) {
+                adjacent |= 1L << (pawnRank * 8 + file - 1);
+            }
+            if (file < 7) {
+                adjacent |= 1L << (pawnRank * 8 + file + 1);
+            }
+            if ((board.getBitboard(Piece.make(side, PieceType.PAWN)) & adjacent) != 0L) {
+                key ^= random64[EN_PASSANT + file];
+            }
+        }
+
+        if (side == Side.WHITE) {
+            key ^= random64[TURN];
+        }
+        return key;
+    }
+
+    private static final class DefaultHolder {
+        static final PolyglotKey INSTANCE = loadDefault();
+    }
+}
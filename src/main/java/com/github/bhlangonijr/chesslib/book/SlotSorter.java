@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.book;
+
+/**
+ * Sorts the slots of the primitive arrays of a map through an array of indices, without boxing.
+ */
+final class SlotSorter {
+
+    /**
+     * The order of two slots.
+     */
+    interface SlotOrder {
+
+        /**
+         * Returns true if the first slot comes before the second.
+         */
+        boolean less(int a, int b);
+    }
+
+    private SlotSorter() {
+    }
+
+    /**
+     * Sorts the first slots of the index array.
+     *
+     * @param order the slot indices
+     * @param count the number of indices to sort
+     * @param less  the order
+     */
+    static void sort(int[] order, int count, SlotOrder less) {
+        sort(order, 0, count - 1, less);
+    }
+
+    private static void sort(int[] order, int low, int high, SlotOrder less) {
+        while (high - low > 16) {
+            int pivot = order[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (less.less(order[i], pivot)) {
+                    i++;
+                }
+                while (less.less(pivot, order[j])) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(order, i++, j--);
+                }
+            }
+            if (j - low < high - i) {
+                sort(order, low, j, less);
+                low = i;
+            } else {
+                sort(order, i, high, less);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && less.less(order[j], order[j - 1]); j--) {
+                swap(order, j, j - 1);
+            }
+        }
+    }
+
+    private static void swap(int[] order, int i, int j) {
+        int t = order[i];
+        order[i] = order[j];
+        order[j] = t;
+    }
+}
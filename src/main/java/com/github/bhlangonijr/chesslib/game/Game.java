@@ -21,8 +21,10 @@ import com.github.bhlangonijr.chesslib.move.Move;
 import com.github.bhlangonijr.chesslib.move.MoveConversionException;
 import com.github.bhlangonijr.chesslib.move.MoveException;
 import com.github.bhlangonijr.chesslib.move.MoveList;
+import com.github.bhlangonijr.chesslib.pgn.MoveTextListener;
+import com.github.bhlangonijr.chesslib.pgn.MoveTextTokenizer;
 import com.github.bhlangonijr.chesslib.pgn.PgnException;
-import com.github.bhlangonijr.chesslib.util.StringUtil;
+import com.github.bhlangonijr.chesslib.util.ByteCharSequence;
 
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -57,6 +59,9 @@ public class Game {
     private MoveList currentMoveList;
     private String eco;
     private StringBuilder moveText;
+    private byte[] lazyMoveText;
+    private boolean moveTextPending;
+    private GameNode gameTree;
     private String opening;
     private String variation;
 
@@ -75,21 +80,8 @@ public class Game {
     }
 
     private static String makeProp(String name, String value) {
-        return "[" + name + " \"" + value + "\"]\n";
-    }
-
-    private static String getMovesAt(String moves, int index) {
-        StringBuilder b = new StringBuilder();
-        int count = 0;
-        for (String m : moves.split(" ")) {
-            count++;
-            if (count >= index) {
-                break;
-            }
-            b.append(m);
-            b.append(' ');
-        }
-        return b.toString();
+        String escaped = value == null ? null : value.replace("\\", "\\\\").replace("\"", "\\\"");
+        return "[" + name + " \"" + escaped + "\"]\n";
     }
 
     /**
@@ -242,6 +234,7 @@ public class Game {
      * @return the variations
      */
     public Map<Integer, MoveList> getVariations() {
+        loadLazyMoveText();
         return variations;
     }
 
@@ -260,6 +253,7 @@ public class Game {
      * @return the commentary
      */
     public Map<Integer, String> getCommentary() {
+        loadLazyMoveText();
         return commentary;
     }
 
@@ -278,6 +272,7 @@ public class Game {
      * @return the nag
      */
     public Map<Integer, String> getNag() {
+        loadLazyMoveText();
         return nag;
     }
 
@@ -290,12 +285,32 @@ public class Game {
         this.nag = nag;
     }
 
+    /**
+     * Gets the tree of moves read from the movetext, with their comments, NAGs and variations.
+     *
+     * @return the root node, or null if the moves were not loaded from a movetext
+     */
+    public GameNode getGameTree() {
+        loadLazyMoveText();
+        return gameTree;
+    }
+
+    /**
+     * Sets game tree.
+     *
+     * @param gameTree the root node of the game tree
+     */
+    public void setGameTree(GameNode gameTree) {
+        this.gameTree = gameTree;
+    }
+
     /**
      * Gets half moves.
      *
      * @return the halfMoves
      */
     public MoveList getHalfMoves() {
+        loadLazyMoveText();
         if (halfMoves == null) {
             if (getFen() != null && !getFen().trim().equals("")) {
                 halfMoves = new MoveList(getFen());
@@ -312,6 +327,7 @@ public class Game {
      * @param halfMoves the half moves
      */
     public void setHalfMoves(MoveList halfMoves) {
+        this.moveTextPending = false;
         this.halfMoves = halfMoves;
         setCurrentMoveList(halfMoves);
     }
@@ -676,6 +692,9 @@ public class Game {
      * @return the moveText
      */
     public StringBuilder getMoveText() {
+        if (moveText == null && lazyMoveText != null) {
+            return new StringBuilder(new ByteCharSequence(lazyMoveText).toString());
+        }
         return moveText;
     }
 
@@ -688,6 +707,42 @@ public class Game {
         this.moveText = moveText;
     }
 
+    /**
+     * Sets the movetext, as the bytes read from the PGN, to be decoded on the first access to
+     * the moves, variations, commentary or NAGs. The game only holds these bytes, which also back
+     * {@link #getMoveText()}.
+     *
+     * @param moveText the movetext in UTF-8 or Latin-1, without the game result
+     */
+    public void setLazyMoveText(byte[] moveText) {
+        this.moveText = null;
+        this.lazyMoveText = moveText;
+        this.moveTextPending = moveText != null;
+    }
+
+    /**
+     * Returns true if the movetext is set but not decoded yet.
+     *
+     * @return the boolean
+     */
+    public boolean isMoveTextPending() {
+        return moveTextPending;
+    }
+
+    private void loadLazyMoveText() {
+        if (!moveTextPending) {
+            return;
+        }
+        moveTextPending = false;
+        try {
+            loadMoveText(new ByteCharSequence(lazyMoveText));
+        } catch (PgnException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new PgnException("Error decoding the movetext of game " + getGameId(), e);
+        }
+    }
+
     /**
      * Load a MoveText from a PGN file into the Game object
      *
@@ -706,6 +761,19 @@ public class Game {
      * @throws Exception the exception
      */
     public void loadMoveText(StringBuilder moveText) throws Exception {
+        loadMoveText((CharSequence) moveText);
+    }
+
+    /**
+     * Load a MoveText into the Game object straight from a char sequence, e.g.: a view over the
+     * bytes of a PGN file
+     *
+     * @param moveText the move text
+     * @throws Exception the exception
+     */
+    public void loadMoveText(CharSequence moveText) throws Exception {
+
+        moveTextPending = false;
 
         if (getVariations() != null) {
             getVariations().clear();
@@ -717,159 +785,18 @@ public class Game {
             getNag().clear();
         }
 
-        StringUtil.replaceAll(moveText, "\n", " \n ");
-        StringUtil.replaceAll(moveText, "{", " { ");
-        StringUtil.replaceAll(moveText, "}", " } ");
-        StringUtil.replaceAll(moveText, "(", " ( ");
-        StringUtil.replaceAll(moveText, ")", " ) ");
-
-        String text = moveText.toString();
-
         if (getFen() != null && !getFen().trim().equals("")) {
             setHalfMoves(new MoveList(getFen()));
         } else {
             setHalfMoves(new MoveList());
         }
 
-        StringBuilder moves = new StringBuilder();
-        StringBuilder comment = null;
-        LinkedList<RTextEntry> variation =
-                new LinkedList<RTextEntry>();
-
-        int halfMove = 0;
-        int variantIndex = 0;
-
-        boolean onCommentBlock = false;
-        boolean onVariationBlock = false;
-        boolean onLineCommentBlock = false;
-        for (String token : text.split(" ")) {
-            if (token == null || token.trim().equals("")) {
-                continue;
-            }
-            if (!(onLineCommentBlock || onCommentBlock) &&
-                    token.contains("...")) {
-                token = StringUtil.afterSequence(token, "...");
-                if (token.trim().length() == 0) {
-                    continue;
-                }
-            }
-            if (!(onLineCommentBlock || onCommentBlock) &&
-                    token.contains(".")) {
-                token = StringUtil.afterSequence(token, ".");
-                if (token.trim().length() == 0) {
-                    continue;
-                }
-            }
-            if (!(onLineCommentBlock || onCommentBlock) &&
-                    token.startsWith("$")) {
-                if (getNag() == null) {
-                    setNag(new HashMap<Integer, String>());
-                }
-                getNag().put(variantIndex, token);
-                continue;
-            }
-            if (token.equals("{") &&
-                    !(onLineCommentBlock || onCommentBlock)) {
-                onCommentBlock = true;
-                comment = new StringBuilder();
-                continue;
-            } else if (token.equals("}") && !onLineCommentBlock) {
-                onCommentBlock = false;
-                if (comment != null) {
-                    if (getCommentary() == null) {
-                        setCommentary(new HashMap<Integer, String>());
-                    }
-                    getCommentary().put(variantIndex, comment.toString());
-                }
-                comment = null;
-                continue;
-            } else if (token.equals(";") && !onCommentBlock) {
-                onLineCommentBlock = true;
-                comment = new StringBuilder();
-                continue;
-            } else if (token.equals("\n") && onLineCommentBlock) {
-                onLineCommentBlock = false;
-                if (comment != null) {
-                    getCommentary().put(variantIndex, comment.toString());
-                }
-                comment = null;
-                continue;
-            } else if (token.equals("(") &&
-                    !(onCommentBlock) || onLineCommentBlock) {
-                onVariationBlock = true;
-                variation.add(new RTextEntry(variantIndex));
-                continue;
-            } else if (token.equals(")") && onVariationBlock &&
-                    !(onCommentBlock) || onLineCommentBlock) {
-                onVariationBlock = false;
-                if (variation != null) {
-                    final RTextEntry last = variation.pollLast();
-                    StringBuilder currentLine =
-                            new StringBuilder(getMovesAt(moves.toString(), halfMove));
-                    try {
-
-                        onVariationBlock = variation.size() > 0;
-
-                        for (RTextEntry entry : variation) {
-                            currentLine.append(getMovesAt(entry.text.toString(), entry.size));
-                        }
-
-                        MoveList tmp = new MoveList();
-                        tmp.loadFromSan(getMovesAt(currentLine.toString(), last.index));
-                        MoveList var = MoveList.createMoveListFrom(tmp, tmp.size());
-                        var.loadFromSan(last.text.toString());
-                        final RTextEntry parent = variation.peekLast();
-                        if (onVariationBlock && parent != null) {
-                            var.setParent(parent.index);
-                        } else {
-                            var.setParent(-1);
-                        }
-                        if (getVariations() == null) {
-                            setVariations(new HashMap<Integer, MoveList>());
-                        }
-                        getVariations().put(last.index, var);
-                    } catch (Exception e) {
-                        if (last != null) {
-                            throw new PgnException("Error while reading variation: " +
-                                    getMovesAt(currentLine.toString(), last.index) + " - " +
-                                    last.text.toString(), e);
-                        } else {
-                            throw new PgnException("Error while reading variation: ", e);
-                        }
-                    }
-                }
-                continue;
-            }
-
-            if (onCommentBlock || onLineCommentBlock) {
-                if (comment != null) {
-                    comment.append(token);
-                    comment.append(" ");
-                }
-                continue;
-            }
-
-            if (onVariationBlock) {
-                if (variation != null) {
-                    variation.getLast().text.append(token);
-                    variation.getLast().text.append(" ");
-                    variation.getLast().size++;
-                    variantIndex++;
-                }
-                continue;
-            }
-            variantIndex++;
-            halfMove++;
-            moves.append(token);
-            moves.append(" ");
-        }
-
-        StringUtil.replaceAll(moves, "\n", " ");
-        getHalfMoves().loadFromSan(moves.toString());
+        MoveTextTokenizer.tokenize(moveText, new MoveTextLoader());
     }
 
     /**
-     * Goto move with the specified index
+     * Goto move with the specified index. Seeking is cheaper when the move list
+     * keeps checkpoints, see {@link MoveList#setCheckpointInterval(int)}
      *
      * @param moves the moves
      * @param index the index
@@ -879,20 +806,10 @@ public class Game {
         setCurrentMoveList(moves);
         if (getBoard() != null &&
                 index >= 0 && index < moves.size()) {
-            getBoard().loadFromFen(moves.getStartFen());
-
-            int i = 0;
-            for (Move move : moves) {
-                if (!getBoard().doMove(move, true)) {
-                    throw new MoveException("Couldn't load board state. Reason: Illegal move in PGN MoveText.");
-                }
-                i++;
-                if (i - 1 == index) {
-                    break;
-                }
+            if (moves.gotoPly(getBoard(), index + 1, true) <= index) {
+                throw new MoveException("Couldn't load board state. Reason: Illegal move in PGN MoveText.");
             }
-            setPosition(i - 1);
-
+            setPosition(index);
         }
 
     }
@@ -1009,32 +926,139 @@ public class Game {
         this.property = property;
     }
 
-    /**
-     * The type R text entry.
-     */
-    class RTextEntry {
-        /**
-         * The Index.
-         */
-        int index;
-        /**
-         * The Size.
-         */
-        int size;
-        /**
-         * The Text.
-         */
-        StringBuilder text = new StringBuilder();
-
-        /**
-         * Instantiates a new R text entry.
-         *
-         * @param index the index
-         */
-        public RTextEntry(int index) {
+    /*
+     * the comment as it has always been stored: each word separated by spaces or line breaks,
+     * followed by a single space
+     */
+    private static String commentText(String text) {
+        StringBuilder comment = new StringBuilder(text.length() + 1);
+        for (String word : text.split("[ \r\n]")) {
+            if (word.trim().length() > 0) {
+                comment.append(word);
+                comment.append(" ");
+            }
+        }
+        return comment.toString();
+    }
+
+    /*
+     * a line of moves being read: the main line or a variation
+     */
+    private static class Line {
+        final MoveList moves;
+        final int index;
+        final Move undone;
+        GameNode node;
+        int played;
+        String pendingComment;
+
+        Line(MoveList moves, int index, GameNode node, Move undone) {
+            this.moves = moves;
             this.index = index;
-            this.size = 0;
+            this.node = node;
+            this.undone = undone;
         }
     }
 
+    /*
+     * builds the moves, variations, comments, NAGs and the game tree as the movetext is
+     * tokenized. A single board follows the walk: a variation undoes the move it replaces and
+     * its own moves when it ends, so no line is ever replayed
+     */
+    private class MoveTextLoader implements MoveTextListener {
+        private final LinkedList<Line> lines = new LinkedList<>();
+        private final Board board = new Board(new GameContext(), false);
+        private final GameNode root = new GameNode();
+        private int variantIndex;
+
+        MoveTextLoader() {
+            board.loadFromFen(getHalfMoves().getStartFen());
+            lines.add(new Line(getHalfMoves(), 0, root, null));
+            setGameTree(root);
+        }
+
+        @Override
+        public void onMove(CharSequence text, int start, int end) {
+            Line line = lines.getLast();
+            String san = text.subSequence(start, end).toString();
+            int size = line.moves.size();
+            line.moves.addSanMove(board, san, true);
+            if (line.moves.size() > size) {
+                line.node = line.node.addChild(line.moves.getLast(), san);
+                line.played++;
+                if (line.pendingComment != null) {
+                    line.node.setStartingComment(line.pendingComment);
+                    line.pendingComment = null;
+                }
+            }
+            variantIndex++;
+        }
+
+        @Override
+        public void onComment(CharSequence text, int start, int end) {
+            String comment = commentText(text.subSequence(start, end).toString());
+            if (getCommentary() == null) {
+                setCommentary(new HashMap<Integer, String>());
+            }
+            getCommentary().put(variantIndex, comment);
+            comment = comment.trim();
+
+            Line line = lines.getLast();
+            if (line.played == 0 && line.undone != null) {
+                line.pendingComment = join(line.pendingComment, comment);
+            } else {
+                line.node.setComment(join(line.node.getComment(), comment));
+            }
+        }
+
+        @Override
+        public void onNag(CharSequence text, int start, int end) {
+            String nag = text.subSequence(start, end).toString();
+            if (getNag() == null) {
+                setNag(new HashMap<Integer, String>());
+            }
+            getNag().put(variantIndex, nag);
+
+            Line line = lines.getLast();
+            if (line.played > 0 || line.undone == null) {
+                line.node.addNag(nag);
+            }
+        }
+
+        @Override
+        public void onVariationStart() {
+            // a variation replaces the last move of the enclosing line
+            Line parent = lines.getLast();
+            Move undone = null;
+            GameNode branch = parent.node;
+            if (!branch.isRoot()) {
+                undone = board.undoMove();
+                branch = branch.getParent();
+            }
+            lines.add(new Line(new MoveList(board.getFen()), variantIndex, branch, undone));
+        }
+
+        @Override
+        public void onVariationEnd() {
+            if (lines.size() < 2) {
+                return;
+            }
+            Line line = lines.removeLast();
+            for (int i = 0; i < line.played; i++) {
+                board.undoMove();
+            }
+            if (line.undone != null) {
+                board.doMove(line.undone, false);
+            }
+            line.moves.setParent(lines.size() > 1 ? lines.getLast().index : -1);
+            if (getVariations() == null) {
+                setVariations(new HashMap<Integer, MoveList>());
+            }
+            getVariations().put(line.index, line.moves);
+        }
+
+        private String join(String first, String second) {
+            return first == null ? second : first + " " + second;
+        }
+    }
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.game;
+
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A position in the tree of moves of a game, reached by playing {@link #getMove()} from its
+ * parent. The first child continues the current line, the others are its variations. The root
+ * node stands for the start position and has no move.
+ */
+public class GameNode {
+
+    private final GameNode parent;
+    private final Move move;
+    private final String san;
+    private final int ply;
+    private List<GameNode> children = Collections.emptyList();
+    private List<String> nags = Collections.emptyList();
+    private String comment;
+    private String startingComment;
+
+    /**
+     * Instantiates a new root Game node.
+     */
+    public GameNode() {
+        this(null, null, null);
+    }
+
+    private GameNode(GameNode parent, Move move, String san) {
+        this.parent = parent;
+        this.move = move;
+        this.san = san;
+        this.ply = parent == null ? 0 : parent.ply + 1;
+    }
+
+    /**
+     * Adds a child node reached by the given move. The first child added is the main
+     * continuation, the next ones are variations.
+     *
+     * @param move the move
+     * @param san  the move in SAN, as read from the movetext
+     * @return the child node
+     */
+    public GameNode addChild(Move move, String san) {
+        GameNode child = new GameNode(this, move, san);
+        if (children.isEmpty()) {
+            children = new ArrayList<>(1);
+        }
+        children.add(child);
+        return child;
+    }
+
+    /**
+     * Gets parent.
+     *
+     * @return the parent, or null for the root
+     */
+    public GameNode getParent() {
+        return parent;
+    }
+
+    /**
+     * Gets the move leading to this node.
+     *
+     * @return the move, or null for the root
+     */
+    public Move getMove() {
+        return move;
+    }
+
+    /**
+     * Gets san.
+     *
+     * @return the san, or null for the root
+     */
+    public String getSan() {
+        return san;
+    }
+
+    /**
+     * Gets the number of moves from the root to this node.
+     *
+     * @return the ply
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Gets children.
+     *
+     * @return the children
+     */
+    public List<GameNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Gets the main continuation.
+     *
+     * @return the first child, or null if the line ends here
+     */
+    public GameNode getMainChild() {
+        return children.isEmpty() ? null : children.get(0);
+    }
+
+    /**
+     * Gets the alternatives to the main continuation.
+     *
+     * @return the children but the first
+     */
+    public List<GameNode> getVariations() {
+        return children.size() < 2 ? Collections.<GameNode>emptyList() :
+                Collections.unmodifiableList(children.subList(1, children.size()));
+    }
+
+    /**
+     * Is root boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    /**
+     * Gets the moves played from the root to reach this node.
+     *
+     * @return the moves
+     */
+    public List<Move> getLine() {
+        LinkedList<Move> line = new LinkedList<>();
+        for (GameNode node = this; node.parent != null; node = node.parent) {
+            line.addFirst(node.move);
+        }
+        return new ArrayList<>(line);
+    }
+
+    /**
+     * Gets the comment following the move.
+     *
+     * @return the comment
+     */
+    public String getComment() {
+        return comment;
+    }
+
+    /**
+     * Sets comment.
+     *
+     * @param comment the comment
+     */
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    /**
+     * Gets the comment written before the move, at the start of a variation.
+     *
+     * @return the starting comment
+     */
+    public String getStartingComment() {
+        return startingComment;
+    }
+
+    /**
+     * Sets starting comment.
+     *
+     * @param startingComment the starting comment
+     */
+    public void setStartingComment(String startingComment) {
+        this.startingComment = startingComment;
+    }
+
+    /**
+     * Gets the annotation glyphs of the move, e.g.: $1.
+     *
+     * @return the nags
+     */
+    public List<String> getNags() {
+        return Collections.unmodifiableList(nags);
+    }
+
+    /**
+     * Adds an annotation glyph.
+     *
+     * @param nag the nag
+     */
+    public void addNag(String nag) {
+        if (nags.isEmpty()) {
+            nags = new ArrayList<>(1);
+        }
+        nags.add(nag);
+    }
+
+    @Override
+    public String toString() {
+        return san == null ? "root" : san;
+    }
+}
@@ -18,14 +18,66 @@ package com.github.bhlangonijr.chesslib.move;
 
 import com.github.bhlangonijr.chesslib.*;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * The type Move.
  */
 public class Move implements BoardEvent {
 
+    private static final int PROMOTION_SLOTS = 9;
+    private static final int[] promotionSlot = new int[Piece.allPieces.length];
+    private static final Move[] internTable = new Move[64 * 64 * PROMOTION_SLOTS];
+    private static final Piece[] slotPromotion = new Piece[PROMOTION_SLOTS];
+
+    static {
+        Arrays.fill(promotionSlot, -1);
+        promotionSlot[Piece.NONE.ordinal()] = 0;
+        promotionSlot[Piece.WHITE_KNIGHT.ordinal()] = 1;
+        promotionSlot[Piece.WHITE_BISHOP.ordinal()] = 2;
+        promotionSlot[Piece.WHITE_ROOK.ordinal()] = 3;
+        promotionSlot[Piece.WHITE_QUEEN.ordinal()] = 4;
+        promotionSlot[Piece.BLACK_KNIGHT.ordinal()] = 5;
+        promotionSlot[Piece.BLACK_BISHOP.ordinal()] = 6;
+        promotionSlot[Piece.BLACK_ROOK.ordinal()] = 7;
+        promotionSlot[Piece.BLACK_QUEEN.ordinal()] = 8;
+        for (Piece piece : Piece.allPieces) {
+            if (promotionSlot[piece.ordinal()] >= 0) {
+                slotPromotion[promotionSlot[piece.ordinal()]] = piece;
+            }
+        }
+        slotPromotion[0] = Piece.NONE;
+
+        final Piece[] whitePromotions = {Piece.WHITE_KNIGHT, Piece.WHITE_BISHOP, Piece.WHITE_ROOK, Piece.WHITE_QUEEN};
+        final Piece[] blackPromotions = {Piece.BLACK_KNIGHT, Piece.BLACK_BISHOP, Piece.BLACK_ROOK, Piece.BLACK_QUEEN};
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                Square sqFrom = Square.squareAt(from);
+                Square sqTo = Square.squareAt(to);
+                internTable[internIndex(from, to, 0)] = new Move(sqFrom, sqTo, Piece.NONE, true);
+                if (Math.abs(sqFrom.getFile().ordinal() - sqTo.getFile().ordinal()) > 1) {
+                    continue;
+                }
+                if (sqFrom.getRank() == Rank.RANK_7 && sqTo.getRank() == Rank.RANK_8) {
+                    for (Piece promotion : whitePromotions) {
+                        internTable[internIndex(from, to, promotionSlot[promotion.ordinal()])] =
+                                new Move(sqFrom, sqTo, promotion, true);
+                    }
+                } else if (sqFrom.getRank() == Rank.RANK_2 && sqTo.getRank() == Rank.RANK_1) {
+                    for (Piece promotion : blackPromotions) {
+                        internTable[internIndex(from, to, promotionSlot[promotion.ordinal()])] =
+                                new Move(sqFrom, sqTo, promotion, true);
+                    }
+                }
+            }
+        }
+    }
+
     private final Square from;
     private final Square to;
     private final Piece promotion;
+    private final boolean canonical;
     private String san;
 
     /**
@@ -46,9 +98,14 @@ public class Move implements BoardEvent {
      * @param promotion the promotion
      */
     public Move(Square from, Square to, Piece promotion) {
+        this(from, to, promotion, false);
+    }
+
+    private Move(Square from, Square to, Piece promotion, boolean canonical) {
         this.promotion = promotion;
         this.from = from;
         this.to = to;
+        this.canonical = canonical;
     }
 
     /**
@@ -67,6 +124,169 @@ public class Move implements BoardEvent {
                                 move.substring(4, 5).toLowerCase()));
     }
 
+    /**
+     * Returns the canonical instance of the move. Moves between two board squares, including
+     * the promotions a pawn can actually make, are taken from a static table of immutable
+     * instances, so the same move is always represented by the same object; see
+     * {@link #withSan(String)} to attach a SAN to one of them. Any other combination, e.g.:
+     * involving {@link Square#NONE}, is returned as a new instance.
+     *
+     * @param from      the from
+     * @param to        the to
+     * @param promotion the promotion
+     * @return the canonical move
+     */
+    public static Move of(Square from, Square to, Piece promotion) {
+        if (from == Square.NONE || to == Square.NONE) {
+            return new Move(from, to, promotion);
+        }
+        int slot = promotionSlot[promotion.ordinal()];
+        if (slot >= 0) {
+            Move move = internTable[internIndex(from.ordinal(), to.ordinal(), slot)];
+            if (move != null) {
+                return move;
+            }
+        }
+        return new Move(from, to, promotion);
+    }
+
+    /**
+     * Returns the canonical instance of a move without promotion.
+     *
+     * @param from the from
+     * @param to   the to
+     * @return the canonical move
+     */
+    public static Move of(Square from, Square to) {
+        return of(from, to, Piece.NONE);
+    }
+
+    /**
+     * Parses a move in the long algebraic (UCI) notation, e.g.: e2e4, e7e8q, into its
+     * canonical instance, without creating intermediate strings.
+     *
+     * @param move the move text
+     * @param side the side to move, used to resolve the color of the promotion piece
+     * @return the canonical move
+     * @throws IllegalArgumentException if the text is not a valid move
+     */
+    public static Move fromUci(CharSequence move, Side side) {
+        return fromUci(move, 0, move.length(), side);
+    }
+
+    /**
+     * Parses a move in the long algebraic (UCI) notation from a slice of a char sequence.
+     *
+     * @param text  the text containing the move
+     * @param start index of the first char of the move
+     * @param end   index after the last char of the move
+     * @param side  the side to move, used to resolve the color of the promotion piece
+     * @return the canonical move
+     * @throws IllegalArgumentException if the text is not a valid move
+     */
+    public static Move fromUci(CharSequence text, int start, int end, Side side) {
+        int length = end - start;
+        if (length < 4 || length > 5) {
+            throw new IllegalArgumentException("Invalid move: " + text.subSequence(start, end));
+        }
+        int from = parseSquare(text.charAt(start), text.charAt(start + 1));
+        int to = parseSquare(text.charAt(start + 2), text.charAt(start + 3));
+        if (from < 0 || to < 0) {
+            throw new IllegalArgumentException("Invalid move: " + text.subSequence(start, end));
+        }
+        int slot = 0;
+        if (length == 5) {
+            slot = promotionSlot(text.charAt(start + 4), side);
+            if (slot < 0) {
+                throw new IllegalArgumentException("Invalid promotion: " + text.subSequence(start, end));
+            }
+        }
+        Move move = internTable[internIndex(from, to, slot)];
+        if (move == null) {
+            throw new IllegalArgumentException("Invalid promotion: " + text.subSequence(start, end));
+        }
+        return move;
+    }
+
+    /**
+     * Returns the canonical move encoded by {@link #toPacked()}.
+     *
+     * @param packed the packed move
+     * @return the canonical move
+     * @throws IllegalArgumentException if the value does not encode a valid move
+     */
+    public static Move fromPacked(int packed) {
+        int slot = (packed >>> 12) & 0xF;
+        Move move = null;
+        if ((packed & ~0xFFFF) == 0 && slot < PROMOTION_SLOTS) {
+            move = internTable[internIndex(packed & 0x3F, (packed >>> 6) & 0x3F, slot)];
+        }
+        if (move == null || packed == 0) {
+            throw new IllegalArgumentException("Invalid packed move: " + packed);
+        }
+        return move;
+    }
+
+    /**
+     * Encodes the move into 16 bits: bits 0-5 hold the from square, bits 6-11 the to square and
+     * bits 12-15 the promotion piece. Zero never encodes a real move and can be used as a
+     * sentinel.
+     *
+     * @return the packed move
+     * @throws IllegalStateException if the move involves {@link Square#NONE} or cannot be a promotion
+     */
+    public int toPacked() {
+        if (from == Square.NONE || to == Square.NONE || promotionSlot[promotion.ordinal()] < 0) {
+            throw new IllegalStateException("Move cannot be packed: " + this);
+        }
+        return from.ordinal() | (to.ordinal() << 6) | (promotionSlot[promotion.ordinal()] << 12);
+    }
+
+    /**
+     * Packs a list of moves into an array of ints.
+     *
+     * @param moves the moves
+     * @return the packed moves
+     * @see #toPacked()
+     */
+    public static int[] toPacked(List<Move> moves) {
+        int[] packed = new int[moves.size()];
+        int i = 0;
+        for (Move move : moves) {
+            packed[i++] = move.toPacked();
+        }
+        return packed;
+    }
+
+    private static int internIndex(int from, int to, int slot) {
+        return ((from << 6) | to) * PROMOTION_SLOTS + slot;
+    }
+
+    private static int parseSquare(char file, char rank) {
+        int f = Character.toLowerCase(file) - 'a';
+        int r = rank - '1';
+        if (f < 0 || f > 7 || r < 0 || r > 7) {
+            return -1;
+        }
+        return (r << 3) | f;
+    }
+
+    private static int promotionSlot(char c, Side side) {
+        int offset = Side.WHITE.equals(side) ? 0 : 4;
+        switch (Character.toLowerCase(c)) {
+            case 'n':
+                return 1 + offset;
+            case 'b':
+                return 2 + offset;
+            case 'r':
+                return 3 + offset;
+            case 'q':
+                return 4 + offset;
+            default:
+                return -1;
+        }
+    }
+
     /**
      * Gets from.
      *
@@ -96,19 +316,22 @@ public class Move implements BoardEvent {
 
     @Override
     public boolean equals(Object obj) {
-        if (obj == null || !(obj instanceof Move)) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof Move)) {
             return false;
         }
         Move move = (Move) obj;
-        return move.getFrom().equals(getFrom()) &&
-                move.getTo().equals(getTo()) &&
-                move.getPromotion().equals(getPromotion());
+        return move.getFrom() == getFrom() &&
+                move.getTo() == getTo() &&
+                move.getPromotion() == getPromotion();
 
     }
 
     @Override
     public int hashCode() {
-        return toString().hashCode();
+        return (from.ordinal() * 65 + to.ordinal()) * 13 + promotion.ordinal();
     }
 
     @Override
@@ -137,11 +360,39 @@ public class Move implements BoardEvent {
 
     /**
      * Sets san.
+     * <p>
+     * Canonical instances returned by {@link #of(Square, Square, Piece)} are shared and cannot
+     * carry a SAN, use {@link #withSan(String)} to get a copy holding it.
      *
      * @param san the san
+     * @throws UnsupportedOperationException if the move is a canonical instance
      */
     public void setSan(String san) {
+        if (canonical) {
+            throw new UnsupportedOperationException("Canonical move " + this + " is immutable");
+        }
         this.san = san;
     }
 
+    /**
+     * Returns a new move, equal to this one, holding the given SAN.
+     *
+     * @param san the san
+     * @return the move with the san
+     */
+    public Move withSan(String san) {
+        Move move = new Move(from, to, promotion);
+        move.san = san;
+        return move;
+    }
+
+    /**
+     * Checks whether this is a shared canonical instance, which cannot be modified.
+     *
+     * @return true if the move is canonical
+     */
+    public boolean isCanonical() {
+        return canonical;
+    }
+
 }
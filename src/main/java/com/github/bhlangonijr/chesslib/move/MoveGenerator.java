@@ -84,17 +84,17 @@ public class MoveGenerator {
     private static void addPromotions(List<Move> moves, Side side, Square sqTarget, Square sqSource) {
 
         if (Side.WHITE.equals(side) && Rank.RANK_8.equals(sqTarget.getRank())) {
-            moves.add(new Move(sqSource, sqTarget, Piece.WHITE_QUEEN));
-            moves.add(new Move(sqSource, sqTarget, Piece.WHITE_ROOK));
-            moves.add(new Move(sqSource, sqTarget, Piece.WHITE_BISHOP));
-            moves.add(new Move(sqSource, sqTarget, Piece.WHITE_KNIGHT));
+            moves.add(Move.of(sqSource, sqTarget, Piece.WHITE_QUEEN));
+            moves.add(Move.of(sqSource, sqTarget, Piece.WHITE_ROOK));
+            moves.add(Move.of(sqSource, sqTarget, Piece.WHITE_BISHOP));
+            moves.add(Move.of(sqSource, sqTarget, Piece.WHITE_KNIGHT));
         } else if (Side.BLACK.equals(side) && Rank.RANK_1.equals(sqTarget.getRank())) {
-            moves.add(new Move(sqSource, sqTarget, Piece.BLACK_QUEEN));
-            moves.add(new Move(sqSource, sqTarget, Piece.BLACK_ROOK));
-            moves.add(new Move(sqSource, sqTarget, Piece.BLACK_BISHOP));
-            moves.add(new Move(sqSource, sqTarget, Piece.BLACK_KNIGHT));
+            moves.add(Move.of(sqSource, sqTarget, Piece.BLACK_QUEEN));
+            moves.add(Move.of(sqSource, sqTarget, Piece.BLACK_ROOK));
+            moves.add(Move.of(sqSource, sqTarget, Piece.BLACK_BISHOP));
+            moves.add(Move.of(sqSource, sqTarget, Piece.BLACK_KNIGHT));
         } else {
-            moves.add(new Move(sqSource, sqTarget, Piece.NONE));
+            moves.add(Move.of(sqSource, sqTarget, Piece.NONE));
         }
     }
 
@@ -117,7 +117,7 @@ public class MoveGenerator {
                 int attackIndex = bitScanForward(attacks);
                 attacks = extractLsb(attacks);
                 Square sqTarget = Square.squareAt(attackIndex);
-                moves.add(new Move(sqSource, sqTarget, Piece.NONE));
+                moves.add(Move.of(sqSource, sqTarget, Piece.NONE));
             }
         }
     }
@@ -152,7 +152,7 @@ public class MoveGenerator {
                 int attackIndex = bitScanForward(attacks);
                 attacks = extractLsb(attacks);
                 Square sqTarget = Square.squareAt(attackIndex);
-                moves.add(new Move(sqSource, sqTarget, Piece.NONE));
+                moves.add(Move.of(sqSource, sqTarget, Piece.NONE));
             }
         }
     }
@@ -187,7 +187,7 @@ public class MoveGenerator {
                 int attackIndex = bitScanForward(attacks);
                 attacks = extractLsb(attacks);
                 Square sqTarget = Square.squareAt(attackIndex);
-                moves.add(new Move(sqSource, sqTarget, Piece.NONE));
+                moves.add(Move.of(sqSource, sqTarget, Piece.NONE));
             }
         }
     }
@@ -222,7 +222,7 @@ public class MoveGenerator {
                 int attackIndex = bitScanForward(attacks);
                 attacks = extractLsb(attacks);
                 Square sqTarget = Square.squareAt(attackIndex);
-                moves.add(new Move(sqSource, sqTarget, Piece.NONE));
+                moves.add(Move.of(sqSource, sqTarget, Piece.NONE));
             }
         }
     }
@@ -257,7 +257,7 @@ public class MoveGenerator {
                 int attackIndex = bitScanForward(attacks);
                 attacks = extractLsb(attacks);
                 Square sqTarget = Square.squareAt(attackIndex);
-                moves.add(new Move(sqSource, sqTarget, Piece.NONE));
+                moves.add(Move.of(sqSource, sqTarget, Piece.NONE));
             }
         }
     }
@@ -347,7 +347,7 @@ public class MoveGenerator {
                 // Get Square
                 Square sqTarget = Square.squareAt(attackIndex);
                 // Finally add new move to move list for piece
-                movesForPiece.add(new Move(sqSource, sqTarget, Piece.NONE));
+                movesForPiece.add(Move.of(sqSource, sqTarget, Piece.NONE));
             }
         }
         return movesForPiece;
@@ -426,6 +426,131 @@ public class MoveGenerator {
         pieceMovesAndIntegrity.setMoves(moves);
         return pieceMovesAndIntegrity;
     }
+    /**
+     * Count all legal moves without generating them
+     *
+     * @param board the board
+     * @return number of legal moves
+     */
+    public static int countLegalMoves(Board board) {
+        return countLegalMoves(board, PieceType.NONE);
+    }
+
+    /**
+     * Count the legal moves of a piece type without generating them. The count matches the size of
+     * {@link #generateLegalMoves(Board)}, so every promotion counts as a distinct move and castle moves are
+     * not included.
+     *
+     * @param board     the board
+     * @param pieceType the piece type, or {@link PieceType#NONE} to count the moves of all pieces
+     * @return number of legal moves
+     */
+    public static int countLegalMoves(Board board, PieceType pieceType) {
+        final boolean all = PieceType.NONE.equals(pieceType);
+        final Side side = board.getSideToMove();
+        final Side other = side.flip();
+        final long us = board.getBitboard(side);
+        final long occ = board.getBitboard();
+        final Square kingSq = board.getKingSquare(side);
+        final long checkers = board.squareAttackedBy(kingSq, other);
+        int count = 0;
+
+        if (all || PieceType.KING.equals(pieceType)) {
+            long targets = Bitboard.getKingAttacks(kingSq, ~us);
+            long occWithoutKing = occ ^ kingSq.getBitboard();
+            while (targets != 0L) {
+                Square sqTarget = Square.squareAt(bitScanForward(targets));
+                targets = extractLsb(targets);
+                if (board.squareAttackedBy(sqTarget, other, occWithoutKing) == 0L) {
+                    count++;
+                }
+            }
+        }
+        if (Long.bitCount(checkers) > 1 || PieceType.KING.equals(pieceType)) {
+            return count;
+        }
+
+        final long checkMask = checkers == 0L ? ~0L :
+                checkers | Bitboard.getBetweenbb(kingSq, Square.squareAt(bitScanForward(checkers)));
+        final long pinned = board.getPinnedPieces(side);
+        final long targetMask = ~us & checkMask;
+
+        if (all || PieceType.KNIGHT.equals(pieceType)) {
+            // a pinned knight can never move
+            long pieces = board.getBitboard(Piece.make(side, PieceType.KNIGHT)) & ~pinned;
+            while (pieces != 0L) {
+                Square sqSource = Square.squareAt(bitScanForward(pieces));
+                pieces = extractLsb(pieces);
+                count += Long.bitCount(Bitboard.getKnightAttacks(sqSource, targetMask));
+            }
+        }
+        if (all || PieceType.BISHOP.equals(pieceType)) {
+            count += countSliderMoves(board, side, PieceType.BISHOP, kingSq, pinned, targetMask);
+        }
+        if (all || PieceType.ROOK.equals(pieceType)) {
+            count += countSliderMoves(board, side, PieceType.ROOK, kingSq, pinned, targetMask);
+        }
+        if (all || PieceType.QUEEN.equals(pieceType)) {
+            count += countSliderMoves(board, side, PieceType.QUEEN, kingSq, pinned, targetMask);
+        }
+        if (all || PieceType.PAWN.equals(pieceType)) {
+            count += countPawnMoves(board, side, kingSq, pinned, checkMask);
+        }
+        return count;
+    }
+
+    private static int countSliderMoves(Board board, Side side, PieceType pieceType,
+                                        Square kingSq, long pinned, long targetMask) {
+        int count = 0;
+        long occ = board.getBitboard();
+        long pieces = board.getBitboard(Piece.make(side, pieceType));
+        while (pieces != 0L) {
+            Square sqSource = Square.squareAt(bitScanForward(pieces));
+            pieces = extractLsb(pieces);
+            long attacks;
+            if (PieceType.BISHOP.equals(pieceType)) {
+                attacks = Bitboard.getBishopAttacks(occ, sqSource);
+            } else if (PieceType.ROOK.equals(pieceType)) {
+                attacks = Bitboard.getRookAttacks(occ, sqSource);
+            } else {
+                attacks = Bitboard.getQueenAttacks(occ, sqSource);
+            }
+            attacks &= targetMask;
+            if ((pinned & sqSource.getBitboard()) != 0L) {
+                attacks &= Bitboard.getLinebb(kingSq, sqSource);
+            }
+            count += Long.bitCount(attacks);
+        }
+        return count;
+    }
+
+    private static int countPawnMoves(Board board, Side side, Square kingSq, long pinned, long checkMask) {
+        int count = 0;
+        final long occ = board.getBitboard();
+        final long us = board.getBitboard(side);
+        final Square epTarget = board.getEnPassantTarget();
+        final long epSquare = Square.NONE.equals(epTarget) ? 0L :
+                Side.WHITE.equals(side) ? epTarget.getBitboard() << 8 : epTarget.getBitboard() >>> 8;
+        final long promoRank = Bitboard.getRankbb(Side.WHITE.equals(side) ? Rank.RANK_8 : Rank.RANK_1);
+        long pieces = board.getBitboard(Piece.make(side, PieceType.PAWN));
+        while (pieces != 0L) {
+            Square sqSource = Square.squareAt(bitScanForward(pieces));
+            pieces = extractLsb(pieces);
+            long captures = Bitboard.getPawnCaptures(side, sqSource, occ, epTarget) & ~us;
+            long targets = (Bitboard.getPawnMoves(side, sqSource, occ) | captures) & ~epSquare & checkMask;
+            if ((pinned & sqSource.getBitboard()) != 0L) {
+                targets &= Bitboard.getLinebb(kingSq, sqSource);
+            }
+            count += Long.bitCount(targets & ~promoRank) + 4 * Long.bitCount(targets & promoRank);
+            // en passant can discover an attack on the king along the rank, so it is fully validated
+            if ((captures & epSquare) != 0L &&
+                    board.isMoveLegal(Move.of(sqSource, Square.squareAt(bitScanForward(epSquare))), false)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Generate Legal Moves
      *
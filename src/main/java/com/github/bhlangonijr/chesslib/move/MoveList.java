@@ -19,77 +19,36 @@ package com.github.bhlangonijr.chesslib.move;
 import com.github.bhlangonijr.chesslib.*;
 import com.github.bhlangonijr.chesslib.util.StringUtil;
 
+import java.io.IOException;
+import java.io.Serializable;
 import java.util.*;
 
 /**
- * The type Move list.
+ * The type Move list. Moves are kept in an array, so indexed access is constant time.
  */
-public class MoveList extends LinkedList<Move> implements List<Move> {
+public class MoveList extends AbstractList<Move> implements List<Move>, RandomAccess, Serializable {
 
     private static final long serialVersionUID = -6204280556340150806L;
-    private static final ThreadLocal<Board> boardHolder = new ThreadLocal<Board>() {
-        @Override
-        protected Board initialValue() {
-            return new Board();
-        }
-    };
     private static final Move nullMove = new Move(Square.NONE, Square.NONE);
+    private static final Move[] EMPTY = new Move[0];
+    private static final int DEFAULT_CAPACITY = 16;
 
-    private static EnumMap<Piece, String> sanNotation =
-            new EnumMap<Piece, String>(Piece.class);
-
-    private static EnumMap<Piece, String> fanNotation =
-            new EnumMap<Piece, String>(Piece.class);
-
-    private static Map<String, PieceType> sanNotationR =
-            new HashMap<String, PieceType>(7);
-
-
-    static {
-        sanNotation.put(Piece.WHITE_PAWN, "");
-        sanNotation.put(Piece.BLACK_PAWN, "");
-        sanNotation.put(Piece.WHITE_KNIGHT, "N");
-        sanNotation.put(Piece.BLACK_KNIGHT, "N");
-        sanNotation.put(Piece.WHITE_BISHOP, "B");
-        sanNotation.put(Piece.BLACK_BISHOP, "B");
-        sanNotation.put(Piece.WHITE_ROOK, "R");
-        sanNotation.put(Piece.BLACK_ROOK, "R");
-        sanNotation.put(Piece.WHITE_QUEEN, "Q");
-        sanNotation.put(Piece.BLACK_QUEEN, "Q");
-        sanNotation.put(Piece.WHITE_KING, "K");
-        sanNotation.put(Piece.BLACK_KING, "K");
-        sanNotation.put(Piece.NONE, "NONE");
-
-        fanNotation.put(Piece.WHITE_PAWN, "♙");
-        fanNotation.put(Piece.BLACK_PAWN, "♟");
-        fanNotation.put(Piece.WHITE_KNIGHT, "♘");
-        fanNotation.put(Piece.BLACK_KNIGHT, "♞");
-        fanNotation.put(Piece.WHITE_BISHOP, "♗");
-        fanNotation.put(Piece.BLACK_BISHOP, "♝");
-        fanNotation.put(Piece.WHITE_ROOK, "♖");
-        fanNotation.put(Piece.BLACK_ROOK, "♜");
-        fanNotation.put(Piece.WHITE_QUEEN, "♕");
-        fanNotation.put(Piece.BLACK_QUEEN, "♛");
-        fanNotation.put(Piece.WHITE_KING, "♔");
-        fanNotation.put(Piece.BLACK_KING, "♚");
-        fanNotation.put(Piece.NONE, "NONE");
-
-        sanNotationR.put("", PieceType.PAWN);
-        sanNotationR.put("N", PieceType.KNIGHT);
-        sanNotationR.put("B", PieceType.BISHOP);
-        sanNotationR.put("R", PieceType.ROOK);
-        sanNotationR.put("Q", PieceType.QUEEN);
-        sanNotationR.put("K", PieceType.KING);
-        sanNotationR.put("NONE", PieceType.NONE);
-    }
+    private static final EnumMap<Piece, String> sanNotation = SanEncoder.sanNotation;
+    private static final EnumMap<Piece, String> fanNotation = SanEncoder.fanNotation;
 
     private final String startFEN;
-    private boolean dirty = true;
+    private Move[] moves = EMPTY;
+    private int size;
 
     private String[] sanArray;
     private String[] fanArray;
+    private int encodedCount;
+    private transient BoardSnapshot encodedTail;
+    private transient BoardSnapshot sanTail;
     private int parent;
     private int index;
+    private int checkpointInterval;
+    private transient List<BoardSnapshot> checkpoints;
 
     /**
      * Instantiates a new Move list.
@@ -114,16 +73,7 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      */
     public MoveList(MoveList halfMoves) {
         this(halfMoves.getStartFen());
-        super.addAll(halfMoves);
-    }
-
-    /**
-     * Gets board.
-     *
-     * @return the board
-     */
-    protected static Board getBoard() {
-        return boardHolder.get();
+        addAll(halfMoves);
     }
 
     /**
@@ -164,101 +114,15 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
     // encode the move to SAN/FAN move and update thread local board
     protected static String encode(final Board board, Move move, EnumMap<Piece, String> notation)
             throws MoveConversionException {
-        StringBuilder san = new StringBuilder();
-        Piece piece = board.getPiece(move.getFrom());
-        if (piece.getPieceType().equals(PieceType.KING)) {
-            int delta = move.getTo().getFile().ordinal() -
-                    move.getFrom().getFile().ordinal();
-            if (Math.abs(delta) >= 2) { // is castle
-                if (!board.doMove(move, true)) {
-                    throw new MoveConversionException("Invalid move [" +
-                            move.toString() + "] for current setup: " + board.getFen());
-                }
-                san.append(delta > 0 ? "O-O" : "O-O-O");
-                addCheckFlag(board, san);
-                return san.toString();
-            }
-        }
-        boolean pawnMove = piece.getPieceType().equals(PieceType.PAWN) &&
-                move.getFrom().getFile().equals(move.getTo().getFile());
-        boolean ambResolved = false;
-        san.append(notation.get(piece));
-        if (!pawnMove) {
-            //resolving ambiguous move
-            long amb = board.squareAttackedByPieceType(move.getTo(),
-                    board.getSideToMove(), piece.getPieceType());
-            amb &= ~move.getFrom().getBitboard();
-            if (amb != 0L) {
-                List<Square> fromList = Bitboard.bbToSquareList(amb);
-                for (Square from : fromList) {
-                    if (!board.isMoveLegal(new Move(from, move.getTo()), false)) {
-                        amb ^= from.getBitboard();
-                    }
-                }
-            }
-            if (amb != 0L) {
-                if ((Bitboard.getFilebb(move.getFrom()) & amb) == 0L) {
-                    san.append(move.getFrom().getFile().getNotation().toLowerCase());
-                } else if ((Bitboard.getRankbb(move.getFrom()) & amb) == 0L) {
-                    san.append(move.getFrom().getRank().getNotation().toLowerCase());
-                } else {
-                    san.append(move.getFrom().toString().toLowerCase());
-                }
-                ambResolved = true;
-            }
-        }
-
-        if (!board.doMove(move, true)) {
-            throw new MoveConversionException("Invalid move [" +
-                    move.toString() + "] for current setup: " + board.getFen());
-        }
-
-
-        Piece captured = board.getBackup().getLast().getCapturedPiece();
-        boolean isCapture = !captured.equals(Piece.NONE);
-        if (isCapture) {
-            if (!ambResolved &&
-                    piece.getPieceType().equals(PieceType.PAWN)) {
-                san.append(move.getFrom().getFile().getNotation().toLowerCase());
-            }
-            san.append("x");
-        }
-        san.append(move.getTo().toString().toLowerCase());
-        if (!move.getPromotion().equals(Piece.NONE)) {
-            san.append("=");
-            san.append(notation.get(move.getPromotion()));
+        StringBuilder san = new StringBuilder(8);
+        try {
+            SanEncoder.encode(board, move, san, notation);
+        } catch (IOException e) {
+            throw new MoveConversionException(e);
         }
-        addCheckFlag(board, san);
         return san.toString();
     }
 
-    private static void addCheckFlag(Board board, StringBuilder san) {
-
-        if (board.isKingAttacked()) {
-            if (board.isMated()) {
-                san.append("#");
-            } else {
-                san.append("+");
-            }
-        }
-    }
-
-    private static long findLegalSquares(Board board, Square to, Piece promotion, long pieces) {
-        long result = 0L;
-
-        if (pieces != 0L) {
-            for (Square sqSource : Bitboard.bbToSquareList(pieces)) {
-                Move move = new Move(sqSource, to, promotion);
-                if (board.isMoveLegal(move, true)) {
-                    result |= sqSource.getBitboard();
-                    break;
-                }
-            }
-        }
-
-        return result;
-    }
-
     /**
      * Create a MoveList with a given startposition
      *
@@ -268,27 +132,105 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      * @throws MoveConversionException the move conversion exception
      */
     public static MoveList createMoveListFrom(MoveList startMoves, int finalIndex) throws MoveConversionException {
-        String fen = null;
-        final Board b = getBoard();
-        if (!b.getFen().equals(startMoves.getStartFen())) {
-            b.loadFromFen(startMoves.getStartFen());
-        }
-        int i = 0;
-        for (Move move : startMoves) {
-            i++;
-            if (!b.doMove(move, false)) {
+        try (SanContext context = SanContext.borrow()) {
+            final Board b = context.getBoard();
+            int plies = Math.min(Math.max(finalIndex, 1), startMoves.size());
+            int played = startMoves.gotoPly(b, plies, false);
+            if (played < plies) {
+                Move move = startMoves.get(played);
                 throw new MoveConversionException("Couldn't parse SAN to MoveList: Illegal move: " +
                         move + " [" + move.toString() + "] on " + b.getFen());
             }
-            if (i >= finalIndex) {
-                fen = b.getFen();
-                break;
+            return new MoveList(b.getFen());
+        }
+    }
+
+    /**
+     * Gets checkpoint interval.
+     *
+     * @return the number of plies between board checkpoints, or 0 if checkpoints are disabled
+     */
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Sets checkpoint interval. When enabled, a snapshot of the board is kept every
+     * {@code interval} plies as positions are visited, so seeking to any ply through
+     * {@link #gotoPly(Board, int, boolean)}, {@link #getFen(int)} or
+     * {@link #createMoveListFrom(MoveList, int)} replays at most {@code interval} moves.
+     * Use 1 to keep a snapshot of every ply, or 0 to disable checkpoints.
+     *
+     * @param interval the number of plies between checkpoints
+     */
+    public void setCheckpointInterval(int interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Invalid checkpoint interval: " + interval);
+        }
+        this.checkpointInterval = interval;
+        this.checkpoints = null;
+    }
+
+    /**
+     * Sets the board to the position reached after playing the first {@code plies} moves of
+     * the list from its start FEN, resuming from the nearest checkpoint when checkpoints are
+     * enabled. In that case the board history only covers the plies replayed from the checkpoint.
+     *
+     * @param board          the board
+     * @param plies          the number of moves to play
+     * @param fullValidation perform full validation of the moves
+     * @return the number of moves played, which is less than {@code plies} if an illegal
+     * move was found. The board is left at the position before that move
+     */
+    public int gotoPly(Board board, int plies, boolean fullValidation) {
+        plies = Math.min(plies, size());
+        int interval = checkpointInterval;
+        int ply = 0;
+        if (interval > 0 && checkpoints != null && !checkpoints.isEmpty()) {
+            int checkpoint = Math.min(plies / interval, checkpoints.size() - 1);
+            checkpoints.get(checkpoint).restore(board);
+            ply = checkpoint * interval;
+        } else {
+            board.loadFromFen(getStartFen());
+            if (interval > 0) {
+                checkpoints = new ArrayList<>();
+                checkpoints.add(new BoardSnapshot(board));
             }
         }
-        if (fen == null) {
-            fen = b.getFen();
+        if (ply == plies) {
+            return ply;
+        }
+        while (ply < plies) {
+            if (!board.doMove(moves[ply], fullValidation)) {
+                return ply;
+            }
+            ply++;
+            if (interval > 0 && ply % interval == 0 && ply / interval == checkpoints.size()) {
+                checkpoints.add(new BoardSnapshot(board));
+            }
+        }
+        return ply;
+    }
+
+    /*
+     * discard the cached SAN/FAN and checkpoints that depend on the move at the given index
+     */
+    private void invalidateFrom(int fromIndex) {
+        sanTail = null;
+        if (encodedCount > fromIndex) {
+            encodedCount = fromIndex;
+            encodedTail = null;
+        }
+        invalidateCheckpoints(fromIndex);
+    }
+
+    private void invalidateCheckpoints(int fromIndex) {
+        if (checkpoints != null) {
+            int keep = fromIndex / checkpointInterval + 1;
+            while (checkpoints.size() > keep) {
+                checkpoints.remove(checkpoints.size() - 1);
+            }
         }
-        return new MoveList(fen);
     }
 
     /**
@@ -309,64 +251,94 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
         this.index = index;
     }
 
-    /* (non-Javadoc)
-     * @see java.util.ArrayList#add(int, java.lang.Object)
+    /**
+     * Ensure capacity.
+     *
+     * @param minCapacity the minimum number of moves the list can hold without growing
      */
-    @Override
-    public void add(int arg0, Move arg1) {
-        dirty = true;
-        super.add(arg0, arg1);
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > moves.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, moves.length + (moves.length >> 1));
+            moves = Arrays.copyOf(moves, Math.max(minCapacity, capacity));
+        }
     }
 
-    /* (non-Javadoc)
-     * @see java.util.ArrayList#add(java.lang.Object)
-     */
     @Override
-    public boolean add(Move arg0) {
-        dirty = true;
-        return super.add(arg0);
+    public Move get(int index) {
+        checkIndex(index, size);
+        return moves[index];
     }
 
-    /* (non-Javadoc)
-     * @see java.util.ArrayList#addAll(java.util.Collection)
-     */
     @Override
-    public boolean addAll(Collection<? extends Move> arg0) {
-        dirty = true;
-        return super.addAll(arg0);
+    public int size() {
+        return size;
     }
 
-    /* (non-Javadoc)
-     * @see java.util.ArrayList#addAll(int, java.util.Collection)
-     */
     @Override
-    public boolean addAll(int arg0, Collection<? extends Move> arg1) {
-        dirty = true;
-        return super.addAll(arg0, arg1);
+    public void add(int index, Move move) {
+        checkIndex(index, size + 1);
+        invalidateFrom(index);
+        modCount++;
+        ensureCapacity(size + 1);
+        System.arraycopy(moves, index, moves, index + 1, size - index);
+        moves[index] = move;
+        size++;
     }
 
     @Override
-    public Move removeFirst() {
-        dirty = true;
-        return super.removeFirst();
+    public boolean add(Move move) {
+        sanTail = null;
+        modCount++;
+        ensureCapacity(size + 1);
+        moves[size++] = move;
+        return true;
     }
 
     @Override
-    public Move removeLast() {
-        dirty = true;
-        return super.removeLast();
+    public boolean addAll(Collection<? extends Move> c) {
+        return addAll(size, c);
     }
 
     @Override
-    public boolean remove(Object o) {
-        dirty = true;
-        return super.remove(o);
+    public boolean addAll(int index, Collection<? extends Move> c) {
+        checkIndex(index, size + 1);
+        Object[] added = c.toArray();
+        invalidateFrom(index);
+        modCount++;
+        ensureCapacity(size + added.length);
+        System.arraycopy(moves, index, moves, index + added.length, size - index);
+        System.arraycopy(added, 0, moves, index, added.length);
+        size += added.length;
+        return added.length > 0;
     }
 
     @Override
     public Move remove(int index) {
-        dirty = true;
-        return super.remove(index);
+        checkIndex(index, size);
+        invalidateFrom(index);
+        modCount++;
+        Move removed = moves[index];
+        System.arraycopy(moves, index + 1, moves, index, size - index - 1);
+        moves[--size] = null;
+        return removed;
+    }
+
+    @Override
+    public Move set(int index, Move move) {
+        checkIndex(index, size);
+        invalidateFrom(index);
+        Move previous = moves[index];
+        moves[index] = move;
+        return previous;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        invalidateFrom(fromIndex);
+        modCount++;
+        System.arraycopy(moves, toIndex, moves, fromIndex, size - toIndex);
+        Arrays.fill(moves, size - (toIndex - fromIndex), size, null);
+        size -= toIndex - fromIndex;
     }
 
     /* (non-Javadoc)
@@ -374,10 +346,105 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      */
     @Override
     public void clear() {
-        dirty = true;
         sanArray = null;
         fanArray = null;
-        super.clear();
+        invalidateFrom(0);
+        modCount++;
+        Arrays.fill(moves, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Gets the first move.
+     *
+     * @return the first move
+     * @throws NoSuchElementException if the list is empty
+     */
+    public Move getFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return moves[0];
+    }
+
+    /**
+     * Gets the last move.
+     *
+     * @return the last move
+     * @throws NoSuchElementException if the list is empty
+     */
+    public Move getLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return moves[size - 1];
+    }
+
+    /**
+     * Removes the first move.
+     *
+     * @return the removed move
+     * @throws NoSuchElementException if the list is empty
+     */
+    public Move removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return remove(0);
+    }
+
+    /**
+     * Removes the last move.
+     *
+     * @return the removed move
+     * @throws NoSuchElementException if the list is empty
+     */
+    public Move removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return remove(size - 1);
+    }
+
+    /**
+     * Gets the move at the given index packed into an int.
+     *
+     * @param index the index
+     * @return the packed move
+     * @see Move#toPacked()
+     */
+    public int getPacked(int index) {
+        return get(index).toPacked();
+    }
+
+    /**
+     * Adds a move packed into an int.
+     *
+     * @param packedMove the packed move
+     * @see Move#fromPacked(int)
+     */
+    public void addPacked(int packedMove) {
+        add(Move.fromPacked(packedMove));
+    }
+
+    /**
+     * Converts the MoveList into an array of packed moves
+     *
+     * @return the packed moves
+     * @see Move#toPacked()
+     */
+    public int[] toPackedArray() {
+        int[] packed = new int[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = moves[i].toPacked();
+        }
+        return packed;
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (bound - 1));
+        }
     }
 
     /**
@@ -417,11 +484,21 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      * @throws MoveConversionException the move conversion exception
      */
     public String[] toSanArray() throws MoveConversionException {
-        if (!dirty && sanArray != null) {
-            return sanArray;
+        try (SanContext context = SanContext.borrow()) {
+            return toSanArray(context);
         }
-        updateSanArray();
-        updateFanArray();
+    }
+
+    /**
+     * Converts the MoveList into SAN Array representation, using the given context
+     * to encode the moves not converted yet
+     *
+     * @param context the san context
+     * @return string [ ]
+     * @throws MoveConversionException the move conversion exception
+     */
+    public String[] toSanArray(SanContext context) throws MoveConversionException {
+        updateSanArray(context);
         return sanArray;
     }
 
@@ -432,38 +509,78 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      * @throws MoveConversionException the move conversion exception
      */
     public String[] toFanArray() throws MoveConversionException {
-        if (!dirty && fanArray != null) {
-            return fanArray;
+        try (SanContext context = SanContext.borrow()) {
+            return toFanArray(context);
         }
-        updateSanArray();
-        updateFanArray();
+    }
+
+    /**
+     * Converts the MoveList into FAN Array representation, using the given context
+     * to encode the moves not converted yet
+     *
+     * @param context the san context
+     * @return string [ ]
+     * @throws MoveConversionException the move conversion exception
+     */
+    public String[] toFanArray(SanContext context) throws MoveConversionException {
+        updateSanArray(context);
         return fanArray;
     }
 
-    private void updateSanArray() throws MoveConversionException {
-        sanArray = new String[this.size()];
-        final Board b = getBoard();
-        if (!b.getFen().equals(getStartFen())) {
+    /*
+     * encode the moves appended since the last call, resuming from the board state
+     * left by the last encoded move
+     */
+    private void updateSanArray(SanContext context) throws MoveConversionException {
+        if (sanArray == null || sanArray.length != size) {
+            sanArray = sanArray == null ? new String[size] : Arrays.copyOf(sanArray, size);
+            fanArray = fanArray == null ? new String[size] : Arrays.copyOf(fanArray, size);
+        }
+        if (encodedCount == size) {
+            return;
+        }
+        final Board b = context.getBoard();
+        if (encodedCount == 0) {
             b.loadFromFen(getStartFen());
+        } else if (encodedTail != null) {
+            encodedTail.restore(b);
+        } else {
+            int played = gotoPly(b, encodedCount, false);
+            if (played < encodedCount) {
+                throw new MoveConversionException("Couldn't replay MoveList: Illegal move: " +
+                        moves[played] + " on " + b.getFen());
+            }
         }
-        int i = 0;
-        for (Move move : this) {
-            sanArray[i++] = encodeToSan(b, move);
+        encodedTail = null;
+        final StringBuilder sb = context.getBuffer();
+        while (encodedCount < size) {
+            Move move = moves[encodedCount];
+            Piece piece = b.getPiece(move.getFrom());
+            sb.setLength(0);
+            SanEncoder.encode(b, move, sb);
+            String san = sb.toString();
+            sanArray[encodedCount] = san;
+            fanArray[encodedCount] = sanToFan(san, piece, move.getPromotion());
+            encodedCount++;
         }
-        dirty = false;
+        encodedTail = new BoardSnapshot(b);
     }
 
-    private void updateFanArray() throws MoveConversionException {
-        fanArray = new String[this.size()];
-        final Board b = getBoard();
-        if (!b.getFen().equals(getStartFen())) {
-            b.loadFromFen(getStartFen());
+    /*
+     * replace the piece letters of a SAN move by figurines, prefixing pawn moves with the pawn
+     */
+    private static String sanToFan(String san, Piece piece, Piece promotion) {
+        String fan = san;
+        if (PieceType.PAWN.equals(piece.getPieceType())) {
+            fan = fanNotation.get(piece) + fan;
+        } else if (fan.charAt(0) != 'O') {
+            fan = fanNotation.get(piece) + fan.substring(1);
         }
-        int i = 0;
-        for (Move move : this) {
-            fanArray[i++] = encodeToFan(b, move);
+        if (!Piece.NONE.equals(promotion)) {
+            int i = fan.indexOf('=');
+            fan = fan.substring(0, i + 1) + fanNotation.get(promotion) + fan.substring(i + 2);
         }
-        dirty = false;
+        return fan;
     }
 
     /**
@@ -475,24 +592,26 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
         return startFEN;
     }
 
+    private Side getStartSide() {
+        int i = startFEN.indexOf(' ');
+        return i >= 0 && i + 1 < startFEN.length() &&
+                Character.toLowerCase(startFEN.charAt(i + 1)) == 'b' ? Side.BLACK : Side.WHITE;
+    }
+
     /**
      * load from long algebraic text
      *
      * @param text the text
      * @throws MoveConversionException the move conversion exception
      */
-    public synchronized void loadFromText(String text) throws MoveConversionException {
-        final Board b = getBoard();
-        if (!b.getFen().equals(getStartFen())) {
-            b.loadFromFen(getStartFen());
-        }
+    public void loadFromText(String text) throws MoveConversionException {
         try {
-            Side side = b.getSideToMove();
+            Side side = getStartSide();
             text = StringUtil.normalize(text);
             String[] m = text.split(" ");
             int i = 0;
             for (String strMove : m) {
-                Move move = new Move(strMove, side);
+                Move move = Move.fromUci(strMove, side);
                 add(i++, move);
                 side = side.flip();
             }
@@ -521,23 +640,50 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      * @throws MoveConversionException the move conversion exception
      */
     public void addSanMove(String san, boolean replay, boolean fullValidation) throws MoveConversionException {
-        final Board b = getBoard();
-        if (replay) {
-            if (!b.getFen().equals(getStartFen())) {
-                b.loadFromFen(getStartFen());
-            }
-            for (Move move : this) {
-                if (!b.doMove(move, false)) {
-                    throw new MoveConversionException("Couldn't parse SAN to MoveList: Illegal move: " +
-                            move + " [" + move.toString() + "] on " + b.getFen());
-                }
-            }
+        try (SanContext context = SanContext.borrow()) {
+            addSanMove(san, replay, fullValidation, context);
         }
+    }
+
+    /**
+     * Add a move in the SAN format
+     *
+     * @param san            the san
+     * @param replay         replay the moves from the start position instead of resuming from
+     *                       the position left by the last move added in SAN
+     * @param fullValidation the full validation
+     * @param context        the san context
+     * @throws MoveConversionException the move conversion exception
+     */
+    public void addSanMove(String san, boolean replay, boolean fullValidation, SanContext context)
+            throws MoveConversionException {
+        final Board b = context.getBoard();
+        gotoTail(b, replay);
+        appendSan(b, san, fullValidation);
+        sanTail = new BoardSnapshot(b);
+    }
+
+    /**
+     * Add a move in the SAN format, decoded and played on the given board, which must be at the
+     * position after the last move of the list. Useful to append moves one by one, e.g.: while
+     * walking a movetext, without restoring the position for each move.
+     *
+     * @param board          the board, at the position after the last move
+     * @param san            the san
+     * @param fullValidation the full validation
+     * @throws MoveConversionException the move conversion exception
+     */
+    public void addSanMove(Board board, String san, boolean fullValidation) throws MoveConversionException {
+        appendSan(board, san, fullValidation);
+        sanTail = null;
+    }
+
+    private void appendSan(Board b, String san, boolean fullValidation) throws MoveConversionException {
         Move move = decodeSan(b, san, b.getSideToMove());
         if (move == nullMove) {
             return;
         }
-        move.setSan(san);
+        move = move.withSan(san);
         if (!b.doMove(move, fullValidation)) {
             throw new MoveConversionException("Couldn't parse SAN to MoveList: Illegal move: " +
                     move + " [" + san + "] on " + b.getFen());
@@ -545,6 +691,21 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
         add(this.size(), move);
     }
 
+    /*
+     * set the board to the position after the last move of the list
+     */
+    private void gotoTail(Board b, boolean replay) throws MoveConversionException {
+        if (!replay && sanTail != null) {
+            sanTail.restore(b);
+            return;
+        }
+        int played = gotoPly(b, size, false);
+        if (played < size) {
+            throw new MoveConversionException("Couldn't parse SAN to MoveList: Illegal move: " +
+                    moves[played] + " on " + b.getFen());
+        }
+    }
+
     /**
      * load from SAN text
      *
@@ -552,10 +713,21 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      * @throws MoveConversionException the move conversion exception
      */
     public void loadFromSan(String text) throws MoveConversionException {
-        final Board b = getBoard();
-        if (!b.getFen().equals(getStartFen())) {
-            b.loadFromFen(getStartFen());
+        try (SanContext context = SanContext.borrow()) {
+            loadFromSan(text, context);
         }
+    }
+
+    /**
+     * load from SAN text, appending the moves to the list
+     *
+     * @param text    the text
+     * @param context the san context
+     * @throws MoveConversionException the move conversion exception
+     */
+    public void loadFromSan(String text, SanContext context) throws MoveConversionException {
+        final Board b = context.getBoard();
+        gotoTail(b, false);
         try {
             text = StringUtil.normalize(text);
             String[] m = text.split(" ");
@@ -572,13 +744,14 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
                 if (strMove.trim().equals("")) {
                     continue;
                 }
-                addSanMove(strMove);
+                appendSan(b, strMove, true);
             }
         } catch (MoveConversionException e1) {
             throw e1;
         } catch (Exception e2) {
             throw new MoveConversionException("Couldn't parse SAN to MoveList: " + e2.getMessage());
         }
+        sanTail = new BoardSnapshot(b);
     }
 
     /**
@@ -594,128 +767,8 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      * encode san to move
      */
     protected Move decodeSan(Board board, String san, Side side) throws MoveConversionException {
-
-        if (san.equalsIgnoreCase("Z0")) {
-            return nullMove;
-        }
-        san = normalizeSan(san);
-
-        String strPromotion = StringUtil.afterSequence(san, "=", 1);
-        san = StringUtil.beforeSequence(san, "=");
-
-        char lastChar = san.charAt(san.length() - 1);
-        //FIX missing equal sign for pawn promotions
-        if (Character.isLetter(lastChar) && Character.toUpperCase(lastChar) != 'O') {
-            san = san.substring(0, san.length() - 1);
-            strPromotion = lastChar + "";
-        }
-
-        if (san.equals("O-O") || san.equals("O-O-O")) { // is castle
-            if (san.equals("O-O")) {
-                return board.getContext().getoo(side);
-            } else {
-                return board.getContext().getooo(side);
-            }
-        }
-
-        if (san.length() == 3 &&
-                Character.isUpperCase(san.charAt(2))) {
-            strPromotion = san.substring(2, 3);
-            san = san.substring(0, 2);
-        }
-
-        Square from = Square.NONE;
-        Square to;
-        try {
-            to = Square.valueOf(StringUtil.lastSequence(san.toUpperCase(), 2));
-        } catch (Exception e) {
-            throw new MoveConversionException("Coudn't parse destination square[" + san + "]: " +
-                    san.toUpperCase());
-        }
-        Piece promotion = strPromotion.equals("") ? Piece.NONE :
-                Constants.getPieceByNotation(side.equals(Side.WHITE) ?
-                        strPromotion.toUpperCase() : strPromotion.toLowerCase());
-
-        if (san.length() == 2) { //is pawn move
-            long mask = Bitboard.getBbtable(to) - 1L;
-            long xfrom = (side.equals(Side.WHITE) ? mask : ~mask) & Bitboard.getFilebb(to) &
-                    board.getBitboard(Piece.make(side, PieceType.PAWN));
-            int f = side.equals(Side.BLACK) ? Bitboard.bitScanForward(xfrom) :
-                    Bitboard.bitScanReverse(xfrom);
-            if (f >= 0 && f <= 63) {
-                from = Square.squareAt(f);
-            }
-        } else {
-
-            String strFrom = (san.contains("x") ?
-                    StringUtil.beforeSequence(san, "x") :
-                    san.substring(0, san.length() - 2));
-
-            if (strFrom == null ||
-                    strFrom.length() == 0 || strFrom.length() > 3) {
-                throw new MoveConversionException("Couldn't parse 'from' square " + san + ": Too many/few characters.");
-            }
-
-            PieceType fromPiece = PieceType.PAWN;
-
-            if (Character.isUpperCase(strFrom.charAt(0))) {
-                fromPiece = sanNotationR.get(strFrom.charAt(0) + "");
-            }
-
-            if (strFrom.length() == 3) {
-                from = Square.valueOf(strFrom.substring(1, 3).toUpperCase());
-            } else {
-                String location = "";
-                if (strFrom.length() == 2) {
-                    if (Character.isUpperCase(strFrom.charAt(0))) {
-                        location = strFrom.substring(1, 2);
-                    } else {
-                        location = strFrom.substring(0, 2);
-                        from = Square.valueOf(location.toUpperCase());
-                    }
-                } else {
-                    if (Character.isLowerCase(strFrom.charAt(0))) {
-                        location = strFrom;
-                    }
-                }
-                if (location.length() < 2) {
-                    //resolving ambiguous from
-                    long xfrom = board.squareAttackedByPieceType(to,
-                            board.getSideToMove(), fromPiece);
-                    if (location.length() > 0) {
-                        if (Character.isDigit(location.charAt(0))) {
-                            int irank = Integer.parseInt(location);
-                            if (!(irank >= 1 && irank <= 8)) {
-                                throw new MoveConversionException("Couldn't parse rank: " + location);
-                            }
-                            Rank rank = Rank.allRanks[irank - 1];
-                            xfrom &= Bitboard.getRankbb(rank);
-                        } else {
-                            try {
-                                File file = File.valueOf("FILE_" + location.toUpperCase());
-                                xfrom &= Bitboard.getFilebb(file);
-                            } catch (Exception e) {
-                                throw new MoveConversionException("Couldn't parse file: " + location);
-                            }
-                        }
-                    }
-                    if (xfrom != 0L) {
-                        if (!Bitboard.hasOnly1Bit(xfrom)) {
-                            xfrom = findLegalSquares(board, to, promotion, xfrom);
-                        }
-                        int f = Bitboard.bitScanForward(xfrom);
-                        if (f >= 0 && f <= 63) {
-                            from = Square.squareAt(f);
-                        }
-                    }
-                }
-            }
-
-        }
-        if (from.equals(Square.NONE)) {
-            throw new MoveConversionException("Couldn't parse 'from' square " + san + " to setup: " + board.getFen());
-        }
-        return new Move(from, to, promotion);
+        int move = SanDecoder.decode(board, san);
+        return move == SanDecoder.NULL_MOVE ? nullMove : Move.fromPacked(move);
     }
 
     /**
@@ -738,22 +791,20 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      * @return fen
      */
     public String getFen(int atMoveIndex, boolean includeCounters) {
-        final Board b = getBoard();
-        if (!b.getFen().equals(getStartFen())) {
-            b.loadFromFen(getStartFen());
-        }
-        int i = 0;
-        for (Move move : this) {
-            i++;
-            if (!b.doMove(move, false)) {
+        if (isEmpty() || atMoveIndex > size()) {
+            return null;
+        }
+        try (SanContext context = SanContext.borrow()) {
+            final Board b = context.getBoard();
+            int plies = Math.max(atMoveIndex, 1);
+            int played = gotoPly(b, plies, false);
+            if (played < plies) {
+                Move move = get(played);
                 throw new IllegalArgumentException("Couldn't parse SAN to MoveList: Illegal move: " +
                         move + " [" + move.toString() + "] on " + b.getFen(includeCounters));
             }
-            if (i >= atMoveIndex) {
-                return b.getFen(includeCounters);
-            }
+            return b.getFen(includeCounters);
         }
-        return null;
     }
 
     /**
@@ -823,16 +874,8 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
                     return false;
                 }
             }
+            return true;
         }
         return false;
     }
-
-    private String normalizeSan(String san) {
-        return san.replace("+", "")
-                .replace("#", "")
-                .replace("!", "")
-                .replace("?", "")
-                .replace("ep", "")
-                .replace("\n", " ");
-    }
 }
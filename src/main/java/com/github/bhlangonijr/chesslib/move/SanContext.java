@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.move;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.game.GameContext;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scratch state used to convert moves from and to SAN: a forward-only board and a text buffer.
+ * A context must only be used by one thread at a time. Callers either keep their own context,
+ * e.g.: one per parsing task, or borrow one from a shared pool:
+ * <pre>
+ * try (SanContext context = SanContext.borrow()) {
+ *     moveList.loadFromSan(text, context);
+ * }
+ * </pre>
+ */
+public class SanContext implements AutoCloseable {
+
+    private static final int MAX_POOLED = Runtime.getRuntime().availableProcessors() * 4;
+    private static final Queue<SanContext> pool = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger pooled = new AtomicInteger();
+
+    private final Board board;
+    private final StringBuilder buffer;
+    private boolean borrowed;
+
+    /**
+     * Instantiates a new San context.
+     */
+    public SanContext() {
+        board = new Board(new GameContext(), false, true);
+        buffer = new StringBuilder(16);
+    }
+
+    /**
+     * Borrows a context from the shared pool, creating one if the pool is empty. The context
+     * goes back to the pool when closed.
+     *
+     * @return the san context
+     */
+    public static SanContext borrow() {
+        SanContext context = pool.poll();
+        if (context == null) {
+            context = new SanContext();
+        } else {
+            pooled.decrementAndGet();
+        }
+        context.borrowed = true;
+        return context;
+    }
+
+    /**
+     * Gets board.
+     *
+     * @return the board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Gets buffer.
+     *
+     * @return the buffer
+     */
+    public StringBuilder getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the context to the pool if it was borrowed. Closing a context created by the caller
+     * has no effect.
+     */
+    @Override
+    public void close() {
+        if (!borrowed) {
+            return;
+        }
+        borrowed = false;
+        buffer.setLength(0);
+        if (pooled.incrementAndGet() <= MAX_POOLED) {
+            pool.offer(this);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
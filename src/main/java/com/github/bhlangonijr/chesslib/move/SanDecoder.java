@@ -0,0 +1,287 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.move;
+
+import com.github.bhlangonijr.chesslib.*;
+
+/**
+ * Decodes moves in the Standard Algebraic Notation (SAN) straight from a char sequence,
+ * resolving the origin square with attack bitboards and pin masks. No intermediate strings
+ * are created while decoding a valid move.
+ */
+public final class SanDecoder {
+
+    /**
+     * Packed value returned for a null move, e.g.: Z0 or --
+     */
+    public static final int NULL_MOVE = 0;
+
+    private SanDecoder() {
+    }
+
+    /**
+     * Decodes a SAN move for the side to move on the board.
+     *
+     * @param board the board
+     * @param san   the san
+     * @return the packed move, see {@link Move#toPacked()}, or {@link #NULL_MOVE}
+     * @throws MoveConversionException if the text cannot be resolved to a move on the board
+     */
+    public static int decode(Board board, CharSequence san) {
+        return decode(board, san, 0, san.length());
+    }
+
+    /**
+     * Decodes a SAN move, given as a slice of a char sequence, for the side to move on the board.
+     * Check, mate and annotation suffixes, e.g.: +, #, !?, are ignored.
+     *
+     * @param board the board
+     * @param text  the text containing the move
+     * @param start index of the first char of the move
+     * @param end   index after the last char of the move
+     * @return the packed move, see {@link Move#toPacked()}, or {@link #NULL_MOVE}
+     * @throws MoveConversionException if the text cannot be resolved to a move on the board
+     */
+    public static int decode(Board board, CharSequence text, int start, int end) {
+        final int first = start;
+        final int last = end;
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        end = trimSuffix(text, start, end);
+        if (end - start < 2) {
+            throw error("Invalid SAN move", text, first, last, board);
+        }
+        final Side side = board.getSideToMove();
+        char c = text.charAt(start);
+
+        if ((c == 'Z' || c == 'z') && text.charAt(start + 1) == '0' && end - start == 2 ||
+                c == '-' && text.charAt(start + 1) == '-' && end - start == 2) {
+            return NULL_MOVE;
+        }
+        if (c == 'O' || c == '0') {
+            int length = end - start;
+            if (length == 5 && text.charAt(start + 3) == '-') {
+                return board.getContext().getooo(side).toPacked();
+            } else if (length == 3 && text.charAt(start + 1) == '-') {
+                return board.getContext().getoo(side).toPacked();
+            }
+            throw error("Invalid castle move", text, first, last, board);
+        }
+
+        PieceType type = pieceType(c);
+        if (type != PieceType.NONE) {
+            start++;
+        } else {
+            type = PieceType.PAWN;
+        }
+
+        Piece promotion = Piece.NONE;
+        char p = text.charAt(end - 1);
+        if (Character.isLetter(p)) {
+            PieceType promotionType = pieceType(Character.toUpperCase(p));
+            if (promotionType == PieceType.NONE || promotionType == PieceType.KING) {
+                throw error("Invalid promotion", text, first, last, board);
+            }
+            promotion = Piece.make(side, promotionType);
+            end--;
+            if (end > start && text.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+        if (end - start < 2) {
+            throw error("Invalid SAN move", text, first, last, board);
+        }
+
+        int toFile = text.charAt(end - 2) - 'a';
+        int toRank = text.charAt(end - 1) - '1';
+        if (toFile < 0 || toFile > 7 || toRank < 0 || toRank > 7) {
+            throw error("Couldn't parse destination square", text, first, last, board);
+        }
+        final Square to = Square.squareAt(toRank * 8 + toFile);
+
+        long mask = ~0L;
+        boolean capture = false;
+        for (int i = start; i < end - 2; i++) {
+            char d = text.charAt(i);
+            if (d >= 'a' && d <= 'h') {
+                mask &= Bitboard.getFilebb(File.allFiles[d - 'a']);
+            } else if (d >= '1' && d <= '8') {
+                mask &= Bitboard.getRankbb(Rank.allRanks[d - '1']);
+            } else if (d == 'x' || d == ':') {
+                capture = true;
+            } else if (d != '-') {
+                throw error("Invalid SAN move", text, first, last, board);
+            }
+        }
+
+        long from = candidates(board, side, type, to, capture || mask != ~0L) & mask;
+        if (from != 0L && !Bitboard.hasOnly1Bit(from)) {
+            from = filterPinned(board, side, to, from);
+        }
+        if (from != 0L && !Bitboard.hasOnly1Bit(from)) {
+            from = filterIllegal(board, to, promotion, from);
+        }
+        if (from == 0L) {
+            throw error("Couldn't find the 'from' square", text, first, last, board);
+        }
+        return Move.of(Square.squareAt(Bitboard.bitScanForward(from)), to, promotion).toPacked();
+    }
+
+    /**
+     * Decodes a SAN move into its canonical instance.
+     *
+     * @param board the board
+     * @param san   the san
+     * @return the move, or null if the text is a null move
+     * @throws MoveConversionException if the text cannot be resolved to a move on the board
+     */
+    public static Move decodeMove(Board board, CharSequence san) {
+        int packed = decode(board, san);
+        return packed == NULL_MOVE ? null : Move.fromPacked(packed);
+    }
+
+    /*
+     * bitboard of the pieces of the given type able to reach the destination
+     */
+    static long candidates(Board board, Side side, PieceType type, Square to, boolean pawnCapture) {
+        final long occ = board.getBitboard();
+        final long pieces = board.getBitboard(Piece.make(side, type));
+        switch (type) {
+            case PAWN:
+                if (pawnCapture) {
+                    return Bitboard.getPawnAttacks(side.flip(), to) & pieces;
+                }
+                return pawnPushOrigin(side, to, occ, pieces);
+            case KNIGHT:
+                return Bitboard.getKnightAttacks(to, pieces);
+            case BISHOP:
+                return Bitboard.getBishopAttacks(occ, to) & pieces;
+            case ROOK:
+                return Bitboard.getRookAttacks(occ, to) & pieces;
+            case QUEEN:
+                return Bitboard.getQueenAttacks(occ, to) & pieces;
+            case KING:
+                return Bitboard.getKingAttacks(to, pieces);
+            default:
+                return 0L;
+        }
+    }
+
+    static long pawnPushOrigin(Side side, Square to, long occ, long pawns) {
+        final int sq = to.ordinal();
+        final int step = side == Side.WHITE ? -8 : 8;
+        final int one = sq + step;
+        if (one < 0 || one > 63) {
+            return 0L;
+        }
+        long bb = 1L << one;
+        if ((pawns & bb) != 0L) {
+            return bb;
+        }
+        final int doubleRank = side == Side.WHITE ? 3 : 4;
+        if ((occ & bb) == 0L && sq >>> 3 == doubleRank) {
+            return pawns & (1L << (one + step));
+        }
+        return 0L;
+    }
+
+    /*
+     * discard pinned pieces that would leave the pin line
+     */
+    static long filterPinned(Board board, Side side, Square to, long from) {
+        long pinned = board.getPinnedPieces(side) & from;
+        if (pinned == 0L) {
+            return from;
+        }
+        final Square kingSq = board.getKingSquare(side);
+        long result = from;
+        while (pinned != 0L) {
+            Square sq = Square.squareAt(Bitboard.bitScanForward(pinned));
+            if ((Bitboard.getLinebb(kingSq, sq) & to.getBitboard()) == 0L) {
+                result &= ~sq.getBitboard();
+            }
+            pinned = Bitboard.extractLsb(pinned);
+        }
+        return result;
+    }
+
+    private static long filterIllegal(Board board, Square to, Piece promotion, long from) {
+        long result = from;
+        long pieces = from;
+        while (pieces != 0L) {
+            Square sq = Square.squareAt(Bitboard.bitScanForward(pieces));
+            if (!board.isMoveLegal(Move.of(sq, to, promotion), false)) {
+                result &= ~sq.getBitboard();
+            }
+            pieces = Bitboard.extractLsb(pieces);
+        }
+        return result;
+    }
+
+    private static int trimSuffix(CharSequence text, int start, int end) {
+        while (end > start) {
+            char c = text.charAt(end - 1);
+            if (c == '+' || c == '#' || c == '!' || c == '?' || Character.isWhitespace(c)) {
+                end--;
+            } else if (endsWith(text, start, end, "e.p.")) {
+                end -= 4;
+            } else if (endsWith(text, start, end, "ep") && end - start > 3) {
+                end -= 2;
+            } else {
+                break;
+            }
+        }
+        return end;
+    }
+
+    private static boolean endsWith(CharSequence text, int start, int end, String suffix) {
+        int length = suffix.length();
+        if (end - start < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(end - length + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PieceType pieceType(char c) {
+        switch (c) {
+            case 'N':
+                return PieceType.KNIGHT;
+            case 'B':
+                return PieceType.BISHOP;
+            case 'R':
+                return PieceType.ROOK;
+            case 'Q':
+                return PieceType.QUEEN;
+            case 'K':
+                return PieceType.KING;
+            default:
+                return PieceType.NONE;
+        }
+    }
+
+    private static MoveConversionException error(String reason, CharSequence text, int start, int end,
+                                                 Board board) {
+        return new MoveConversionException(reason + " [" + text.subSequence(start, end) + "] on " +
+                board.getFen());
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.move;
+
+import com.github.bhlangonijr.chesslib.*;
+
+import java.io.IOException;
+import java.util.EnumMap;
+
+/**
+ * Encodes moves in the Standard Algebraic Notation (SAN), or its figurine variant (FAN), into a
+ * caller-provided buffer. Ambiguity is resolved with attack bitboards and pin masks, and the
+ * mate flag is computed with a test that stops at the first move escaping the check.
+ * <p>
+ * As with {@link MoveList}, encoding a move also plays it on the given board.
+ */
+public final class SanEncoder {
+
+    static final EnumMap<Piece, String> sanNotation = new EnumMap<>(Piece.class);
+    static final EnumMap<Piece, String> fanNotation = new EnumMap<>(Piece.class);
+
+    static {
+        sanNotation.put(Piece.WHITE_PAWN, "");
+        sanNotation.put(Piece.BLACK_PAWN, "");
+        sanNotation.put(Piece.WHITE_KNIGHT, "N");
+        sanNotation.put(Piece.BLACK_KNIGHT, "N");
+        sanNotation.put(Piece.WHITE_BISHOP, "B");
+        sanNotation.put(Piece.BLACK_BISHOP, "B");
+        sanNotation.put(Piece.WHITE_ROOK, "R");
+        sanNotation.put(Piece.BLACK_ROOK, "R");
+        sanNotation.put(Piece.WHITE_QUEEN, "Q");
+        sanNotation.put(Piece.BLACK_QUEEN, "Q");
+        sanNotation.put(Piece.WHITE_KING, "K");
+        sanNotation.put(Piece.BLACK_KING, "K");
+        sanNotation.put(Piece.NONE, "NONE");
+
+        fanNotation.put(Piece.WHITE_PAWN, "♙");
+        fanNotation.put(Piece.BLACK_PAWN, "♟");
+        fanNotation.put(Piece.WHITE_KNIGHT, "♘");
+        fanNotation.put(Piece.BLACK_KNIGHT, "♞");
+        fanNotation.put(Piece.WHITE_BISHOP, "♗");
+        fanNotation.put(Piece.BLACK_BISHOP, "♝");
+        fanNotation.put(Piece.WHITE_ROOK, "♖");
+        fanNotation.put(Piece.BLACK_ROOK, "♜");
+        fanNotation.put(Piece.WHITE_QUEEN, "♕");
+        fanNotation.put(Piece.BLACK_QUEEN, "♛");
+        fanNotation.put(Piece.WHITE_KING, "♔");
+        fanNotation.put(Piece.BLACK_KING, "♚");
+        fanNotation.put(Piece.NONE, "NONE");
+    }
+
+    private SanEncoder() {
+    }
+
+    /**
+     * Appends the SAN of the move and plays it on the board.
+     *
+     * @param board the board
+     * @param move  the move
+     * @param out   the buffer the SAN is appended to
+     * @throws MoveConversionException if the move is not legal on the board
+     */
+    public static void encode(Board board, Move move, StringBuilder out) {
+        try {
+            encode(board, move, (Appendable) out, sanNotation);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Appends the SAN of the move and plays it on the board.
+     *
+     * @param board the board
+     * @param move  the move
+     * @param out   the output the SAN is appended to
+     * @throws IOException             if the output fails
+     * @throws MoveConversionException if the move is not legal on the board
+     */
+    public static void encode(Board board, Move move, Appendable out) throws IOException {
+        encode(board, move, out, sanNotation);
+    }
+
+    /**
+     * Appends the FAN of the move and plays it on the board.
+     *
+     * @param board the board
+     * @param move  the move
+     * @param out   the buffer the FAN is appended to
+     * @throws MoveConversionException if the move is not legal on the board
+     */
+    public static void encodeFan(Board board, Move move, StringBuilder out) {
+        try {
+            encode(board, move, (Appendable) out, fanNotation);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the SAN of the move and plays it on the board.
+     *
+     * @param board the board
+     * @param move  the move
+     * @return the san
+     * @throws MoveConversionException if the move is not legal on the board
+     */
+    public static String encode(Board board, Move move) {
+        StringBuilder san = new StringBuilder(8);
+        encode(board, move, san);
+        return san.toString();
+    }
+
+    static void encode(Board board, Move move, Appendable out, EnumMap<Piece, String> notation)
+            throws IOException {
+        final Square from = move.getFrom();
+        final Square to = move.getTo();
+        final Piece piece = board.getPiece(from);
+        final PieceType type = piece.getPieceType();
+        final Side side = board.getSideToMove();
+
+        if (piece == Piece.NONE || piece.getPieceSide() != side) {
+            throw invalid(board, move);
+        }
+        if (type == PieceType.KING) {
+            int delta = to.getFile().ordinal() - from.getFile().ordinal();
+            if (Math.abs(delta) >= 2) { // is castle
+                if (!board.doMove(move, true)) {
+                    throw invalid(board, move);
+                }
+                out.append(delta > 0 ? "O-O" : "O-O-O");
+                appendCheckFlag(board, out);
+                return;
+            }
+        }
+
+        final boolean capture = board.getPiece(to) != Piece.NONE ||
+                (type == PieceType.PAWN && from.getFile() != to.getFile());
+        long ambiguous = 0L;
+        if (type != PieceType.PAWN && type != PieceType.KING) {
+            ambiguous = SanDecoder.candidates(board, side, type, to, false) & ~from.getBitboard();
+            if (ambiguous != 0L) {
+                ambiguous = SanDecoder.filterPinned(board, side, to, ambiguous);
+            }
+        }
+
+        if (!board.doMove(move, true)) {
+            throw invalid(board, move);
+        }
+
+        out.append(notation.get(piece));
+        if (ambiguous != 0L) {
+            if ((Bitboard.getFilebb(from) & ambiguous) == 0L) {
+                appendFile(out, from);
+            } else if ((Bitboard.getRankbb(from) & ambiguous) == 0L) {
+                appendRank(out, from);
+            } else {
+                appendFile(out, from);
+                appendRank(out, from);
+            }
+        }
+        if (capture) {
+            if (type == PieceType.PAWN) {
+                appendFile(out, from);
+            }
+            out.append('x');
+        }
+        appendFile(out, to);
+        appendRank(out, to);
+        if (move.getPromotion() != Piece.NONE) {
+            out.append('=');
+            out.append(notation.get(move.getPromotion()));
+        }
+        appendCheckFlag(board, out);
+    }
+
+    private static void appendCheckFlag(Board board, Appendable out) throws IOException {
+        final Side side = board.getSideToMove();
+        final Square kingSq = board.getKingSquare(side);
+        if (kingSq == Square.NONE) {
+            return;
+        }
+        long checkers = board.squareAttackedBy(kingSq, side.flip());
+        if (checkers != 0L) {
+            out.append(isMate(board, side, kingSq, checkers) ? '#' : '+');
+        }
+    }
+
+    /**
+     * Returns true if the side to move, whose king is attacked by the given checkers, has no
+     * legal move. Stops at the first move found to escape the check.
+     */
+    private static boolean isMate(Board board, Side side, Square kingSq, long checkers) {
+        final Side other = side.flip();
+        final long kingBb = kingSq.getBitboard();
+        final long occ = board.getBitboard();
+
+        long escapes = Bitboard.getKingAttacks(kingSq, ~board.getBitboard(side));
+        while (escapes != 0L) {
+            Square sq = Square.squareAt(Bitboard.bitScanForward(escapes));
+            if (board.squareAttackedBy(sq, other, occ ^ kingBb) == 0L) {
+                return false;
+            }
+            escapes = Bitboard.extractLsb(escapes);
+        }
+        if (!Bitboard.hasOnly1Bit(checkers)) {
+            return true;
+        }
+
+        final Square checkerSq = Square.squareAt(Bitboard.bitScanForward(checkers));
+        final long pawns = board.getBitboard(Piece.make(side, PieceType.PAWN));
+        final long defenders = board.getBitboard(side) & ~board.getPinnedPieces(side) & ~kingBb;
+
+        if ((board.squareAttackedBy(checkerSq, side, occ) & defenders) != 0L) {
+            return false;
+        }
+        if (board.getEnPassantTarget() == checkerSq) {
+            long capturers = Bitboard.getPawnAttacks(other, board.getEnPassant()) & pawns;
+            while (capturers != 0L) {
+                Square sq = Square.squareAt(Bitboard.bitScanForward(capturers));
+                if (board.isMoveLegal(Move.of(sq, board.getEnPassant()), false)) {
+                    return false;
+                }
+                capturers = Bitboard.extractLsb(capturers);
+            }
+        }
+
+        long between = Bitboard.getBetweenbb(kingSq, checkerSq);
+        while (between != 0L) {
+            Square sq = Square.squareAt(Bitboard.bitScanForward(between));
+            if ((board.squareAttackedBy(sq, side, occ) & defenders & ~pawns) != 0L ||
+                    SanDecoder.pawnPushOrigin(side, sq, occ, pawns & defenders) != 0L) {
+                return false;
+            }
+            between = Bitboard.extractLsb(between);
+        }
+        return true;
+    }
+
+    private static void appendFile(Appendable out, Square sq) throws IOException {
+        out.append((char) ('a' + sq.getFile().ordinal()));
+    }
+
+    private static void appendRank(Appendable out, Square sq) throws IOException {
+        out.append((char) ('1' + sq.getRank().ordinal()));
+    }
+
+    private static MoveConversionException invalid(Board board, Move move) {
+        return new MoveConversionException("Invalid move [" +
+                move.toString() + "] for current setup: " + board.getFen());
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+/**
+ * The layout of the binary game archive written by {@link GameArchiveWriter} and read by
+ * {@link GameArchiveReader}.
+ * <p>
+ * An archive starts with the magic bytes {@code CLGA} and a format version byte, followed by a
+ * sequence of records, each one introduced by a type byte:
+ * <ul>
+ * <li>{@link #STRING}: defines the next string id, as a varint length and the UTF-8 bytes. Ids
+ * start at 1, the id 0 stands for a missing value. Every distinct string, e.g.: a player or an
+ * event name, is stored only once in the archive.</li>
+ * <li>{@link #GAME}: a game, as varints: the string ids of the event, site, date, white,
+ * black, ECO, opening, variation, annotator, FEN and time control, the round, the Elo of both
+ * players, the result and termination as ordinal + 1, the number of extra tags followed by
+ * their name and value ids, and the number of plies followed by the moves as 16-bit packed
+ * values, see {@link com.github.bhlangonijr.chesslib.move.Move#toPacked()}.</li>
+ * </ul>
+ * Varints are unsigned, 7 bits per byte, least significant group first.
+ */
+final class GameArchive {
+
+    static final byte[] MAGIC = {'C', 'L', 'G', 'A'};
+    static final int VERSION = 1;
+
+    static final int STRING = 1;
+    static final int GAME = 2;
+
+    private GameArchive() {
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.game.*;
+import com.github.bhlangonijr.chesslib.move.Move;
+import com.github.bhlangonijr.chesslib.move.MoveList;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads back the games of an archive written by a {@link GameArchiveWriter}, one at a time.
+ * Moves are rebuilt from their packed values, with no SAN decoding nor move validation, and the
+ * strings are shared by all the games using them.
+ * <p>
+ * Games are identified by their index in the archive, starting at 0.
+ */
+public class GameArchiveReader implements Iterable<Game>, Closeable {
+
+    private static final GameResult[] RESULTS = GameResult.values();
+    private static final Termination[] TERMINATIONS = Termination.values();
+    private static final int FIELDS = 11;
+
+    private final InputStream in;
+    private final List<String> strings = new ArrayList<>();
+    private final int[] ids = new int[FIELDS];
+    private byte[] moveBuffer = new byte[512];
+    private long gameCount;
+
+    /**
+     * Instantiates a new Game archive reader.
+     *
+     * @param input the input stream
+     * @throws IOException if the input is not a game archive
+     */
+    public GameArchiveReader(InputStream input) throws IOException {
+        this.in = input instanceof BufferedInputStream ? input :
+                new BufferedInputStream(input, GameArchiveWriter.DEFAULT_BUFFER_SIZE);
+        strings.add(null);
+        byte[] magic = new byte[GameArchive.MAGIC.length];
+        if (readFully(magic, magic.length) < magic.length || !Arrays.equals(magic, GameArchive.MAGIC)) {
+            throw new PgnException("Not a game archive");
+        }
+        int version = in.read();
+        if (version != GameArchive.VERSION) {
+            throw new PgnException("Unsupported game archive version: " + version);
+        }
+    }
+
+    /**
+     * Instantiates a new Game archive reader.
+     *
+     * @param path the path
+     * @throws IOException if the file cannot be opened
+     */
+    public GameArchiveReader(Path path) throws IOException {
+        this(Files.newInputStream(path));
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the game, or null at the end of the archive
+     * @throws IOException if the input fails
+     */
+    public Game read() throws IOException {
+        int type;
+        while ((type = in.read()) == GameArchive.STRING) {
+            int length = readVarInt();
+            byte[] bytes = new byte[length];
+            if (readFully(bytes, length) < length) {
+                throw truncated();
+            }
+            strings.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        if (type < 0) {
+            return null;
+        }
+        if (type != GameArchive.GAME) {
+            throw new PgnException("Invalid record type " + type + " after game " + gameCount);
+        }
+        for (int i = 0; i < FIELDS; i++) {
+            ids[i] = readVarInt();
+        }
+        int roundNumber = readVarInt();
+        int whiteElo = readVarInt();
+        int blackElo = readVarInt();
+        int result = readVarInt();
+        int termination = readVarInt();
+
+        Event event = GameFactory.newEvent(string(ids[0]));
+        event.setSite(string(ids[1]));
+        event.setStartDate(string(ids[2]));
+        if (ids[10] != 0) {
+            event.setTimeControl(TimeControl.parseFromString(string(ids[10]).toUpperCase()));
+        }
+        Round round = GameFactory.newRound(event, roundNumber);
+        event.getRound().put(roundNumber, round);
+        Game game = GameFactory.newGame(String.valueOf(gameCount), round);
+        round.getGame().add(game);
+        game.setDate(event.getStartDate());
+        game.setWhitePlayer(player(string(ids[3]), whiteElo));
+        game.setBlackPlayer(player(string(ids[4]), blackElo));
+        game.setEco(string(ids[5]));
+        game.setOpening(string(ids[6]));
+        game.setVariation(string(ids[7]));
+        game.setAnnotator(string(ids[8]));
+        game.setFen(string(ids[9]));
+        game.setResult(result == 0 ? null : RESULTS[result - 1]);
+        game.setTermination(termination == 0 ? null : TERMINATIONS[termination - 1]);
+
+        int propertyCount = readVarInt();
+        if (propertyCount > 0) {
+            Map<String, String> properties = new HashMap<>();
+            for (int i = 0; i < propertyCount; i++) {
+                String name = string(readVarInt());
+                properties.put(name, string(readVarInt()));
+            }
+            game.setProperty(properties);
+        }
+
+        game.setHalfMoves(readMoves(game.getFen()));
+        game.setPlyCount(String.valueOf(game.getHalfMoves().size()));
+        gameCount++;
+        return game;
+    }
+
+    @Override
+    public Iterator<Game> iterator() {
+        return new GameIterator();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private MoveList readMoves(String fen) throws IOException {
+        int size = readVarInt();
+        if (moveBuffer.length < size * 2) {
+            moveBuffer = new byte[size * 2];
+        }
+        if (readFully(moveBuffer, size * 2) < size * 2) {
+            throw truncated();
+        }
+        MoveList moves = fen != null ? new MoveList(fen) : new MoveList();
+        moves.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            int packed = ((moveBuffer[i * 2] & 0xFF) << 8) | (moveBuffer[i * 2 + 1] & 0xFF);
+            moves.add(Move.fromPacked(packed));
+        }
+        return moves;
+    }
+
+    private Player player(String name, int elo) {
+        if (name == null) {
+            return null;
+        }
+        Player player = GameFactory.newPlayer(PlayerType.HUMAN, name);
+        player.setId(name);
+        player.setDescription(name);
+        player.setElo(elo);
+        return player;
+    }
+
+    private String string(int id) {
+        if (id >= strings.size()) {
+            throw new PgnException("Undefined string " + id + " in game " + gameCount);
+        }
+        return strings.get(id);
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw truncated();
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new PgnException("Invalid varint in game " + gameCount);
+    }
+
+    private int readFully(byte[] bytes, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int n = in.read(bytes, read, length - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    private PgnException truncated() {
+        return new PgnException("Truncated game archive at game " + gameCount);
+    }
+
+    private class GameIterator implements Iterator<Game> {
+
+        private Game next;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = read();
+                } catch (IOException e) {
+                    throw new PgnException(e);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Game next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Game game = next;
+            next = null;
+            return game;
+        }
+    }
+}
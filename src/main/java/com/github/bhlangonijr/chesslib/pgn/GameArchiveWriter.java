@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.game.Event;
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.move.MoveList;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes games into a compact binary archive, see {@link GameArchive} for the layout. Moves are
+ * stored as 2 bytes per ply and every distinct string only once, so an archive takes a fraction
+ * of the size of the PGN file and is read back by a {@link GameArchiveReader} without decoding
+ * any SAN.
+ * <p>
+ * Only the main line of the games is kept, comments, NAGs and variations are dropped.
+ */
+public class GameArchiveWriter implements Closeable, Flushable {
+
+    /**
+     * The default size of the output buffer, 64 KB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final OutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private byte[] moveBuffer = new byte[512];
+    private long gameCount;
+
+    /**
+     * Instantiates a new Game archive writer.
+     *
+     * @param output the output stream
+     * @throws IOException if the archive header cannot be written
+     */
+    public GameArchiveWriter(OutputStream output) throws IOException {
+        this.out = output instanceof BufferedOutputStream ? output :
+                new BufferedOutputStream(output, DEFAULT_BUFFER_SIZE);
+        out.write(GameArchive.MAGIC);
+        out.write(GameArchive.VERSION);
+    }
+
+    /**
+     * Instantiates a new Game archive writer creating or replacing the file.
+     *
+     * @param path the path
+     * @throws IOException if the file cannot be created
+     */
+    public GameArchiveWriter(Path path) throws IOException {
+        this(Files.newOutputStream(path));
+    }
+
+    /**
+     * Converts a PGN file into a game archive.
+     *
+     * @param pgnFile the pgn file
+     * @param archive the archive file, created or replaced
+     * @return the number of games written
+     * @throws IOException if the files cannot be read or written
+     */
+    public static long convert(String pgnFile, Path archive) throws IOException {
+        try (PgnReader reader = new PgnReader(pgnFile);
+             GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+            writer.writeGames(new PgnIterator(reader));
+            return writer.getGameCount();
+        }
+    }
+
+    /**
+     * Gets the number of games written so far.
+     *
+     * @return the game count
+     */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Writes a game.
+     *
+     * @param game the game
+     * @throws IOException if the output fails
+     */
+    public void writeGame(Game game) throws IOException {
+        Event event = game.getRound() != null ? game.getRound().getEvent() : null;
+        int[] ids = {
+                id(event != null ? event.getName() : null),
+                id(event != null ? event.getSite() : null),
+                id(game.getDate() != null ? game.getDate() : event != null ? event.getStartDate() : null),
+                id(game.getWhitePlayer() != null ? game.getWhitePlayer().getName() : null),
+                id(game.getBlackPlayer() != null ? game.getBlackPlayer().getName() : null),
+                id(game.getEco()),
+                id(game.getOpening()),
+                id(game.getVariation()),
+                id(game.getAnnotator()),
+                id(game.getFen() != null && !game.getFen().trim().isEmpty() ? game.getFen() : null),
+                id(event != null && event.getTimeControl() != null ? event.getTimeControl().toPGNString() : null)
+        };
+        Map<String, String> properties = game.getProperty();
+        int[] propertyIds = null;
+        if (properties != null && !properties.isEmpty()) {
+            propertyIds = new int[properties.size() * 2];
+            int i = 0;
+            for (Map.Entry<String, String> entry : properties.entrySet()) {
+                propertyIds[i++] = id(entry.getKey());
+                propertyIds[i++] = id(entry.getValue());
+            }
+        }
+
+        out.write(GameArchive.GAME);
+        for (int id : ids) {
+            writeVarInt(id);
+        }
+        writeVarInt(game.getRound() != null ? Math.max(0, game.getRound().getNumber()) : 0);
+        writeVarInt(game.getWhitePlayer() != null ? Math.max(0, game.getWhitePlayer().getElo()) : 0);
+        writeVarInt(game.getBlackPlayer() != null ? Math.max(0, game.getBlackPlayer().getElo()) : 0);
+        writeVarInt(game.getResult() != null ? game.getResult().ordinal() + 1 : 0);
+        writeVarInt(game.getTermination() != null ? game.getTermination().ordinal() + 1 : 0);
+        if (propertyIds == null) {
+            writeVarInt(0);
+        } else {
+            writeVarInt(propertyIds.length / 2);
+            for (int id : propertyIds) {
+                writeVarInt(id);
+            }
+        }
+        writeMoves(game.getHalfMoves());
+        gameCount++;
+    }
+
+    /**
+     * Writes all the games, e.g.: as read by a {@link PgnIterator}.
+     *
+     * @param games the games
+     * @throws IOException if the output fails
+     */
+    public void writeGames(Iterable<Game> games) throws IOException {
+        for (Game game : games) {
+            writeGame(game);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeMoves(MoveList moves) throws IOException {
+        int size = moves.size();
+        writeVarInt(size);
+        if (moveBuffer.length < size * 2) {
+            moveBuffer = new byte[size * 2];
+        }
+        for (int i = 0; i < size; i++) {
+            int packed;
+            try {
+                packed = moves.getPacked(i);
+            } catch (IllegalStateException e) {
+                throw new PgnException("Move cannot be archived at ply " + (i + 1) + ": " + moves.get(i), e);
+            }
+            moveBuffer[i * 2] = (byte) (packed >>> 8);
+            moveBuffer[i * 2 + 1] = (byte) packed;
+        }
+        out.write(moveBuffer, 0, size * 2);
+    }
+
+    /*
+     * returns the id of the string, writing its definition the first time it is seen
+     */
+    private int id(String value) throws IOException {
+        if (value == null) {
+            return 0;
+        }
+        Integer id = strings.get(value);
+        if (id == null) {
+            id = strings.size() + 1;
+            strings.put(value, id);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.write(GameArchive.STRING);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+        return id;
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -17,6 +17,7 @@
 package com.github.bhlangonijr.chesslib.pgn;
 
 import com.github.bhlangonijr.chesslib.game.*;
+import com.github.bhlangonijr.chesslib.util.ByteCharSequence;
 import com.github.bhlangonijr.chesslib.util.StringUtil;
 
 import java.util.HashMap;
@@ -32,16 +33,27 @@ import static com.github.bhlangonijr.chesslib.pgn.PgnProperty.*;
  */
 public class GameLoader {
 
+    /*
+     * the game termination markers, with the draw also as the bytes of ½-½ in UTF-8 and Latin-1
+     */
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "*",
+            "\u00c2\u00bd-\u00c2\u00bd", "\u00bd-\u00bd"};
+
     public static Game loadNextGame(Iterator<String> iterator) {
+        return loadNextGame(iterator, null);
+    }
 
-        Event event = null;
-        Round round = null;
-        Game game = null;
-        Player whitePlayer = null;
-        Player blackPlayer = null;
-        StringBuilder moveText = null;
-        boolean moveTextParsing = false;
+    /**
+     * Loads the next game from the lines of a PGN, deduplicating its strings and players.
+     *
+     * @param iterator   the lines
+     * @param dictionary the dictionary, or null
+     * @return the game, or null if there are no more games
+     */
+    public static Game loadNextGame(Iterator<String> iterator, PgnDictionary dictionary) {
 
+        PgnTempContainer container = new PgnTempContainer();
+        container.dictionary = dictionary;
 
         while (iterator.hasNext()) {
             String line = iterator.next();
@@ -53,210 +65,357 @@ public class GameLoader {
                 if (isProperty(line)) {
                     PgnProperty p = parsePgnProperty(line);
                     if (p != null) {
-                        String tag = p.name.toLowerCase().trim();
-                        //begin
-                        switch (tag) {
-                            case "event":
-                                if (moveTextParsing && game != null && game.getHalfMoves().size() == 0) {
-                                    setMoveText(game, moveText);
-                                }
-                                game = null;
-                                round = null;
-                                whitePlayer = null;
-                                blackPlayer = null;
-                                if (event == null) {
-                                    event = GameFactory.newEvent(p.value);
-                                }
-                                moveText = new StringBuilder();
-
-                                break;
-                            case "site":
-                                if (event != null) {
-                                    event.setSite(p.value);
-                                }
-                                break;
-                            case "date":
-                                if (event != null) {
-                                    event.setStartDate(p.value);
-                                }
-                                break;
-                            case "round":
-                                if (event != null) {
-                                    int r = 1;
-                                    try {
-                                        r = Integer.parseInt(p.value);
-                                    } catch (Exception e1) {
-                                    }
-                                    r = Math.max(0, r);
-                                    round = event.getRound().get(r);
-                                    if (round == null) {
-                                        round = GameFactory.newRound(event, r);
-                                        event.getRound().put(r, round);
-                                    }
-                                }
-                                break;
-                            case "white": {
-                                if (round == null) {
-                                    round = GameFactory.newRound(event, 1);
-                                    event.getRound().put(1, round);
-                                }
-                                if (game == null) {
-                                    game = GameFactory.newGame(UUID.randomUUID().toString(), round);
-                                    game.setDate(event.getStartDate());
-                                    round.getGame().add(game);
-                                }
-
-                                Player player = GameFactory.newPlayer(PlayerType.HUMAN, p.value);
-                                player.setId(p.value);
-                                player.setDescription(p.value);
-
-                                game.setWhitePlayer(player);
-                                whitePlayer = player;
-
-                                break;
-                            }
-                            case "black": {
-                                if (round == null) {
-                                    round = GameFactory.newRound(event, 1);
-                                    event.getRound().put(1, round);
-                                }
-                                if (game == null) {
-                                    game = GameFactory.newGame(UUID.randomUUID().toString(), round);
-                                    game.setDate(event.getStartDate());
-                                    round.getGame().add(game);
-                                }
-                                Player player = GameFactory.newPlayer(PlayerType.HUMAN, p.value);
-                                player.setId(p.value);
-                                player.setDescription(p.value);
-
-                                game.setBlackPlayer(player);
-                                blackPlayer = player;
-
-                                break;
-                            }
-                            case "result":
-                                if (game != null) {
-                                    GameResult r = GameResult.fromNotation(p.value);
-                                    game.setResult(r);
-                                }
-                                break;
-                            case "plycount":
-                                if (game != null) {
-                                    game.setPlyCount(p.value);
-                                }
-                                break;
-                            case "termination":
-                                if (game != null) {
-                                    try {
-                                        game.setTermination(Termination.fromValue(p.value.toUpperCase()));
-                                    } catch (Exception e1) {
-                                        game.setTermination(Termination.UNTERMINATED);
-                                    }
-                                }
-                                break;
-                            case "timecontrol":
-                                if (event != null && event.getTimeControl() == null) {
-                                    try {
-                                        event.setTimeControl(TimeControl.parseFromString(p.value.toUpperCase()));
-                                    } catch (Exception e1) {
-                                        throw new PgnException("Error parsing TimeControl Tag [" + (round != null ? round.getNumber() : 1) +
-                                                ", " + event.getName() + "]: " + e1.getMessage());
-                                    }
-                                }
-                                break;
-                            case "annotator":
-                                if (game != null) {
-                                    game.setAnnotator(p.value);
-                                }
-                                break;
-                            case "fen":
-                                if (game != null) {
-                                    game.setFen(p.value);
-                                }
-                                break;
-                            case "eco":
-                                if (game != null) {
-                                    game.setEco(p.value);
-                                }
-                                break;
-                            case "opening":
-                                if (game != null) {
-                                    game.setOpening(p.value);
-                                }
-                                break;
-                            case "variation":
-                                if (game != null) {
-                                    game.setVariation(p.value);
-                                }
-                                break;
-                            case "whiteelo":
-                                if (whitePlayer != null) {
-                                    try {
-                                        whitePlayer.setElo(Integer.parseInt(p.value));
-                                    } catch (NumberFormatException e) {
-
-                                    }
-                                }
-                                break;
-                            case "blackelo":
-                                if (blackPlayer != null) {
-                                    try {
-                                        blackPlayer.setElo(Integer.parseInt(p.value));
-                                    } catch (NumberFormatException e) {
-
-                                    }
-                                }
-                                break;
-                            default:
-                                if (game != null) {
-                                    if (game.getProperty() == null) {
-                                        game.setProperty(new HashMap<String, String>());
-                                    }
-                                    game.getProperty().put(p.name, p.value);
-                                }
-                                break;
-                        }
+                        processProperty(p, container);
                     }
-                } else if (!line.trim().equals("") && moveText != null) {
-                    moveText.append(line);
-                    moveText.append('\n');
-                    moveTextParsing = true;
+                } else if (!line.trim().equals("") && container.moveText != null) {
+                    container.moveText.append(line);
+                    container.moveText.append('\n');
+                    container.moveTextParsing = true;
                     if (line.endsWith("1-0") ||
                             line.endsWith("0-1") ||
                             line.endsWith("1/2-1/2") ||
                             line.endsWith("*")) {
                         //end of PGN
-                        if (game != null) {
-                            setMoveText(game, moveText);
+                        if (container.game != null) {
+                            setMoveText(container.game, container.moveText);
                         }
                         break;
                     }
                 }
 
             } catch (Exception e) {
-                String name = "";
-                int r = 0;
-                try {
-                    r = round.getNumber();
-                    name = event.getName();
-                } catch (Exception e2) {
+                throw error(container, e);
+            }
+
+        }
+
+        canonicalizePlayers(container);
+        return container.game;
+    }
+
+    /**
+     * Loads a game from the tags and movetext split by a {@link PgnReader}.
+     *
+     * @param record the raw game
+     * @return the game, or null if the record has no players
+     */
+    public static Game loadGame(PgnRecord record) {
+        return loadGame(record, true);
+    }
+
+    /**
+     * Loads a game from the tags and movetext split by a {@link PgnReader}.
+     *
+     * @param record       the raw game
+     * @param loadMoveText whether the moves are decoded now, otherwise the game keeps the
+     *                     movetext as compact bytes and decodes it on first access, see
+     *                     {@link Game#setLazyMoveText(byte[])}
+     * @return the game, or null if the record has no players
+     */
+    public static Game loadGame(PgnRecord record, boolean loadMoveText) {
+        return loadGame(record, loadMoveText, null);
+    }
+
+    /**
+     * Loads a game from the tags and movetext split by a {@link PgnReader}, deduplicating its
+     * strings and players.
+     *
+     * @param record       the raw game
+     * @param loadMoveText whether the moves are decoded now, see
+     *                     {@link #loadGame(PgnRecord, boolean)}
+     * @param dictionary   the dictionary, or null
+     * @return the game, or null if the record has no players
+     */
+    public static Game loadGame(PgnRecord record, boolean loadMoveText, PgnDictionary dictionary) {
+
+        PgnTempContainer container = new PgnTempContainer();
+        container.dictionary = dictionary;
+        try {
+            for (int i = 0; i < record.getTagCount(); i++) {
+                PgnProperty p = new PgnProperty(record.getTagName(i).toString(),
+                        unescape(record.getTagValue(i).toString()));
+                processProperty(p, container);
+            }
+            canonicalizePlayers(container);
+            if (container.game != null) {
+                ByteCharSequence moveText = record.getMoveText();
+                moveText = moveText.subSequence(0, moveTextEnd(moveText));
+                if (loadMoveText) {
+                    container.game.setMoveText(new StringBuilder(moveText.toString()));
+                    container.game.loadMoveText(moveText);
+                    container.game.setPlyCount(container.game.getHalfMoves().size() + "");
+                } else {
+                    container.game.setLazyMoveText(moveText.toByteArray());
+                }
+            }
+        } catch (Exception e) {
+            throw error(container, e);
+        }
+        return container.game;
+    }
+
+    private static void processProperty(PgnProperty p, PgnTempContainer container) throws Exception {
+        String tag = p.name.toLowerCase().trim();
+        if (container.dictionary != null) {
+            p = new PgnProperty(container.dictionary.intern(p.name), internValue(tag, p.value, container));
+        }
+        switch (tag) {
+            case "event":
+                if (container.moveTextParsing && container.game != null && container.game.getHalfMoves().size() == 0) {
+                    setMoveText(container.game, container.moveText);
+                }
+                container.game = null;
+                container.round = null;
+                container.whitePlayer = null;
+                container.blackPlayer = null;
+                if (container.event == null) {
+                    container.event = GameFactory.newEvent(p.value);
+                }
+                container.moveText = new StringBuilder();
+
+                break;
+            case "site":
+                if (container.event != null) {
+                    container.event.setSite(p.value);
+                }
+                break;
+            case "date":
+                if (container.event != null) {
+                    container.event.setStartDate(p.value);
+                }
+                break;
+            case "round":
+                if (container.event != null) {
+                    int r = 1;
+                    try {
+                        r = Integer.parseInt(p.value);
+                    } catch (Exception e1) {
+                    }
+                    r = Math.max(0, r);
+                    container.round = container.event.getRound().get(r);
+                    if (container.round == null) {
+                        container.round = GameFactory.newRound(container.event, r);
+                        container.event.getRound().put(r, container.round);
+                    }
+                }
+                break;
+            case "white": {
+                if (container.round == null) {
+                    container.round = GameFactory.newRound(container.event, 1);
+                    container.event.getRound().put(1, container.round);
+                }
+                if (container.game == null) {
+                    container.game = GameFactory.newGame(UUID.randomUUID().toString(), container.round);
+                    container.game.setDate(container.event.getStartDate());
+                    container.round.getGame().add(container.game);
+                }
+
+                Player player = GameFactory.newPlayer(PlayerType.HUMAN, p.value);
+                player.setId(p.value);
+                player.setDescription(p.value);
+
+                container.game.setWhitePlayer(player);
+                container.whitePlayer = player;
+
+                break;
+            }
+            case "black": {
+                if (container.round == null) {
+                    container.round = GameFactory.newRound(container.event, 1);
+                    container.event.getRound().put(1, container.round);
+                }
+                if (container.game == null) {
+                    container.game = GameFactory.newGame(UUID.randomUUID().toString(), container.round);
+                    container.game.setDate(container.event.getStartDate());
+                    container.round.getGame().add(container.game);
+                }
+                Player player = GameFactory.newPlayer(PlayerType.HUMAN, p.value);
+                player.setId(p.value);
+                player.setDescription(p.value);
+
+                container.game.setBlackPlayer(player);
+                container.blackPlayer = player;
+
+                break;
+            }
+            case "result":
+                if (container.game != null) {
+                    GameResult r = GameResult.fromNotation(p.value);
+                    container.game.setResult(r);
+                }
+                break;
+            case "plycount":
+                if (container.game != null) {
+                    container.game.setPlyCount(p.value);
+                }
+                break;
+            case "termination":
+                if (container.game != null) {
+                    try {
+                        container.game.setTermination(Termination.fromValue(p.value.toUpperCase()));
+                    } catch (Exception e1) {
+                        container.game.setTermination(Termination.UNTERMINATED);
+                    }
+                }
+                break;
+            case "timecontrol":
+                if (container.event != null && container.event.getTimeControl() == null) {
+                    try {
+                        container.event.setTimeControl(TimeControl.parseFromString(p.value.toUpperCase()));
+                    } catch (Exception e1) {
+                        throw new PgnException("Error parsing TimeControl Tag [" + (container.round != null ? container.round.getNumber() : 1) +
+                                ", " + container.event.getName() + "]: " + e1.getMessage());
+                    }
+                }
+                break;
+            case "annotator":
+                if (container.game != null) {
+                    container.game.setAnnotator(p.value);
+                }
+                break;
+            case "fen":
+                if (container.game != null) {
+                    container.game.setFen(p.value);
+                }
+                break;
+            case "eco":
+                if (container.game != null) {
+                    container.game.setEco(p.value);
+                }
+                break;
+            case "opening":
+                if (container.game != null) {
+                    container.game.setOpening(p.value);
+                }
+                break;
+            case "variation":
+                if (container.game != null) {
+                    container.game.setVariation(p.value);
+                }
+                break;
+            case "whiteelo":
+                if (container.whitePlayer != null) {
+                    try {
+                        container.whitePlayer.setElo(Integer.parseInt(p.value));
+                    } catch (NumberFormatException e) {
+
+                    }
+                }
+                break;
+            case "blackelo":
+                if (container.blackPlayer != null) {
+                    try {
+                        container.blackPlayer.setElo(Integer.parseInt(p.value));
+                    } catch (NumberFormatException e) {
 
+                    }
                 }
-                throw new PgnException("Error parsing PGN[" + r + ", " + name + "]: ", e);
+                break;
+            default:
+                if (container.game != null) {
+                    if (container.game.getProperty() == null) {
+                        container.game.setProperty(new HashMap<String, String>());
+                    }
+                    container.game.getProperty().put(p.name, p.value);
+                }
+                break;
+        }
+    }
+
+    /*
+     * interns the values repeated across games, leaving the others, e.g.: FEN, as they are
+     */
+    private static String internValue(String tag, String value, PgnTempContainer container) {
+        switch (tag) {
+            case "event":
+            case "site":
+            case "date":
+            case "white":
+            case "black":
+            case "result":
+            case "eco":
+            case "opening":
+            case "variation":
+            case "annotator":
+            case "timecontrol":
+            case "termination":
+                return container.dictionary.intern(value);
+            default:
+                return value;
+        }
+    }
+
+    /*
+     * replaces the players of the game by the shared instances of the dictionary, once their
+     * ratings are known
+     */
+    private static void canonicalizePlayers(PgnTempContainer container) {
+        if (container.dictionary == null || container.game == null) {
+            return;
+        }
+        Player white = container.game.getWhitePlayer();
+        if (white != null) {
+            container.game.setWhitePlayer(container.dictionary.getPlayer(white.getName(), white.getElo()));
+        }
+        Player black = container.game.getBlackPlayer();
+        if (black != null) {
+            container.game.setBlackPlayer(container.dictionary.getPlayer(black.getName(), black.getElo()));
+        }
+    }
+
+    private static PgnException error(PgnTempContainer container, Exception e) {
+        String name = "";
+        int r = 0;
+        try {
+            r = container.round.getNumber();
+            name = container.event.getName();
+        } catch (Exception e2) {
+
+        }
+        return new PgnException("Error parsing PGN[" + r + ", " + name + "]: ", e);
+    }
+
+    /*
+     * index after the last move of the movetext, leaving out the game termination marker
+     */
+    private static int moveTextEnd(CharSequence text) {
+        int end = trimEnd(text, text.length());
+        for (String result : RESULTS) {
+            int start = end - result.length();
+            if (start >= 0 && regionMatches(text, start, result) &&
+                    (start == 0 || Character.isWhitespace(text.charAt(start - 1)))) {
+                return trimEnd(text, start);
             }
+        }
+        return end;
+    }
+
+    private static int trimEnd(CharSequence text, int end) {
+        while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
 
+    private static boolean regionMatches(CharSequence text, int start, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (text.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
         }
+        return true;
+    }
 
-        return game;
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        return value.replace("\\\"", "\"").replace("\\\\", "\\");
     }
 
     private static void setMoveText(Game game, StringBuilder moveText) throws Exception {
 
-        //clear game result
-        StringUtil.replaceAll(moveText, "1-0", "");
-        StringUtil.replaceAll(moveText, "0-1", "");
-        StringUtil.replaceAll(moveText, "1/2-1/2", "");
-        StringUtil.replaceAll(moveText, "*", "");
+        clearResult(moveText);
 
         game.setMoveText(moveText);
         game.loadMoveText(moveText);
@@ -264,4 +423,22 @@ public class GameLoader {
         game.setPlyCount(game.getHalfMoves().size() + "");
 
     }
-}
\ No newline at end of file
+
+    private static void clearResult(StringBuilder moveText) {
+        StringUtil.replaceAll(moveText, "1-0", "");
+        StringUtil.replaceAll(moveText, "0-1", "");
+        StringUtil.replaceAll(moveText, "1/2-1/2", "");
+        StringUtil.replaceAll(moveText, "*", "");
+    }
+
+    private static class PgnTempContainer {
+        Event event;
+        Round round;
+        Game game;
+        Player whitePlayer;
+        Player blackPlayer;
+        PgnDictionary dictionary;
+        StringBuilder moveText;
+        boolean moveTextParsing;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.game.GameContext;
+import com.github.bhlangonijr.chesslib.move.Move;
+import com.github.bhlangonijr.chesslib.move.SanDecoder;
+import com.github.bhlangonijr.chesslib.util.ByteCharSequence;
+
+/**
+ * Plays the main line of raw games on a forward-only board, straight from the bytes of the
+ * movetext, reporting every ply to a {@link PlyListener}. Comments and variations are skipped
+ * and no {@link com.github.bhlangonijr.chesslib.game.Game} is built, which makes it the fastest
+ * way to walk the positions of many games.
+ * <p>
+ * A replayer is not thread safe, each thread needs its own.
+ */
+public final class MainLineReplayer implements MoveTextListener {
+
+    /**
+     * Receives the plies of the main line.
+     */
+    public interface PlyListener {
+
+        /**
+         * Called after a move of the main line is played.
+         *
+         * @param board      the board, after the move
+         * @param ply        the number of moves played so far, starting at 1
+         * @param packedMove the move, see {@link Move#toPacked()}
+         * @return false to stop the replay
+         */
+        boolean onPly(Board board, int ply, int packedMove);
+    }
+
+    private final Board board = new Board(new GameContext(), false, true);
+    private PlyListener listener;
+    private int depth;
+    private int ply;
+    private boolean stopped;
+
+    /**
+     * Sets the board to the starting position of the game.
+     *
+     * @param record the raw game
+     * @return the board
+     */
+    public Board start(PgnRecord record) {
+        ByteCharSequence fen = record.getTag("FEN");
+        String start = fen != null && fen.length() > 0 ? fen.toString().trim() : "";
+        board.loadFromFen(start.isEmpty() ? board.getContext().getStartFEN() : start);
+        return board;
+    }
+
+    /**
+     * Plays the main line of the game from its starting position. Null moves end the replay.
+     *
+     * @param record   the raw game
+     * @param listener the listener
+     * @return the number of moves played
+     * @throws com.github.bhlangonijr.chesslib.move.MoveConversionException if a move is illegal
+     */
+    public int replay(PgnRecord record, PlyListener listener) {
+        start(record);
+        this.listener = listener;
+        this.depth = 0;
+        this.ply = 0;
+        this.stopped = false;
+        try {
+            MoveTextTokenizer.tokenize(record.getMoveText(), this);
+        } finally {
+            this.listener = null;
+        }
+        return ply;
+    }
+
+    @Override
+    public void onMove(CharSequence text, int start, int end) {
+        if (depth > 0 || stopped) {
+            return;
+        }
+        int packed = SanDecoder.decode(board, text, start, end);
+        if (packed == SanDecoder.NULL_MOVE) {
+            stopped = true;
+            return;
+        }
+        board.doMove(Move.fromPacked(packed), false);
+        ply++;
+        stopped = !listener.onPly(board, ply, packed);
+    }
+
+    @Override
+    public void onVariationStart() {
+        depth++;
+    }
+
+    @Override
+    public void onVariationEnd() {
+        depth = Math.max(0, depth - 1);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+/**
+ * Receives the tokens of a PGN movetext from a {@link MoveTextTokenizer}. Tokens are given as
+ * slices of the tokenized text, which are only valid during the call.
+ */
+public interface MoveTextListener {
+
+    /**
+     * Called for each move in SAN, including suffix annotations, e.g.: Nf3+!?. Move numbers are
+     * not reported.
+     *
+     * @param text  the movetext
+     * @param start index of the first char of the move
+     * @param end   index after the last char of the move
+     */
+    void onMove(CharSequence text, int start, int end);
+
+    /**
+     * Called for each comment, with the text between the braces or after the semicolon.
+     *
+     * @param text  the movetext
+     * @param start index of the first char of the comment
+     * @param end   index after the last char of the comment
+     */
+    default void onComment(CharSequence text, int start, int end) {
+    }
+
+    /**
+     * Called for each numeric annotation glyph, e.g.: $1, or standalone suffix annotation.
+     *
+     * @param text  the movetext
+     * @param start index of the first char of the NAG
+     * @param end   index after the last char of the NAG
+     */
+    default void onNag(CharSequence text, int start, int end) {
+    }
+
+    /**
+     * Called when a variation is opened, i.e.: when a {@code (} is found.
+     */
+    default void onVariationStart() {
+    }
+
+    /**
+     * Called when a variation is closed, i.e.: when a {@code )} is found.
+     */
+    default void onVariationEnd() {
+    }
+
+    /**
+     * Called for the game termination marker, e.g.: 1-0 or *.
+     *
+     * @param text  the movetext
+     * @param start index of the first char of the result
+     * @param end   index after the last char of the result
+     */
+    default void onResult(CharSequence text, int start, int end) {
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+/**
+ * Splits a PGN movetext into moves, comments, NAGs, variation boundaries and the game result
+ * in a single pass, reporting each token to a {@link MoveTextListener} as a slice of the input.
+ * Move numbers, e.g.: 12. or 12..., and escaped lines starting with % are skipped.
+ */
+public final class MoveTextTokenizer {
+
+    private MoveTextTokenizer() {
+    }
+
+    /**
+     * Tokenizes the movetext.
+     *
+     * @param text     the movetext
+     * @param listener the listener
+     */
+    public static void tokenize(CharSequence text, MoveTextListener listener) {
+        tokenize(text, 0, text.length(), listener);
+    }
+
+    /**
+     * Tokenizes a slice of the movetext.
+     *
+     * @param text     the text containing the movetext
+     * @param start    index of the first char of the movetext
+     * @param end      index after the last char of the movetext
+     * @param listener the listener
+     */
+    public static void tokenize(CharSequence text, int start, int end, MoveTextListener listener) {
+        int i = start;
+        boolean lineStart = true;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                lineStart = true;
+                i++;
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\r') {
+                i++;
+                continue;
+            }
+            switch (c) {
+                case '{': {
+                    int close = indexOf(text, '}', i + 1, end);
+                    listener.onComment(text, i + 1, close);
+                    i = close + 1;
+                    break;
+                }
+                case ';': {
+                    int close = indexOf(text, '\n', i + 1, end);
+                    listener.onComment(text, i + 1, close);
+                    i = close;
+                    break;
+                }
+                case '(':
+                    listener.onVariationStart();
+                    i++;
+                    break;
+                case ')':
+                    listener.onVariationEnd();
+                    i++;
+                    break;
+                case '$': {
+                    int j = i + 1;
+                    while (j < end && Character.isDigit(text.charAt(j))) {
+                        j++;
+                    }
+                    listener.onNag(text, i, j);
+                    i = j;
+                    break;
+                }
+                case '!':
+                case '?': {
+                    int j = i + 1;
+                    while (j < end && (text.charAt(j) == '!' || text.charAt(j) == '?')) {
+                        j++;
+                    }
+                    listener.onNag(text, i, j);
+                    i = j;
+                    break;
+                }
+                case '%':
+                    if (lineStart) {
+                        i = indexOf(text, '\n', i, end);
+                    } else {
+                        i = symbol(text, i, end, listener);
+                    }
+                    break;
+                default:
+                    i = symbol(text, i, end, listener);
+                    break;
+            }
+            lineStart = false;
+        }
+    }
+
+    /*
+     * reports a move or result starting at i, skipping a move number prefix, and returns the
+     * index after the symbol
+     */
+    private static int symbol(CharSequence text, int i, int end, MoveTextListener listener) {
+        int j = i;
+        while (j < end && !isDelimiter(text.charAt(j))) {
+            j++;
+        }
+        if (isResult(text, i, j)) {
+            listener.onResult(text, i, j);
+            return j;
+        }
+        int k = i;
+        while (k < j && Character.isDigit(text.charAt(k))) {
+            k++;
+        }
+        if (k < j && text.charAt(k) != '.') {
+            k = i;
+        }
+        while (k < j && text.charAt(k) == '.') {
+            k++;
+        }
+        if (k < j) {
+            listener.onMove(text, k, j);
+        }
+        return j;
+    }
+
+    private static boolean isResult(CharSequence text, int start, int end) {
+        switch (end - start) {
+            case 1:
+                return text.charAt(start) == '*';
+            case 3:
+                return regionMatches(text, start, "1-0") || regionMatches(text, start, "0-1") ||
+                        regionMatches(text, start, "½-½");
+            case 7:
+                return regionMatches(text, start, "1/2-1/2");
+            default:
+                return false;
+        }
+    }
+
+    private static boolean regionMatches(CharSequence text, int start, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (text.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' ||
+                c == '{' || c == '}' || c == '(' || c == ')' || c == ';' || c == '$';
+    }
+
+    private static int indexOf(CharSequence text, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return end;
+    }
+}
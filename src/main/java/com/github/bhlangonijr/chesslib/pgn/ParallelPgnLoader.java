@@ -0,0 +1,401 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.util.CompressedInput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Loads the games of a PGN file on several threads. The file is carved into chunks of about
+ * {@link #getChunkSize()} bytes, each ending right before a line starting with {@code [Event },
+ * and the chunks are memory-mapped and parsed as independent tasks on a {@link ForkJoinPool}.
+ * Files whose games start with another tag are carved before a tag line following a blank line
+ * instead, so their comments must not hold such lines. A chunk cannot exceed 2 GB.
+ * Gzip compressed files are decompressed by a {@link PgnStreamReader} on its own thread instead,
+ * and their games parsed in batches of about a chunk on the pool.
+ * <p>
+ * Games are handed to the consumer from the calling thread, either in file order or as soon as
+ * their chunk is parsed. At most two chunks per thread are in flight, so memory stays bounded
+ * whatever the file size.
+ */
+public class ParallelPgnLoader {
+
+    /**
+     * The default chunk size, 8 MB.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 23;
+
+    private static final byte[] EVENT_TAG = "[Event ".getBytes();
+    private static final int SEARCH_BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private int parallelism;
+    private int chunkSize;
+    private boolean ordered;
+    private Predicate<PgnRecord> filter;
+    private boolean lazyLoad;
+    private PgnDictionary dictionary;
+
+    /**
+     * Instantiates a new Parallel pgn loader, using all available processors and keeping the
+     * games in file order.
+     *
+     * @param fileName the file name
+     */
+    public ParallelPgnLoader(String fileName) {
+        this(Paths.get(fileName));
+    }
+
+    /**
+     * Instantiates a new Parallel pgn loader, using all available processors and keeping the
+     * games in file order.
+     *
+     * @param path the path
+     */
+    public ParallelPgnLoader(Path path) {
+        this.path = path;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+        this.ordered = true;
+    }
+
+    /**
+     * Gets parallelism.
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads parsing chunks.
+     *
+     * @param parallelism the parallelism
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Gets chunk size.
+     *
+     * @return the chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the approximate size of a chunk in bytes.
+     *
+     * @param chunkSize the chunk size
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Is ordered boolean.
+     *
+     * @return the ordered
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Sets whether games are handed out in file order. Unordered output avoids waiting for a
+     * slow chunk while later ones are done.
+     *
+     * @param ordered the ordered
+     */
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    /**
+     * Gets filter.
+     *
+     * @return the filter
+     */
+    public Predicate<PgnRecord> getFilter() {
+        return filter;
+    }
+
+    /**
+     * Sets a filter over the tags of each game. The movetext of rejected games is skipped without
+     * being decoded. The filter is called from the parsing threads.
+     *
+     * @param filter the filter, or null to accept every game
+     */
+    public void setFilter(Predicate<PgnRecord> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Is lazy load boolean.
+     *
+     * @return the lazy load
+     */
+    public boolean isLazyLoad() {
+        return lazyLoad;
+    }
+
+    /**
+     * Sets whether the moves are left undecoded until first accessed, see
+     * {@link Game#setLazyMoveText(byte[])}.
+     *
+     * @param lazyLoad the lazy load
+     */
+    public void setLazyLoad(boolean lazyLoad) {
+        this.lazyLoad = lazyLoad;
+    }
+
+    /**
+     * Gets dictionary.
+     *
+     * @return the dictionary
+     */
+    public PgnDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Sets the dictionary deduplicating the strings and players of the games loaded, shared by
+     * the parsing threads.
+     *
+     * @param dictionary the dictionary, or null to keep the strings of each game apart
+     */
+    public void setDictionary(PgnDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Loads all the games into a list.
+     *
+     * @return the games
+     * @throws IOException if the file cannot be read
+     */
+    public List<Game> load() throws IOException {
+        List<Game> games = new ArrayList<>();
+        load(games::add);
+        return games;
+    }
+
+    /**
+     * Loads the games, handing them to the consumer from the calling thread.
+     *
+     * @param consumer the consumer of the games
+     * @throws IOException  if the file cannot be read
+     * @throws PgnException if a game cannot be parsed
+     */
+    public void load(Consumer<Game> consumer) throws IOException {
+        if (CompressedInput.isGzip(path)) {
+            try (PgnStreamReader reader = new PgnStreamReader(path)) {
+                load(() -> nextBatch(reader), consumer);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final long[] start = new long[1];
+            load(() -> {
+                if (start[0] >= size) {
+                    return null;
+                }
+                long limit = Math.min(size, start[0] + Integer.MAX_VALUE);
+                long end = nextBoundary(channel, Math.min(limit, start[0] + chunkSize), limit);
+                if (end < size && end == limit) {
+                    throw new PgnException("No game starts within 2 GB after offset " + start[0] + " of " + path);
+                }
+                final MappedByteBuffer chunk =
+                        channel.map(FileChannel.MapMode.READ_ONLY, start[0], end - start[0]);
+                final long offset = start[0];
+                start[0] = end;
+                return () -> parse(chunk, offset);
+            }, consumer);
+        }
+    }
+
+    private void load(TaskSource tasks, Consumer<Game> consumer) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final int maxInFlight = parallelism * 2;
+            final CompletionService<List<Game>> completion = new ExecutorCompletionService<>(pool);
+            final Deque<Future<List<Game>>> inFlight = new ArrayDeque<>();
+
+            boolean more = true;
+            while (more || !inFlight.isEmpty()) {
+                while (more && inFlight.size() < maxInFlight) {
+                    Callable<List<Game>> task = tasks.next();
+                    if (task == null) {
+                        more = false;
+                    } else {
+                        inFlight.add(ordered ? pool.submit(task) : completion.submit(task));
+                    }
+                }
+                if (inFlight.isEmpty()) {
+                    break;
+                }
+                Future<List<Game>> done;
+                if (ordered) {
+                    done = inFlight.poll();
+                } else {
+                    done = completion.take();
+                    inFlight.remove(done);
+                }
+                for (Game game : done.get()) {
+                    consumer.accept(game);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PgnException("Interrupted while loading " + path, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PgnException("Error loading " + path, e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /*
+     * gathers the next games of a compressed file, about a chunk worth of bytes, while the
+     * stream reader keeps decompressing ahead on its own thread
+     */
+    private Callable<List<Game>> nextBatch(PgnStreamReader reader) throws IOException {
+        final List<PgnRecord> batch = new ArrayList<>();
+        long bytes = 0;
+        PgnRecord record;
+        while (bytes < chunkSize && (record = reader.read()) != null) {
+            batch.add(record);
+            bytes += record.getLength();
+        }
+        return batch.isEmpty() ? null : () -> parse(batch);
+    }
+
+    private List<Game> parse(List<PgnRecord> records) {
+        List<Game> games = new ArrayList<>(records.size());
+        for (PgnRecord record : records) {
+            if (filter != null && !filter.test(record)) {
+                continue;
+            }
+            Game game = GameLoader.loadGame(record, !lazyLoad, dictionary);
+            if (game != null) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    private List<Game> parse(ByteBuffer chunk, long offset) {
+        List<Game> games = new ArrayList<>();
+        PgnScanner scanner = new PgnScanner(chunk, 0, chunk.capacity(), offset);
+        PgnRecord record;
+        while ((record = scanner.next(true)) != null) {
+            if (filter != null && !filter.test(record)) {
+                continue;
+            }
+            Game game = GameLoader.loadGame(record, !lazyLoad, dictionary);
+            if (game != null) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    /*
+     * offset of the next game at or after the given position and before the limit: the first line
+     * starting with [Event, or, when none shows up within a chunk, the first tag line following a
+     * blank line; the limit if there is neither
+     */
+    private long nextBoundary(FileChannel channel, long position, long limit) throws IOException {
+        if (position >= limit) {
+            return limit;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SEARCH_BUFFER_SIZE);
+        // two bytes before the newline are kept to recognize a blank line
+        int back = (int) Math.min(3, position);
+        long base = position - back;
+        int from = back - 1;
+        long fallback = -1;
+        while (base < limit) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), limit - base));
+            int read = channel.read(buffer, base);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = from; i + 1 + EVENT_TAG.length <= read; i++) {
+                if (buffer.get(i) != '\n') {
+                    continue;
+                }
+                if (matchesEvent(buffer, i + 1)) {
+                    return base + i + 1;
+                }
+                if (fallback < 0 && buffer.get(i + 1) == '[' && i >= 1 && (buffer.get(i - 1) == '\n' ||
+                        i >= 2 && buffer.get(i - 1) == '\r' && buffer.get(i - 2) == '\n')) {
+                    fallback = base + i + 1;
+                }
+            }
+            if (base + read >= limit || fallback >= 0 && base + read - position >= chunkSize) {
+                break;
+            }
+            // resume at the first newline not checked, so a tag across two windows is found
+            base += Math.max(1, read - EVENT_TAG.length - 2);
+            from = 2;
+        }
+        return fallback >= 0 ? fallback : limit;
+    }
+
+    private static boolean matchesEvent(ByteBuffer buffer, int index) {
+        for (int i = 0; i < EVENT_TAG.length; i++) {
+            if (buffer.get(index + i) != EVENT_TAG[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private interface TaskSource {
+        Callable<List<Game>> next() throws IOException;
+    }
+}
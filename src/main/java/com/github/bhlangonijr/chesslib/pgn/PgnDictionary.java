@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.game.GameFactory;
+import com.github.bhlangonijr.chesslib.game.Player;
+import com.github.bhlangonijr.chesslib.game.PlayerType;
+import com.github.bhlangonijr.chesslib.util.StringDictionary;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicates the values repeated across the games of a database while they are loaded: the
+ * names of players, events and sites, dates, openings and the names of the other tags are kept
+ * once in a {@link StringDictionary}, and games share a single {@link Player} per name and
+ * rating.
+ * <p>
+ * Since players are shared, changing a player of a game changes it in every game it played at
+ * the same rating. A dictionary can be shared by several loaders and threads.
+ */
+public class PgnDictionary {
+
+    private final StringDictionary strings = new StringDictionary();
+    private final ConcurrentHashMap<Long, Player> players = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the dictionary of strings.
+     *
+     * @return the strings
+     */
+    public StringDictionary getStrings() {
+        return strings;
+    }
+
+    /**
+     * Gets the single instance of the string.
+     *
+     * @param value the string, or null
+     * @return the equal string of the dictionary, or null
+     */
+    public String intern(String value) {
+        return strings.intern(value);
+    }
+
+    /**
+     * Gets the player with the given name and rating, creating it on first use.
+     *
+     * @param name the name
+     * @param elo  the elo
+     * @return the player
+     */
+    public Player getPlayer(String name, int elo) {
+        int id = strings.getId(name);
+        Long key = ((long) id << 32) | (elo & 0xFFFFFFFFL);
+        Player player = players.get(key);
+        if (player == null) {
+            String value = strings.get(id);
+            player = GameFactory.newPlayer(PlayerType.HUMAN, value);
+            player.setId(value);
+            player.setDescription(value);
+            player.setElo(elo);
+            Player existing = players.putIfAbsent(key, player);
+            if (existing != null) {
+                player = existing;
+            }
+        }
+        return player;
+    }
+
+    /**
+     * Gets the number of distinct players, counting each rating of a player apart.
+     *
+     * @return the player count
+     */
+    public int getPlayerCount() {
+        return players.size();
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+/**
+ * Receives the games skipped by a {@link PgnIterator} in error-tolerant mode, see
+ * {@link PgnIterator#setTolerant(boolean)}.
+ */
+public interface PgnErrorListener {
+
+    /**
+     * Called for each game that could not be loaded.
+     *
+     * @param offset the byte offset of the game in the input, or -1 when the games are read line
+     *               by line
+     * @param reason the reason, e.g.: the illegal move
+     * @param cause  the exception thrown while loading the game
+     */
+    void onError(long offset, String reason, Exception cause);
+}
@@ -20,12 +20,13 @@ import com.github.bhlangonijr.chesslib.game.Event;
 import com.github.bhlangonijr.chesslib.game.Game;
 import com.github.bhlangonijr.chesslib.game.Player;
 import com.github.bhlangonijr.chesslib.game.Round;
+import com.github.bhlangonijr.chesslib.util.CompressedInput;
 import com.github.bhlangonijr.chesslib.util.LargeFile;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * The type Pgn holder.
@@ -39,6 +40,8 @@ public class PgnHolder {
     private String fileName;
     private Integer size;
     private boolean lazyLoad;
+    private Predicate<PgnRecord> filter;
+    private PgnDictionary dictionary = new PgnDictionary();
 
     /**
      * Instantiates a new Pgn holder.
@@ -58,6 +61,9 @@ public class PgnHolder {
         player.clear();
         games.clear();
         listener.clear();
+        if (dictionary != null) {
+            dictionary = new PgnDictionary();
+        }
         size = 0;
     }
 
@@ -122,7 +128,51 @@ public class PgnHolder {
      * @throws Exception the exception
      */
     public void loadPgn() throws Exception {
-        loadPgn(new LargeFile(getFileName()));
+        if (CompressedInput.isGzip(Paths.get(getFileName()))) {
+            loadPgn(new PgnStreamReader(Paths.get(getFileName())));
+        } else {
+            loadPgn(new PgnReader(getFileName()));
+        }
+    }
+
+    /**
+     * Load a PGN file through a memory-mapped reader
+     *
+     * @param reader the reader of the file to be loaded
+     * @throws Exception the exception
+     */
+    public void loadPgn(PgnReader reader) throws Exception {
+
+        size = 0;
+
+        try (PgnIterator games = new PgnIterator(reader)) {
+            games.setFilter(getFilter());
+            games.setLazyLoad(isLazyLoad());
+            games.setDictionary(getDictionary());
+            for (Game game : games) {
+                addGame(game);
+            }
+        }
+    }
+
+    /**
+     * Load a PGN stream, possibly gzip compressed, decompressed on a separate thread
+     *
+     * @param reader the reader of the stream to be loaded
+     * @throws Exception the exception
+     */
+    public void loadPgn(PgnStreamReader reader) throws Exception {
+
+        size = 0;
+
+        try (PgnIterator games = new PgnIterator(reader)) {
+            games.setFilter(getFilter());
+            games.setLazyLoad(isLazyLoad());
+            games.setDictionary(getDictionary());
+            for (Game game : games) {
+                addGame(game);
+            }
+        }
     }
 
     /**
@@ -136,6 +186,7 @@ public class PgnHolder {
         size = 0;
 
         PgnIterator games = new PgnIterator(file);
+        games.setDictionary(getDictionary());
 
         try {
             for (Game game : games) {
@@ -146,6 +197,20 @@ public class PgnHolder {
         }
     }
 
+    /**
+     * Load the PGN file on several threads
+     *
+     * @param loader the parallel loader of the file, whose games are added in the order it hands
+     *               them out
+     * @throws Exception the exception
+     */
+    public void loadPgn(ParallelPgnLoader loader) throws Exception {
+
+        size = 0;
+
+        loader.load(this::addGame);
+    }
+
     /**
      * Load a PGN from a string
      *
@@ -155,6 +220,7 @@ public class PgnHolder {
 
         Iterable<String> iterable = Arrays.asList(pgn.split("\n"));
         PgnIterator games = new PgnIterator(iterable.iterator());
+        games.setDictionary(getDictionary());
         for (Game game : games) {
             addGame(game);
         }
@@ -165,23 +231,18 @@ public class PgnHolder {
      */
     public void savePgn() {
 
-        try {
-            FileWriter outFile = new FileWriter(getFileName());
-            PrintWriter out = new PrintWriter(outFile);
+        try (PgnWriter out = new PgnWriter(Paths.get(getFileName()), false)) {
             for (Event event : getEvent().values()) {
                 for (Round round : event.getRound().values()) {
                     for (Game game : round.getGame()) {
                         if (game != null) {
-                            out.println();
-                            out.print(game.toString());
-                            out.println();
+                            out.writeGame(game);
                         }
                     }
                 }
             }
-            out.close();
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new PgnException("Error saving PGN file " + getFileName(), e);
         }
 
     }
@@ -205,7 +266,9 @@ public class PgnHolder {
     }
 
     /**
-     * Sets lazy load.
+     * Sets lazy load. When set, games loaded from a file keep their movetext as compact bytes
+     * and only decode the moves on first access, so holding a whole database costs about the
+     * size of the file.
      *
      * @param lazyLoad the lazyLoad to set
      */
@@ -213,6 +276,45 @@ public class PgnHolder {
         this.lazyLoad = lazyLoad;
     }
 
+    /**
+     * Gets filter.
+     *
+     * @return the filter
+     */
+    public Predicate<PgnRecord> getFilter() {
+        return filter;
+    }
+
+    /**
+     * Sets a filter over the tags of each game loaded from a file. Rejected games are skipped
+     * before their movetext is decoded.
+     *
+     * @param filter the filter, or null to load every game
+     */
+    public void setFilter(Predicate<PgnRecord> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Gets dictionary.
+     *
+     * @return the dictionary
+     */
+    public PgnDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Sets the dictionary deduplicating the strings and players of the games loaded, so a large
+     * database holds each name once and a single player object per name and rating. Set by
+     * default, see {@link PgnDictionary}.
+     *
+     * @param dictionary the dictionary, or null to keep the strings of each game apart
+     */
+    public void setDictionary(PgnDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
     /**
      * Gets listener.
      *
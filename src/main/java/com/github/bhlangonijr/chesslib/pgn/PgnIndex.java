@@ -0,0 +1,375 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.game.GameResult;
+import com.github.bhlangonijr.chesslib.util.ByteCharSequence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A sidecar index of a PGN file, giving random access to its games. For every game the index
+ * keeps a fixed-width record with the byte offset and length of the game in the file, plus a
+ * few header fields, so any game can be located in constant time and only the requested games
+ * are ever parsed.
+ * <p>
+ * The index is written once by {@link #build(Path, Path)} and then opened with
+ * {@link #PgnIndex(Path, Path)}, which maps it in memory. Reading from an open index is thread
+ * safe.
+ */
+public class PgnIndex implements Closeable {
+
+    /**
+     * The size in bytes of the text columns: event, white and black. Longer values are cut.
+     */
+    public static final int NAME_WIDTH = 32;
+
+    private static final byte[] MAGIC = {'C', 'L', 'G', 'I'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int DATE_WIDTH = 10;
+    private static final int ECO_WIDTH = 3;
+
+    private static final int OFFSET = 0;
+    private static final int LENGTH = 8;
+    private static final int WHITE_ELO = 12;
+    private static final int BLACK_ELO = 14;
+    private static final int RESULT = 16;
+    private static final int ECO = 17;
+    private static final int DATE = ECO + ECO_WIDTH;
+    private static final int EVENT = DATE + DATE_WIDTH;
+    private static final int WHITE = EVENT + NAME_WIDTH;
+    private static final int BLACK = WHITE + NAME_WIDTH;
+    private static final int RECORD_SIZE = 128;
+
+    private static final int SEGMENT_SHIFT = 23;
+    private static final int SEGMENT_RECORDS = 1 << SEGMENT_SHIFT;
+
+    private static final GameResult[] RESULTS = GameResult.values();
+
+    private final FileChannel pgn;
+    private final ByteBuffer[] segments;
+    private final int size;
+
+    /**
+     * Opens the index of a PGN file.
+     *
+     * @param pgnFile   the pgn file
+     * @param indexFile the index file, as written by {@link #build(Path, Path)}
+     * @throws IOException if the files cannot be opened
+     * @throws PgnException if the index is invalid or the PGN file changed since it was built
+     */
+    public PgnIndex(Path pgnFile, Path indexFile) throws IOException {
+        this.pgn = FileChannel.open(pgnFile, StandardOpenOption.READ);
+        try (FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            if (index.read(header, 0) < HEADER_SIZE || !Arrays.equals(get(header, magic), MAGIC)) {
+                throw new PgnException("Not a PGN index: " + indexFile);
+            }
+            if (header.getInt() != VERSION || header.getInt() != RECORD_SIZE) {
+                throw new PgnException("Unsupported PGN index version: " + indexFile);
+            }
+            this.size = header.getInt();
+            if (header.getLong() != pgn.size() || index.size() < HEADER_SIZE + (long) size * RECORD_SIZE) {
+                throw new PgnException("PGN index is out of date: " + indexFile);
+            }
+            this.segments = new ByteBuffer[(size + SEGMENT_RECORDS - 1) >>> SEGMENT_SHIFT];
+            for (int i = 0; i < segments.length; i++) {
+                int records = Math.min(SEGMENT_RECORDS, size - (i << SEGMENT_SHIFT));
+                segments[i] = index.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + ((long) i << SEGMENT_SHIFT) * RECORD_SIZE, (long) records * RECORD_SIZE);
+            }
+        } catch (IOException | RuntimeException e) {
+            pgn.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Builds the index of a PGN file.
+     *
+     * @param pgnFile   the pgn file
+     * @param indexFile the index file, created or replaced
+     * @return the number of games indexed
+     * @throws IOException if the files cannot be read or written
+     */
+    public static int build(Path pgnFile, Path indexFile) throws IOException {
+        try (PgnReader reader = new PgnReader(pgnFile);
+             FileChannel index = FileChannel.open(indexFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 512);
+            buffer.position(HEADER_SIZE);
+            int count = 0;
+            PgnRecord record;
+            while ((record = reader.read()) != null) {
+                if (count == Integer.MAX_VALUE) {
+                    throw new PgnException("Too many games to index: " + pgnFile);
+                }
+                if (buffer.remaining() < RECORD_SIZE) {
+                    buffer.flip();
+                    write(index, buffer);
+                    buffer.clear();
+                }
+                int start = buffer.position();
+                buffer.putLong(start + OFFSET, record.getOffset());
+                buffer.putInt(start + LENGTH, record.getLength());
+                buffer.putShort(start + WHITE_ELO, (short) Math.min(0xFFFF, record.getTagAsInt("WhiteElo", 0)));
+                buffer.putShort(start + BLACK_ELO, (short) Math.min(0xFFFF, record.getTagAsInt("BlackElo", 0)));
+                ByteCharSequence result = record.getTag("Result");
+                GameResult r = result != null ? GameResult.fromNotation(result.toString()) : null;
+                buffer.put(start + RESULT, (byte) (r == null ? 0 : r.ordinal() + 1));
+                putText(buffer, start + ECO, ECO_WIDTH, record.getTag("ECO"));
+                putText(buffer, start + DATE, DATE_WIDTH, record.getTag("Date"));
+                putText(buffer, start + EVENT, NAME_WIDTH, record.getTag("Event"));
+                putText(buffer, start + WHITE, NAME_WIDTH, record.getTag("White"));
+                putText(buffer, start + BLACK, NAME_WIDTH, record.getTag("Black"));
+                buffer.position(start + RECORD_SIZE);
+                count++;
+            }
+            buffer.flip();
+            write(index, buffer);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.put(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(count).putLong(reader.size());
+            header.clear();
+            index.position(0);
+            write(index, header);
+            return count;
+        }
+    }
+
+    /**
+     * Gets the number of games in the index.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the byte offset of the game in the PGN file.
+     *
+     * @param index the game index, starting at 0
+     * @return the offset
+     */
+    public long getOffset(int index) {
+        return segment(index).getLong(position(index) + OFFSET);
+    }
+
+    /**
+     * Gets the length of the game in bytes.
+     *
+     * @param index the game index, starting at 0
+     * @return the length
+     */
+    public int getLength(int index) {
+        return segment(index).getInt(position(index) + LENGTH);
+    }
+
+    /**
+     * Gets the Elo of the white player.
+     *
+     * @param index the game index, starting at 0
+     * @return the Elo, or 0 if unknown
+     */
+    public int getWhiteElo(int index) {
+        return segment(index).getShort(position(index) + WHITE_ELO) & 0xFFFF;
+    }
+
+    /**
+     * Gets the Elo of the black player.
+     *
+     * @param index the game index, starting at 0
+     * @return the Elo, or 0 if unknown
+     */
+    public int getBlackElo(int index) {
+        return segment(index).getShort(position(index) + BLACK_ELO) & 0xFFFF;
+    }
+
+    /**
+     * Gets the result of the game.
+     *
+     * @param index the game index, starting at 0
+     * @return the result, or null if unknown
+     */
+    public GameResult getResult(int index) {
+        int result = segment(index).get(position(index) + RESULT);
+        return result == 0 ? null : RESULTS[result - 1];
+    }
+
+    /**
+     * Gets the ECO code of the game.
+     *
+     * @param index the game index, starting at 0
+     * @return the eco
+     */
+    public String getEco(int index) {
+        return getText(index, ECO, ECO_WIDTH);
+    }
+
+    /**
+     * Gets the date of the game.
+     *
+     * @param index the game index, starting at 0
+     * @return the date
+     */
+    public String getDate(int index) {
+        return getText(index, DATE, DATE_WIDTH);
+    }
+
+    /**
+     * Gets the event name, cut to {@link #NAME_WIDTH} bytes.
+     *
+     * @param index the game index, starting at 0
+     * @return the event
+     */
+    public String getEvent(int index) {
+        return getText(index, EVENT, NAME_WIDTH);
+    }
+
+    /**
+     * Gets the name of the white player, cut to {@link #NAME_WIDTH} bytes.
+     *
+     * @param index the game index, starting at 0
+     * @return the white player
+     */
+    public String getWhite(int index) {
+        return getText(index, WHITE, NAME_WIDTH);
+    }
+
+    /**
+     * Gets the name of the black player, cut to {@link #NAME_WIDTH} bytes.
+     *
+     * @param index the game index, starting at 0
+     * @return the black player
+     */
+    public String getBlack(int index) {
+        return getText(index, BLACK, NAME_WIDTH);
+    }
+
+    /**
+     * Reads the raw text of a game from the PGN file.
+     *
+     * @param index the game index, starting at 0
+     * @return the record
+     * @throws IOException if the PGN file cannot be read
+     */
+    public PgnRecord getRecord(int index) throws IOException {
+        long offset = getOffset(index);
+        ByteBuffer buffer = ByteBuffer.allocate(getLength(index));
+        while (buffer.hasRemaining()) {
+            if (pgn.read(buffer, offset + buffer.position()) < 0) {
+                throw new PgnException("PGN file is shorter than its index at game " + index);
+            }
+        }
+        PgnRecord record = new PgnScanner(buffer, 0, buffer.capacity(), offset).next(true);
+        if (record == null) {
+            throw new PgnException("No game at offset " + offset);
+        }
+        return record;
+    }
+
+    /**
+     * Reads and parses a game from the PGN file.
+     *
+     * @param index the game index, starting at 0
+     * @return the game
+     * @throws IOException if the PGN file cannot be read
+     */
+    public Game getGame(int index) throws IOException {
+        return GameLoader.loadGame(getRecord(index));
+    }
+
+    /**
+     * Closes the PGN file. The mapped index is released once unreachable.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        pgn.close();
+    }
+
+    private ByteBuffer segment(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return segments[index >>> SEGMENT_SHIFT];
+    }
+
+    private static int position(int index) {
+        return (index & (SEGMENT_RECORDS - 1)) * RECORD_SIZE;
+    }
+
+    private String getText(int index, int column, int width) {
+        ByteBuffer segment = segment(index);
+        int start = position(index) + column;
+        int length = 0;
+        while (length < width && segment.get(start + length) != 0) {
+            length++;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = segment.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * writes the value zero padded, cut at a character boundary if too long
+     */
+    private static void putText(ByteBuffer buffer, int position, int width, ByteCharSequence value) {
+        int length = 0;
+        if (value != null) {
+            byte[] bytes = GameLoader.unescape(value.toString()).getBytes(StandardCharsets.UTF_8);
+            length = Math.min(width, bytes.length);
+            if (length < bytes.length) {
+                while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+                    length--;
+                }
+            }
+            for (int i = 0; i < length; i++) {
+                buffer.put(position + i, bytes[i]);
+            }
+        }
+        for (int i = length; i < width; i++) {
+            buffer.put(position + i, (byte) 0);
+        }
+    }
+
+    private static byte[] get(ByteBuffer buffer, byte[] bytes) {
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
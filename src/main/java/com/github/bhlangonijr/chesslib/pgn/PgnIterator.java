@@ -17,28 +17,82 @@
 package com.github.bhlangonijr.chesslib.pgn;
 
 import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.move.MoveConversionException;
+import com.github.bhlangonijr.chesslib.util.CompressedInput;
 import com.github.bhlangonijr.chesslib.util.LargeFile;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The type Pgn Iterator.
  * <p>
- * The pgn iterator permits iterating over large PGN files without piling up every game in the memory
+ * The pgn iterator permits iterating over large PGN files without piling up every game in the memory.
+ * <p>
+ * In error-tolerant mode, a game that cannot be loaded is reported to the error listener and
+ * skipped, and the iteration resumes at the next game starting with an {@code [Event} tag.
  */
-public class PgnIterator implements Iterable<Game> {
+public class PgnIterator implements Iterable<Game>, AutoCloseable {
 
     private Iterator<String> pgnLines;
+    private Closeable reader;
+    private Iterator<PgnRecord> records;
+    private Predicate<PgnRecord> filter;
+    private boolean lazyLoad;
+    private PgnDictionary dictionary;
+    private boolean tolerant;
+    private PgnErrorListener errorListener;
+    private long gamesLoaded;
+    private long gamesSkipped;
+    private long illegalSanCount;
 
     /**
-     * Instantiates a new Pgn holder.
+     * Instantiates a new Pgn holder. Gzip compressed files are decompressed on the fly.
      *
      * @param filename the filename
      * @throws Exception reading the file
      */
     public PgnIterator(String filename) throws Exception {
 
-        this(new LargeFile(filename));
+        if (CompressedInput.isGzip(Paths.get(filename))) {
+            PgnStreamReader stream = new PgnStreamReader(Paths.get(filename));
+            this.reader = stream;
+            this.records = stream.iterator();
+        } else {
+            PgnReader file = new PgnReader(filename);
+            this.reader = file;
+            this.records = file.iterator();
+        }
+    }
+
+    /**
+     * Instantiates a new Pgn iterator reading the games from a memory-mapped file.
+     *
+     * @param reader the reader
+     */
+    public PgnIterator(PgnReader reader) {
+
+        this.reader = reader;
+        this.records = reader.iterator();
+    }
+
+    /**
+     * Instantiates a new Pgn iterator reading the games from a stream, possibly gzip compressed.
+     *
+     * @param reader the reader
+     */
+    public PgnIterator(PgnStreamReader reader) {
+
+        this.reader = reader;
+        this.records = reader.iterator();
     }
 
     public PgnIterator(LargeFile file) {
@@ -57,33 +111,285 @@ public class PgnIterator implements Iterable<Game> {
     }
 
 
+    /**
+     * Gets filter.
+     *
+     * @return the filter
+     */
+    public Predicate<PgnRecord> getFilter() {
+        return filter;
+    }
+
+    /**
+     * Sets a filter over the tags of each game, e.g.:
+     * {@code record -> record.getTagAsInt("WhiteElo", 0) >= 2500}. The movetext of rejected
+     * games is skipped without being decoded. Only applies when reading from a {@link PgnReader}
+     * or a {@link PgnStreamReader}.
+     *
+     * @param filter the filter, or null to accept every game
+     */
+    public void setFilter(Predicate<PgnRecord> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Is lazy load boolean.
+     *
+     * @return the lazy load
+     */
+    public boolean isLazyLoad() {
+        return lazyLoad;
+    }
+
+    /**
+     * Sets whether the moves are left undecoded until first accessed, see
+     * {@link Game#setLazyMoveText(byte[])}.
+     * Only applies when reading from a {@link PgnReader} or a {@link PgnStreamReader}.
+     *
+     * @param lazyLoad the lazy load
+     */
+    public void setLazyLoad(boolean lazyLoad) {
+        this.lazyLoad = lazyLoad;
+    }
+
+    /**
+     * Gets dictionary.
+     *
+     * @return the dictionary
+     */
+    public PgnDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Sets the dictionary deduplicating the strings and players of the games loaded, see
+     * {@link PgnDictionary}.
+     *
+     * @param dictionary the dictionary, or null to keep the strings of each game apart
+     */
+    public void setDictionary(PgnDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Is tolerant boolean.
+     *
+     * @return the tolerant
+     */
+    public boolean isTolerant() {
+        return tolerant;
+    }
+
+    /**
+     * Sets whether games that cannot be loaded are skipped rather than aborting the iteration
+     * with a {@link PgnException}. Games loaded lazily, see {@link #setLazyLoad(boolean)}, only
+     * fail when their moves are first accessed, so their movetext errors are not caught here.
+     *
+     * @param tolerant the tolerant
+     */
+    public void setTolerant(boolean tolerant) {
+        this.tolerant = tolerant;
+    }
+
+    /**
+     * Gets error listener.
+     *
+     * @return the error listener
+     */
+    public PgnErrorListener getErrorListener() {
+        return errorListener;
+    }
+
+    /**
+     * Sets the listener of the games skipped in error-tolerant mode.
+     *
+     * @param errorListener the error listener, or null
+     */
+    public void setErrorListener(PgnErrorListener errorListener) {
+        this.errorListener = errorListener;
+    }
+
+    /**
+     * Gets the number of games handed out so far.
+     *
+     * @return the games loaded
+     */
+    public long getGamesLoaded() {
+        return gamesLoaded;
+    }
+
+    /**
+     * Gets the number of games skipped so far in error-tolerant mode, including those skipped
+     * while looking for the next {@code [Event} tag. Games rejected by the filter are not counted.
+     *
+     * @return the games skipped
+     */
+    public long getGamesSkipped() {
+        return gamesSkipped;
+    }
+
+    /**
+     * Gets the number of games skipped so far because of an illegal or ambiguous move.
+     *
+     * @return the illegal san count
+     */
+    public long getIllegalSanCount() {
+        return illegalSanCount;
+    }
+
     @Override
     public Iterator<Game> iterator() {
         return new GameIterator();
     }
 
+    /**
+     * Returns a stream over the games left. Games split by a {@link PgnReader} or a
+     * {@link PgnStreamReader} are parsed by the threads of a parallel stream, see
+     * {@link PgnSpliterator}, unless in error-tolerant mode. The stream does not close the input.
+     *
+     * @param parallel whether the stream is parallel
+     * @return the stream
+     */
+    public Stream<Game> stream(boolean parallel) {
+        Spliterator<Game> spliterator = records != null && !tolerant ?
+                new PgnSpliterator(records, filter, lazyLoad, dictionary) :
+                Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, parallel);
+    }
+
+    /**
+     * Closes the file the games are read from, if it was opened by this iterator.
+     *
+     * @throws IOException if the file cannot be closed
+     */
     @Override
-    protected void finalize() throws Throwable {
-        if (pgnLines instanceof LargeFile) {
-            ((LargeFile) (pgnLines)).close();
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
         }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
         super.finalize();
     }
 
+    private void skip(long offset, RuntimeException e) {
+        if (!tolerant) {
+            throw e;
+        }
+        gamesSkipped++;
+        Throwable reason = e;
+        boolean illegalSan = false;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            illegalSan |= t instanceof MoveConversionException;
+            if (t.getMessage() != null) {
+                reason = t;
+            }
+        }
+        if (illegalSan) {
+            illegalSanCount++;
+        }
+        if (errorListener != null) {
+            errorListener.onError(offset, String.valueOf(reason.getMessage()), e);
+        }
+    }
+
+    private static boolean startsWithEvent(PgnRecord record) {
+        return record.getTagCount() > 0 && record.getTagName(0).equalsIgnoreCase("Event");
+    }
+
     private class GameIterator implements Iterator<Game> {
         private Game game;
+        private boolean done;
+        private boolean resync;
+        private String pendingLine;
 
         public boolean hasNext() {
 
-            game = GameLoader.loadNextGame(pgnLines);
-            return game != null;
+            if (game != null || done) {
+                return game != null;
+            }
+            if (records != null) {
+                while (game == null && records.hasNext()) {
+                    PgnRecord record = records.next();
+                    if (resync && !startsWithEvent(record)) {
+                        gamesSkipped++;
+                        continue;
+                    }
+                    resync = false;
+                    if (filter != null && !filter.test(record)) {
+                        continue;
+                    }
+                    try {
+                        game = GameLoader.loadGame(record, !lazyLoad, dictionary);
+                    } catch (RuntimeException e) {
+                        skip(record.getOffset(), e);
+                        resync = true;
+                    }
+                }
+            } else {
+                while (game == null) {
+                    try {
+                        game = GameLoader.loadNextGame(new LineIterator(), dictionary);
+                        break;
+                    } catch (RuntimeException e) {
+                        skip(-1L, e);
+                        resyncLines();
+                    }
+                }
+            }
+            if (game == null) {
+                done = true;
+                return false;
+            }
+            gamesLoaded++;
+            return true;
         }
 
         public Game next() {
-            return game;
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Game next = game;
+            game = null;
+            return next;
         }
 
         public void remove() {
         }
+
+        /*
+         * skips the lines up to the next one starting with an [Event tag, which is kept
+         */
+        private void resyncLines() {
+            while (pgnLines.hasNext()) {
+                String line = pgnLines.next();
+                if (line.trim().startsWith("[Event ")) {
+                    pendingLine = line;
+                    return;
+                }
+            }
+        }
+
+        /*
+         * the lines of the input, starting with the one kept by the last resync
+         */
+        private class LineIterator implements Iterator<String> {
+
+            public boolean hasNext() {
+                return pendingLine != null || pgnLines.hasNext();
+            }
+
+            public String next() {
+                if (pendingLine != null) {
+                    String line = pendingLine;
+                    pendingLine = null;
+                    return line;
+                }
+                return pgnLines.next();
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * Publishes the games of a {@link PgnIterator} to a single subscriber, following the protocol of
+ * reactive streams: the subscriber asks for games through its {@link Subscription} and is never
+ * handed more than it asked for.
+ * <p>
+ * Games are parsed on a thread of the publisher into a bounded buffer, and handed to the
+ * subscriber on another thread, so the work of the subscriber runs while the next games are
+ * parsed. Parsing stops whenever the buffer is full, i.e.: when the subscriber falls behind.
+ * The iterator is closed once all the games are published, or when the subscription is
+ * cancelled.
+ */
+public class PgnPublisher {
+
+    /**
+     * The default number of games parsed ahead of the demand.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    /**
+     * Receives the games of a {@link PgnPublisher}. The methods are called from a single thread,
+     * one at a time.
+     */
+    public interface Subscriber {
+
+        /**
+         * Called once, before any other method.
+         *
+         * @param subscription the subscription, used to ask for games
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * Called for each game asked for.
+         *
+         * @param game the game
+         */
+        void onNext(Game game);
+
+        /**
+         * Called once if a game cannot be read or parsed, or if a call to {@link #onNext(Game)}
+         * failed. No other method is called afterwards.
+         *
+         * @param error the error
+         */
+        void onError(Throwable error);
+
+        /**
+         * Called once after the last game. No other method is called afterwards.
+         */
+        void onComplete();
+    }
+
+    /**
+     * The link between a {@link PgnPublisher} and its subscriber.
+     */
+    public interface Subscription {
+
+        /**
+         * Asks for more games. The demand adds up, and {@link Long#MAX_VALUE} stands for an
+         * unbounded demand.
+         *
+         * @param n the number of games, greater than zero
+         */
+        void request(long n);
+
+        /**
+         * Stops the publishing. Games already buffered are dropped.
+         */
+        void cancel();
+    }
+
+    private final PgnIterator games;
+    private final int bufferSize;
+    private boolean subscribed;
+
+    /**
+     * Instantiates a new Pgn publisher.
+     *
+     * @param games the games
+     */
+    public PgnPublisher(PgnIterator games) {
+        this(games, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Instantiates a new Pgn publisher.
+     *
+     * @param games      the games
+     * @param bufferSize the maximum number of games parsed ahead of the demand
+     */
+    public PgnPublisher(PgnIterator games, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+        }
+        this.games = games;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Starts publishing the games to the subscriber.
+     *
+     * @param subscriber the subscriber
+     * @throws IllegalStateException if the publisher already has a subscriber
+     */
+    public synchronized void subscribe(Subscriber subscriber) {
+        if (subscribed) {
+            throw new IllegalStateException("The games are already published to another subscriber");
+        }
+        subscribed = true;
+        GameSubscription subscription = new GameSubscription(subscriber);
+        start(subscription::parse, "pgn-publisher-parser");
+        start(subscription::deliver, "pgn-publisher-delivery");
+    }
+
+    private static void start(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private class GameSubscription implements Subscription {
+        private final Subscriber subscriber;
+        private final ArrayDeque<Game> buffer = new ArrayDeque<>();
+        private long demand;
+        private boolean cancelled;
+        private boolean done;
+        private Throwable failure;
+
+        GameSubscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (n <= 0) {
+                if (failure == null) {
+                    failure = new IllegalArgumentException("Invalid demand: " + n);
+                }
+                done = true;
+                buffer.clear();
+            } else {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            buffer.clear();
+            notifyAll();
+        }
+
+        /*
+         * the loop of the parsing thread
+         */
+        void parse() {
+            try {
+                for (Game game : games) {
+                    synchronized (this) {
+                        while (buffer.size() >= bufferSize && !cancelled && !done) {
+                            wait();
+                        }
+                        if (cancelled || done) {
+                            return;
+                        }
+                        buffer.add(game);
+                        notifyAll();
+                    }
+                }
+            } catch (InterruptedException e) {
+                fail(e);
+            } catch (RuntimeException e) {
+                fail(e);
+            } finally {
+                synchronized (this) {
+                    done = true;
+                    notifyAll();
+                }
+                try {
+                    games.close();
+                } catch (IOException e) {
+                    // the games are read already
+                }
+            }
+        }
+
+        /*
+         * the loop of the delivery thread
+         */
+        void deliver() {
+            subscriber.onSubscribe(this);
+            while (true) {
+                Game game;
+                synchronized (this) {
+                    try {
+                        while (!cancelled && (buffer.isEmpty() ? !done : demand == 0)) {
+                            wait();
+                        }
+                    } catch (InterruptedException e) {
+                        cancelled = true;
+                        notifyAll();
+                        return;
+                    }
+                    if (cancelled) {
+                        return;
+                    }
+                    game = buffer.poll();
+                    if (game == null) {
+                        break;
+                    }
+                    if (demand != Long.MAX_VALUE) {
+                        demand--;
+                    }
+                    notifyAll();
+                }
+                try {
+                    subscriber.onNext(game);
+                } catch (RuntimeException e) {
+                    cancel();
+                    subscriber.onError(e);
+                    return;
+                }
+            }
+            if (failure != null) {
+                subscriber.onError(failure);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+
+        private synchronized void fail(Throwable error) {
+            if (failure == null) {
+                failure = error;
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the games of a PGN file through a memory-mapped window, splitting them straight from
+ * the bytes. The tags and movetext of each {@link PgnRecord} are views over the mapped file, so
+ * no text is decoded until it is asked for.
+ * <p>
+ * Files of any size are supported: the window is moved along the file, starting each new
+ * mapping at the first game that did not fit in the previous one.
+ */
+public class PgnReader implements Iterable<PgnRecord>, Closeable {
+
+    /**
+     * The default size of the mapped window, 256 MB.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 28;
+
+    private final FileChannel channel;
+    private final long size;
+    private int windowSize;
+    private long windowStart;
+    private MappedByteBuffer window;
+    private PgnScanner scanner;
+
+    /**
+     * Instantiates a new Pgn reader.
+     *
+     * @param fileName the file name
+     * @throws IOException if the file cannot be opened
+     */
+    public PgnReader(String fileName) throws IOException {
+        this(Paths.get(fileName));
+    }
+
+    /**
+     * Instantiates a new Pgn reader.
+     *
+     * @param path the path
+     * @throws IOException if the file cannot be opened
+     */
+    public PgnReader(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Instantiates a new Pgn reader.
+     *
+     * @param path       the path
+     * @param windowSize the size of the mapped window in bytes, grown if a single game is larger
+     * @throws IOException if the file cannot be opened
+     */
+    public PgnReader(Path path, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Invalid window size: " + windowSize);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Gets the size of the file in bytes.
+     *
+     * @return the size
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the game, or null at the end of the file
+     * @throws IOException if the file cannot be mapped
+     */
+    public PgnRecord read() throws IOException {
+        if (window == null) {
+            map(0L);
+        }
+        while (true) {
+            boolean endOfInput = windowStart + window.capacity() >= size;
+            PgnRecord record = scanner.next(endOfInput);
+            if (record != null || endOfInput) {
+                return record;
+            }
+            if (scanner.getPosition() == 0) {
+                if (windowSize == Integer.MAX_VALUE) {
+                    throw new PgnException("Game at offset " + windowStart + " is larger than 2 GB");
+                }
+                windowSize = (int) Math.min(Integer.MAX_VALUE, windowSize * 2L);
+            }
+            map(windowStart + scanner.getPosition());
+        }
+    }
+
+    /**
+     * Returns an iterator over the games left in the file. I/O errors are rethrown as
+     * {@link PgnException}.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<PgnRecord> iterator() {
+        return new RecordIterator();
+    }
+
+    /**
+     * Closes the file. Records already read stay readable.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+        scanner = new PgnScanner(window, 0, window.capacity(), start);
+    }
+
+    private class RecordIterator implements Iterator<PgnRecord> {
+        private PgnRecord record;
+        private boolean done;
+
+        public boolean hasNext() {
+            if (record == null && !done) {
+                try {
+                    record = read();
+                } catch (IOException e) {
+                    throw new PgnException("Error reading PGN file", e);
+                }
+                done = record == null;
+            }
+            return record != null;
+        }
+
+        public PgnRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            PgnRecord next = record;
+            record = null;
+            return next;
+        }
+    }
+}
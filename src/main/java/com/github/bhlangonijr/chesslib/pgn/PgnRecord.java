@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.util.ByteCharSequence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The raw text of a single PGN game: its tag pairs and its movetext, as views over the bytes
+ * they were read from, plus the position of the game in the input.
+ */
+public class PgnRecord {
+
+    private final long offset;
+    private final int length;
+    private final ByteCharSequence[] tagNames;
+    private final ByteCharSequence[] tagValues;
+    private final int tagCount;
+    private final ByteCharSequence moveText;
+
+    /**
+     * Instantiates a new Pgn record.
+     *
+     * @param offset    the byte offset of the game in the input
+     * @param length    the length of the game in bytes
+     * @param tagNames  the tag names
+     * @param tagValues the tag values, as written between the quotes
+     * @param tagCount  the number of tags
+     * @param moveText  the movetext
+     */
+    public PgnRecord(long offset, int length, ByteCharSequence[] tagNames, ByteCharSequence[] tagValues,
+                     int tagCount, ByteCharSequence moveText) {
+        this.offset = offset;
+        this.length = length;
+        this.tagNames = tagNames;
+        this.tagValues = tagValues;
+        this.tagCount = tagCount;
+        this.moveText = moveText;
+    }
+
+    /**
+     * Gets the byte offset of the game in the input.
+     *
+     * @return the offset
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the length of the game in bytes.
+     *
+     * @return the length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Gets tag count.
+     *
+     * @return the tag count
+     */
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    /**
+     * Gets tag name.
+     *
+     * @param index the index
+     * @return the tag name
+     */
+    public ByteCharSequence getTagName(int index) {
+        checkIndex(index);
+        return tagNames[index];
+    }
+
+    /**
+     * Gets tag value, as written between the quotes, i.e.: escape sequences are kept.
+     *
+     * @param index the index
+     * @return the tag value
+     */
+    public ByteCharSequence getTagValue(int index) {
+        checkIndex(index);
+        return tagValues[index];
+    }
+
+    /**
+     * Gets the value of the first tag with the given name, ignoring case.
+     *
+     * @param name the tag name
+     * @return the tag value, or null if the game has no such tag
+     */
+    public ByteCharSequence getTag(String name) {
+        for (int i = 0; i < tagCount; i++) {
+            if (tagNames[i].equalsIgnoreCase(name)) {
+                return tagValues[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the value of the first tag with the given name as an int, e.g.: WhiteElo, without
+     * decoding it into a string.
+     *
+     * @param name         the tag name
+     * @param defaultValue the value returned if the tag is missing or not a number
+     * @return the tag value
+     */
+    public int getTagAsInt(String name, int defaultValue) {
+        ByteCharSequence value = getTag(name);
+        if (value == null || value.length() == 0 || value.length() > 9) {
+            return defaultValue;
+        }
+        int result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return defaultValue;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the game has a tag with the given name and value, ignoring case.
+     *
+     * @param name  the tag name
+     * @param value the tag value
+     * @return the boolean
+     */
+    public boolean hasTag(String name, String value) {
+        ByteCharSequence tag = getTag(name);
+        return tag != null && tag.equalsIgnoreCase(value);
+    }
+
+    /**
+     * Decodes the tags into properties.
+     *
+     * @return the properties
+     */
+    public List<PgnProperty> getProperties() {
+        List<PgnProperty> properties = new ArrayList<>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            properties.add(new PgnProperty(tagNames[i].toString(), tagValues[i].toString()));
+        }
+        return properties;
+    }
+
+    /**
+     * Gets the movetext, including the game termination marker.
+     *
+     * @return the move text
+     */
+    public ByteCharSequence getMoveText() {
+        return moveText;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= tagCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Tags: " + tagCount);
+        }
+    }
+}
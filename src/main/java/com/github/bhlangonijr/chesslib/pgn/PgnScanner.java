@@ -0,0 +1,280 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.util.ByteCharSequence;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Splits a range of bytes holding PGN text into games, working on the bytes directly. A game is
+ * a run of tag pairs followed by its movetext, which ends where a line starting with a tag
+ * pair begins, outside of comments. A comment left open ends at the next line starting with
+ * {@code [Event }, so a broken game does not swallow the rest of the input.
+ * <p>
+ * When the range ends in the middle of a game, the scanner stops at the start of that game so
+ * the caller can provide more input and scan it again.
+ */
+class PgnScanner {
+
+    private static final byte[] EVENT_TAG = "[Event ".getBytes();
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final long baseOffset;
+    private int position;
+
+    private ByteCharSequence[] names = new ByteCharSequence[16];
+    private ByteCharSequence[] values = new ByteCharSequence[16];
+    private int tagCount;
+
+    /**
+     * Instantiates a new Pgn scanner.
+     *
+     * @param buffer     the buffer, only read with absolute gets
+     * @param position   the index of the first byte to scan
+     * @param limit      the index after the last byte to scan
+     * @param baseOffset the offset of the buffer start in the input
+     */
+    PgnScanner(ByteBuffer buffer, int position, int limit, long baseOffset) {
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = limit;
+        this.baseOffset = baseOffset;
+    }
+
+    /**
+     * Gets the index the next scan starts at. After an incomplete scan, this is the start of the
+     * unfinished game.
+     *
+     * @return the position
+     */
+    int getPosition() {
+        return position;
+    }
+
+    /**
+     * Scans the next game.
+     *
+     * @param endOfInput whether the range ends the input, so a game running up to the limit is
+     *                   complete
+     * @return the game, or null if there is no complete game left in the range
+     */
+    PgnRecord next(boolean endOfInput) {
+        while (true) {
+            int start = skipBlank(position);
+            if (start >= limit) {
+                position = start;
+                return null;
+            }
+            tagCount = 0;
+            int p = start;
+            int end = start;
+            while (p < limit && buffer.get(p) == '[') {
+                p = scanTag(p, endOfInput);
+                if (p < 0) {
+                    return null;
+                }
+                end = p;
+                p = skipBlank(p);
+            }
+            int textStart = p;
+            int textEnd = p;
+            boolean lineStart = false;
+            while (p < limit) {
+                byte c = buffer.get(p);
+                if (c == '[' && lineStart) {
+                    break;
+                } else if (c == '{') {
+                    p = closeComment(p + 1);
+                    if (p >= 0 && buffer.get(p) == '[') {
+                        textEnd = p - 1;
+                        break;
+                    }
+                    if (p < 0) {
+                        if (!endOfInput) {
+                            return null;
+                        }
+                        p = limit - 1;
+                    }
+                    textEnd = p + 1;
+                    lineStart = false;
+                } else if (c == ';' || c == '%' && lineStart) {
+                    p = indexOf((byte) '\n', p + 1);
+                    if (p < 0) {
+                        p = limit;
+                        textEnd = limit;
+                        break;
+                    }
+                    if (c == ';') {
+                        textEnd = p;
+                    }
+                    lineStart = true;
+                } else if (c == '\n') {
+                    lineStart = true;
+                } else if (c != ' ' && c != '\t' && c != '\r') {
+                    lineStart = false;
+                    textEnd = p + 1;
+                }
+                p++;
+            }
+            if (p >= limit && !endOfInput) {
+                return null;
+            }
+            position = p;
+            if (textEnd > textStart) {
+                end = textEnd;
+            } else {
+                textEnd = textStart;
+            }
+            if (tagCount == 0 && textEnd == textStart) {
+                continue;
+            }
+            return new PgnRecord(baseOffset + start, end - start,
+                    Arrays.copyOf(names, tagCount), Arrays.copyOf(values, tagCount), tagCount,
+                    new ByteCharSequence(buffer, textStart, textEnd - textStart));
+        }
+    }
+
+    /*
+     * scans the tag pair(s) on the line starting at p, returning the index after the last ']',
+     * or -1 if the line is incomplete
+     */
+    private int scanTag(int p, boolean endOfInput) {
+        int lineEnd = indexOf((byte) '\n', p);
+        if (lineEnd < 0) {
+            if (!endOfInput) {
+                return -1;
+            }
+            lineEnd = limit;
+        }
+        int nameStart = skipSpaces(p + 1, lineEnd);
+        int nameEnd = nameStart;
+        while (nameEnd < lineEnd && !isSpace(buffer.get(nameEnd)) &&
+                buffer.get(nameEnd) != '"' && buffer.get(nameEnd) != ']') {
+            nameEnd++;
+        }
+        int valueStart = indexOf((byte) '"', nameEnd, lineEnd);
+        int valueEnd;
+        int close;
+        if (valueStart < 0) {
+            valueStart = nameEnd;
+            valueEnd = nameEnd;
+            close = indexOf((byte) ']', nameEnd, lineEnd);
+        } else {
+            valueStart++;
+            valueEnd = valueStart;
+            while (valueEnd < lineEnd && buffer.get(valueEnd) != '"') {
+                valueEnd += buffer.get(valueEnd) == '\\' ? 2 : 1;
+            }
+            valueEnd = Math.min(valueEnd, lineEnd);
+            close = indexOf((byte) ']', valueEnd, lineEnd);
+        }
+        addTag(new ByteCharSequence(buffer, nameStart, nameEnd - nameStart),
+                new ByteCharSequence(buffer, valueStart, valueEnd - valueStart));
+        return close < 0 ? lineEnd : close + 1;
+    }
+
+    private void addTag(ByteCharSequence name, ByteCharSequence value) {
+        if (tagCount == names.length) {
+            names = Arrays.copyOf(names, tagCount * 2);
+            values = Arrays.copyOf(values, tagCount * 2);
+        }
+        names[tagCount] = name;
+        values[tagCount] = value;
+        tagCount++;
+    }
+
+    /*
+     * skips whitespace, byte order marks and escaped lines
+     */
+    private int skipBlank(int p) {
+        boolean lineStart = p == 0 || buffer.get(p - 1) == '\n';
+        while (p < limit) {
+            byte c = buffer.get(p);
+            if (c == '\n') {
+                lineStart = true;
+            } else if (c == '%' && lineStart) {
+                int lineEnd = indexOf((byte) '\n', p);
+                p = lineEnd < 0 ? limit : lineEnd;
+                continue;
+            } else if (c == UTF8_BOM[0] && p + 2 < limit &&
+                    buffer.get(p + 1) == UTF8_BOM[1] && buffer.get(p + 2) == UTF8_BOM[2]) {
+                p += 3;
+                continue;
+            } else if (!isSpace(c)) {
+                break;
+            }
+            p++;
+        }
+        return p;
+    }
+
+    private int skipSpaces(int p, int end) {
+        while (p < end && isSpace(buffer.get(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    /*
+     * index of the '}' closing a comment, of the '[' of a line starting with [Event if found
+     * first, or -1
+     */
+    private int closeComment(int from) {
+        for (int i = from; i < limit; i++) {
+            byte c = buffer.get(i);
+            if (c == '}') {
+                return i;
+            } else if (c == '\n' && matchesEvent(i + 1)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matchesEvent(int p) {
+        if (p + EVENT_TAG.length > limit) {
+            return false;
+        }
+        for (int i = 0; i < EVENT_TAG.length; i++) {
+            if (buffer.get(p + i) != EVENT_TAG[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(byte b, int from) {
+        return indexOf(b, from, limit);
+    }
+
+    private int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSpace(byte c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+}
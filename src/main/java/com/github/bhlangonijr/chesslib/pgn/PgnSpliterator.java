@@ -0,0 +1,217 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Spliterator} over the games of a PGN input, so they can be processed by a parallel
+ * stream, e.g.: {@code StreamSupport.stream(new PgnSpliterator(reader), true)}.
+ * <p>
+ * Splitting only reads the next batch of raw games from the input, which is cheap, while the
+ * games are parsed by the thread traversing the batch. Batches grow as the input is split, up to
+ * {@link #MAX_BATCH_SIZE} games.
+ */
+public class PgnSpliterator implements Spliterator<Game> {
+
+    /**
+     * The number of games of the first batch, and of the increment of the next ones.
+     */
+    public static final int BATCH_UNIT = 16;
+
+    /**
+     * The maximum number of games of a batch.
+     */
+    public static final int MAX_BATCH_SIZE = 1 << 10;
+
+    private final Iterator<PgnRecord> source;
+    private final PgnRecord[] batch;
+    private int index;
+    private final int fence;
+    private int batchSize;
+    private Predicate<PgnRecord> filter;
+    private boolean lazyLoad;
+    private PgnDictionary dictionary;
+
+    /**
+     * Instantiates a new Pgn spliterator.
+     *
+     * @param records the raw games, e.g.: a {@link PgnReader} or a {@link PgnStreamReader}
+     */
+    public PgnSpliterator(Iterable<PgnRecord> records) {
+        this(records.iterator(), null, false, null);
+    }
+
+    PgnSpliterator(Iterator<PgnRecord> source, Predicate<PgnRecord> filter, boolean lazyLoad,
+                   PgnDictionary dictionary) {
+        this.source = source;
+        this.batch = null;
+        this.fence = 0;
+        this.filter = filter;
+        this.lazyLoad = lazyLoad;
+        this.dictionary = dictionary;
+    }
+
+    private PgnSpliterator(PgnRecord[] batch, int index, int fence, PgnSpliterator parent) {
+        this.source = null;
+        this.batch = batch;
+        this.index = index;
+        this.fence = fence;
+        this.filter = parent.filter;
+        this.lazyLoad = parent.lazyLoad;
+        this.dictionary = parent.dictionary;
+    }
+
+    /**
+     * Gets filter.
+     *
+     * @return the filter
+     */
+    public Predicate<PgnRecord> getFilter() {
+        return filter;
+    }
+
+    /**
+     * Sets a filter over the tags of each game, called from the threads parsing the games. Must
+     * be set before traversing or splitting.
+     *
+     * @param filter the filter, or null to accept every game
+     */
+    public void setFilter(Predicate<PgnRecord> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Is lazy load boolean.
+     *
+     * @return the lazy load
+     */
+    public boolean isLazyLoad() {
+        return lazyLoad;
+    }
+
+    /**
+     * Sets whether the moves are left undecoded until first accessed, see
+     * {@link Game#setLazyMoveText(byte[])}. Must be set before traversing or splitting.
+     *
+     * @param lazyLoad the lazy load
+     */
+    public void setLazyLoad(boolean lazyLoad) {
+        this.lazyLoad = lazyLoad;
+    }
+
+    /**
+     * Gets dictionary.
+     *
+     * @return the dictionary
+     */
+    public PgnDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Sets the dictionary deduplicating the strings and players of the games, shared by the
+     * threads parsing them. Must be set before traversing or splitting.
+     *
+     * @param dictionary the dictionary, or null to keep the strings of each game apart
+     */
+    public void setDictionary(PgnDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Game> action) {
+        PgnRecord record;
+        while ((record = nextRecord()) != null) {
+            Game game = load(record);
+            if (game != null) {
+                action.accept(game);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Game> action) {
+        PgnRecord record;
+        while ((record = nextRecord()) != null) {
+            Game game = load(record);
+            if (game != null) {
+                action.accept(game);
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<Game> trySplit() {
+        if (source == null) {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            PgnSpliterator prefix = new PgnSpliterator(batch, index, mid, this);
+            index = mid;
+            return prefix;
+        }
+        int size = Math.min(batchSize + BATCH_UNIT, MAX_BATCH_SIZE);
+        PgnRecord[] records = new PgnRecord[size];
+        int count = 0;
+        while (count < size && source.hasNext()) {
+            records[count++] = source.next();
+        }
+        if (count == 0) {
+            return null;
+        }
+        batchSize = count;
+        return new PgnSpliterator(records, 0, count, this);
+    }
+
+    @Override
+    public long estimateSize() {
+        return source == null ? fence - index : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    private PgnRecord nextRecord() {
+        if (source == null) {
+            if (index >= fence) {
+                return null;
+            }
+            PgnRecord record = batch[index];
+            batch[index++] = null;
+            return record;
+        }
+        return source.hasNext() ? source.next() : null;
+    }
+
+    private Game load(PgnRecord record) {
+        if (filter != null && !filter.test(record)) {
+            return null;
+        }
+        return GameLoader.loadGame(record, !lazyLoad, dictionary);
+    }
+}
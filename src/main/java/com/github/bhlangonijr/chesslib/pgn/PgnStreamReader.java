@@ -0,0 +1,284 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.util.CompressedInput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads the games of a PGN stream, e.g.: a {@code .pgn.gz} archive, splitting them straight
+ * from the bytes as {@link PgnReader} does for plain files. Gzip input is detected by its magic
+ * bytes and decompressed on the fly.
+ * <p>
+ * In pipelined mode, the default, the input is read and decompressed by a separate thread into
+ * chunks of bytes handed over through a bounded queue, so decompression runs while the games
+ * are being split and parsed. The records read stay valid after later reads, thus they can be
+ * parsed by other threads, e.g.: with {@link GameLoader#loadGame(PgnRecord)}.
+ * <p>
+ * The offsets of the records are positions in the decompressed stream.
+ */
+public class PgnStreamReader implements Iterable<PgnRecord>, Closeable {
+
+    /**
+     * The default size of the chunks, 1 MB.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = CompressedInput.DEFAULT_BUFFER_SIZE;
+
+    /**
+     * The default number of decompressed chunks waiting to be split.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    private static final Chunk END = new Chunk(null, 0, null);
+
+    private final InputStream input;
+    private final int chunkSize;
+    private final BlockingQueue<Chunk> full;
+    private final BlockingQueue<byte[]> free;
+    private final Thread inflater;
+    private volatile boolean closed;
+
+    private PgnScanner scanner;
+    private byte[] buffer;
+    private long bufferOffset;
+    private boolean endOfInput;
+
+    /**
+     * Instantiates a new Pgn stream reader, pipelined with the default chunk size and queue
+     * capacity.
+     *
+     * @param path the path of the file, plain or gzip compressed
+     * @throws IOException if the file cannot be opened
+     */
+    public PgnStreamReader(Path path) throws IOException {
+        this(Files.newInputStream(path), DEFAULT_CHUNK_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Instantiates a new Pgn stream reader, pipelined with the default chunk size and queue
+     * capacity.
+     *
+     * @param input the input stream, plain or gzip compressed
+     * @throws IOException if the input cannot be read
+     */
+    public PgnStreamReader(InputStream input) throws IOException {
+        this(input, DEFAULT_CHUNK_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Instantiates a new Pgn stream reader.
+     *
+     * @param input         the input stream, plain or gzip compressed
+     * @param chunkSize     the size of the chunks read from the input and of the input buffers
+     * @param queueCapacity the number of chunks read ahead by the decompression thread, or 0 to
+     *                      read the input in the calling thread
+     * @throws IOException if the input cannot be read
+     */
+    public PgnStreamReader(InputStream input, int chunkSize, int queueCapacity) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Invalid queue capacity: " + queueCapacity);
+        }
+        this.input = CompressedInput.open(input, chunkSize);
+        this.chunkSize = chunkSize;
+        if (queueCapacity > 0) {
+            this.full = new ArrayBlockingQueue<>(queueCapacity + 1);
+            this.free = new ArrayBlockingQueue<>(queueCapacity + 1);
+            this.inflater = new Thread(this::inflate, "pgn-inflater");
+            this.inflater.setDaemon(true);
+            this.inflater.start();
+        } else {
+            this.full = null;
+            this.free = null;
+            this.inflater = null;
+        }
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the game, or null at the end of the stream
+     * @throws IOException if the input cannot be read
+     */
+    public PgnRecord read() throws IOException {
+        while (true) {
+            if (scanner != null) {
+                PgnRecord record = scanner.next(endOfInput);
+                if (record != null || endOfInput) {
+                    return record;
+                }
+            }
+            fill();
+        }
+    }
+
+    /**
+     * Returns an iterator over the games left in the stream. I/O errors are rethrown as
+     * {@link PgnException}.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<PgnRecord> iterator() {
+        return new RecordIterator();
+    }
+
+    /**
+     * Stops the decompression thread and closes the input.
+     *
+     * @throws IOException if the input cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (inflater != null) {
+            inflater.interrupt();
+        }
+        input.close();
+    }
+
+    /*
+     * appends the next chunk to the unfinished game left by the scanner, in a new buffer since
+     * the records read so far are views over the current one
+     */
+    private void fill() throws IOException {
+        int keep = 0;
+        if (scanner != null) {
+            int start = scanner.getPosition();
+            keep = buffer.length - start;
+            bufferOffset += start;
+        }
+        Chunk chunk = nextChunk();
+        byte[] next = new byte[keep + chunk.length];
+        if (keep > 0) {
+            System.arraycopy(buffer, buffer.length - keep, next, 0, keep);
+        }
+        if (chunk.length > 0) {
+            System.arraycopy(chunk.bytes, 0, next, keep, chunk.length);
+        }
+        if (free != null && chunk.bytes != null) {
+            free.offer(chunk.bytes);
+        }
+        endOfInput = chunk == END;
+        buffer = next;
+        scanner = new PgnScanner(ByteBuffer.wrap(buffer), 0, buffer.length, bufferOffset);
+    }
+
+    private Chunk nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (full == null) {
+            return readChunk(new byte[chunkSize]);
+        }
+        Chunk chunk;
+        try {
+            chunk = full.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading PGN stream");
+        }
+        if (chunk.error != null) {
+            full.offer(chunk);
+            throw chunk.error;
+        }
+        return chunk;
+    }
+
+    private Chunk readChunk(byte[] bytes) throws IOException {
+        int length = 0;
+        while (length < bytes.length) {
+            int n = input.read(bytes, length, bytes.length - length);
+            if (n < 0) {
+                break;
+            }
+            length += n;
+        }
+        return length == 0 ? END : new Chunk(bytes, length, null);
+    }
+
+    /*
+     * the loop of the decompression thread
+     */
+    private void inflate() {
+        try {
+            Chunk chunk;
+            do {
+                byte[] bytes = free.poll();
+                chunk = readChunk(bytes != null ? bytes : new byte[chunkSize]);
+                full.put(chunk);
+            } while (chunk != END && !closed);
+        } catch (InterruptedException e) {
+            // closed
+        } catch (IOException e) {
+            if (!closed) {
+                full.offer(new Chunk(null, 0, e));
+            }
+        }
+    }
+
+    private static class Chunk {
+        final byte[] bytes;
+        final int length;
+        final IOException error;
+
+        Chunk(byte[] bytes, int length, IOException error) {
+            this.bytes = bytes;
+            this.length = length;
+            this.error = error;
+        }
+    }
+
+    private class RecordIterator implements Iterator<PgnRecord> {
+        private PgnRecord record;
+        private boolean done;
+
+        public boolean hasNext() {
+            if (record == null && !done) {
+                try {
+                    record = read();
+                } catch (IOException e) {
+                    throw new PgnException("Error reading PGN stream", e);
+                }
+                done = record == null;
+            }
+            return record != null;
+        }
+
+        public PgnRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            PgnRecord next = record;
+            record = null;
+            return next;
+        }
+    }
+}
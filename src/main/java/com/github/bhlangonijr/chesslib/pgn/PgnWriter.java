@@ -0,0 +1,393 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.game.Event;
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.game.GameContext;
+import com.github.bhlangonijr.chesslib.game.GameNode;
+import com.github.bhlangonijr.chesslib.move.Move;
+import com.github.bhlangonijr.chesslib.move.MoveList;
+import com.github.bhlangonijr.chesslib.move.SanEncoder;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes games in the PGN format straight to a buffered output, one game at a time. Moves are
+ * encoded in SAN into a reused buffer while a single board follows the game, so no string
+ * holding a whole game is ever built.
+ * <p>
+ * Games read from a movetext are written from their {@link GameNode} tree, including
+ * comments, NAGs and variations unless disabled. Other games are written from their main line.
+ */
+public class PgnWriter implements Closeable, Flushable {
+
+    /**
+     * The default size of the output buffer, 64 KB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private static final int MAX_LINE_LENGTH = 79;
+
+    private final Writer out;
+    private final Board board = new Board(new GameContext(), false);
+    private final StringBuilder buffer = new StringBuilder(128);
+    private int column;
+    private boolean includeVariations = true;
+    private boolean includeComments = true;
+
+    /**
+     * Instantiates a new Pgn writer.
+     *
+     * @param writer the writer
+     */
+    public PgnWriter(Writer writer) {
+        this.out = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Instantiates a new Pgn writer encoding the text in UTF-8.
+     *
+     * @param output     the output stream
+     * @param gzip       whether the output is gzip compressed
+     * @param bufferSize the size of the output buffer
+     * @throws IOException if the gzip header cannot be written
+     */
+    public PgnWriter(OutputStream output, boolean gzip, int bufferSize) throws IOException {
+        OutputStream stream = gzip ? new GZIPOutputStream(output, bufferSize) : output;
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), bufferSize);
+    }
+
+    /**
+     * Instantiates a new Pgn writer encoding the text in UTF-8.
+     *
+     * @param channel the channel
+     * @param gzip    whether the output is gzip compressed
+     * @throws IOException if the gzip header cannot be written
+     */
+    public PgnWriter(WritableByteChannel channel, boolean gzip) throws IOException {
+        this(Channels.newOutputStream(channel), gzip, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Instantiates a new Pgn writer creating or replacing the file, encoded in UTF-8.
+     *
+     * @param path the path
+     * @param gzip whether the file is gzip compressed
+     * @throws IOException if the file cannot be created
+     */
+    public PgnWriter(Path path, boolean gzip) throws IOException {
+        this(Files.newOutputStream(path), gzip, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Is include variations boolean.
+     *
+     * @return the include variations
+     */
+    public boolean isIncludeVariations() {
+        return includeVariations;
+    }
+
+    /**
+     * Sets include variations.
+     *
+     * @param includeVariations the include variations
+     */
+    public void setIncludeVariations(boolean includeVariations) {
+        this.includeVariations = includeVariations;
+    }
+
+    /**
+     * Is include comments boolean.
+     *
+     * @return the include comments
+     */
+    public boolean isIncludeComments() {
+        return includeComments;
+    }
+
+    /**
+     * Sets whether comments and NAGs are written.
+     *
+     * @param includeComments the include comments
+     */
+    public void setIncludeComments(boolean includeComments) {
+        this.includeComments = includeComments;
+    }
+
+    /**
+     * Writes a game, followed by an empty line.
+     *
+     * @param game the game
+     * @throws IOException if the output fails
+     */
+    public void writeGame(Game game) throws IOException {
+        writeTags(game);
+        out.write('\n');
+
+        column = 0;
+        board.loadFromFen(game.getFen() != null && !game.getFen().trim().isEmpty() ?
+                game.getFen() : board.getContext().getStartFEN());
+        GameNode tree = game.getGameTree();
+        if (tree != null) {
+            if (includeComments && tree.getComment() != null) {
+                writeComment(tree.getComment());
+            }
+            writeLine(tree, true);
+        } else {
+            writeMoves(game);
+        }
+        token(game.getResult() != null ? game.getResult().getDescription() : "*");
+        out.write("\n\n");
+    }
+
+    /**
+     * Writes all the games.
+     *
+     * @param games the games
+     * @throws IOException if the output fails
+     */
+    public void writeGames(Iterable<Game> games) throws IOException {
+        for (Game game : games) {
+            writeGame(game);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Flushes and closes the output, finishing the gzip stream if any.
+     *
+     * @throws IOException if the output fails
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeTags(Game game) throws IOException {
+        Event event = game.getRound() != null ? game.getRound().getEvent() : null;
+        tag("Event", event != null ? event.getName() : null);
+        tag("Site", event != null ? event.getSite() : null);
+        tag("Date", game.getDate() != null ? game.getDate() : event != null ? event.getStartDate() : null);
+        tag("Round", game.getRound() != null ? String.valueOf(game.getRound().getNumber()) : null);
+        tag("White", game.getWhitePlayer() != null ? game.getWhitePlayer().getName() : null);
+        tag("Black", game.getBlackPlayer() != null ? game.getBlackPlayer().getName() : null);
+        tag("Result", game.getResult() != null ? game.getResult().getDescription() : "*");
+        if (game.getPlyCount() != null) {
+            tag("PlyCount", game.getPlyCount());
+        }
+        if (game.getTermination() != null) {
+            tag("Termination", game.getTermination().toString().toLowerCase());
+        }
+        if (event != null && event.getTimeControl() != null) {
+            tag("TimeControl", event.getTimeControl().toPGNString());
+        } else {
+            tag("TimeControl", "-");
+        }
+        if (game.getAnnotator() != null && !game.getAnnotator().isEmpty()) {
+            tag("Annotator", game.getAnnotator());
+        }
+        if (game.getFen() != null && !game.getFen().isEmpty()) {
+            tag("SetUp", "1");
+            tag("FEN", game.getFen());
+        }
+        if (game.getEco() != null && !game.getEco().isEmpty()) {
+            tag("ECO", game.getEco());
+        }
+        if (game.getOpening() != null && !game.getOpening().isEmpty()) {
+            tag("Opening", game.getOpening());
+        }
+        if (game.getVariation() != null && !game.getVariation().isEmpty()) {
+            tag("Variation", game.getVariation());
+        }
+        if (game.getWhitePlayer() != null && game.getWhitePlayer().getElo() > 0) {
+            tag("WhiteElo", String.valueOf(game.getWhitePlayer().getElo()));
+        }
+        if (game.getBlackPlayer() != null && game.getBlackPlayer().getElo() > 0) {
+            tag("BlackElo", String.valueOf(game.getBlackPlayer().getElo()));
+        }
+        if (game.getProperty() != null) {
+            for (Map.Entry<String, String> entry : game.getProperty().entrySet()) {
+                tag(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void tag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        if (value == null) {
+            out.write('?');
+        } else {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.write('\\');
+                }
+                out.write(c);
+            }
+        }
+        out.write("\"]\n");
+    }
+
+    /*
+     * writes the main line of a game without a move tree, with the comments and NAGs keyed by ply,
+     * or its movetext as given when the game has no moves
+     */
+    private void writeMoves(Game game) throws IOException {
+        MoveList moves = game.getHalfMoves();
+        if (moves.isEmpty() && game.getMoveText() != null) {
+            for (String word : game.getMoveText().toString().split("\\s+")) {
+                if (!word.isEmpty()) {
+                    token(word);
+                }
+            }
+            return;
+        }
+        Map<Integer, String> comments = includeComments ? game.getCommentary() : null;
+        Map<Integer, String> nags = includeComments ? game.getNag() : null;
+        boolean forceNumber = true;
+        for (int i = 0; i < moves.size(); i++) {
+            writeMove(moves.get(i), forceNumber);
+            forceNumber = false;
+            if (nags != null && nags.get(i + 1) != null) {
+                token(nags.get(i + 1));
+            }
+            if (comments != null && comments.get(i + 1) != null) {
+                writeComment(comments.get(i + 1));
+                forceNumber = true;
+            }
+        }
+    }
+
+    /*
+     * writes the main continuation from the node, with its variations, and sets the board back
+     * to the position of the node
+     */
+    private void writeLine(GameNode node, boolean forceNumber) throws IOException {
+        int played = 0;
+        GameNode child;
+        while ((child = node.getMainChild()) != null) {
+            writeMove(child.getMove(), forceNumber);
+            played++;
+            forceNumber = writeAnnotations(child);
+
+            List<GameNode> variations = includeVariations ? node.getVariations() : null;
+            if (variations != null && !variations.isEmpty()) {
+                board.undoMove();
+                for (GameNode variation : variations) {
+                    token("(");
+                    if (includeComments && variation.getStartingComment() != null) {
+                        writeComment(variation.getStartingComment());
+                    }
+                    writeMove(variation.getMove(), true);
+                    writeLine(variation, writeAnnotations(variation));
+                    board.undoMove();
+                    token(")");
+                }
+                board.doMove(child.getMove(), false);
+                forceNumber = true;
+            }
+            node = child;
+        }
+        for (int i = 0; i < played; i++) {
+            board.undoMove();
+        }
+    }
+
+    private boolean writeAnnotations(GameNode node) throws IOException {
+        if (!includeComments) {
+            return false;
+        }
+        for (String nag : node.getNags()) {
+            token(nag);
+        }
+        if (node.getComment() != null) {
+            writeComment(node.getComment());
+            return true;
+        }
+        return false;
+    }
+
+    /*
+     * writes the move number when needed and the SAN of the move, playing it on the board
+     */
+    private void writeMove(Move move, boolean forceNumber) throws IOException {
+        buffer.setLength(0);
+        if (board.getSideToMove() == Side.WHITE) {
+            buffer.append(board.getMoveCounter()).append('.');
+            token(buffer);
+        } else if (forceNumber) {
+            buffer.append(board.getMoveCounter()).append("...");
+            token(buffer);
+        }
+        buffer.setLength(0);
+        SanEncoder.encode(board, move, buffer);
+        token(buffer);
+    }
+
+    /*
+     * writes the comment word by word, so long comments are wrapped as well
+     */
+    private void writeComment(String comment) throws IOException {
+        buffer.setLength(0);
+        buffer.append('{');
+        int length = comment.length();
+        for (int i = 0; i < length; i++) {
+            char c = comment.charAt(i);
+            if (c == ' ' || c == '\n') {
+                if (buffer.length() > 0) {
+                    token(buffer);
+                    buffer.setLength(0);
+                }
+            } else {
+                buffer.append(c == '}' ? ']' : c);
+            }
+        }
+        buffer.append('}');
+        token(buffer);
+    }
+
+    private void token(CharSequence token) throws IOException {
+        int length = token.length();
+        if (column > 0 && column + 1 + length > MAX_LINE_LENGTH) {
+            out.write('\n');
+            column = 0;
+        } else if (column > 0) {
+            out.write(' ');
+            column++;
+        }
+        out.append(token);
+        column += length;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+/**
+ * A game reaching a position, found by a {@link PositionIndex}.
+ */
+public class PositionHit {
+
+    private final int gameId;
+    private final int ply;
+
+    /**
+     * Instantiates a new Position hit.
+     *
+     * @param gameId the index of the game in the PGN file, starting at 0
+     * @param ply    the number of moves played to reach the position
+     */
+    public PositionHit(int gameId, int ply) {
+        this.gameId = gameId;
+        this.ply = ply;
+    }
+
+    /**
+     * Gets the index of the game in the PGN file, starting at 0, as used by {@link PgnIndex}.
+     *
+     * @return the game id
+     */
+    public int getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Gets the number of moves played to reach the position.
+     *
+     * @return the ply
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PositionHit) {
+            PositionHit hit = (PositionHit) obj;
+            return hit.gameId == gameId && hit.ply == ply;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return gameId * 31 + ply;
+    }
+
+    @Override
+    public String toString() {
+        return "game " + gameId + ", ply " + ply;
+    }
+}
@@ -0,0 +1,531 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.game.GameContext;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * An index of the positions reached in the games of a PGN file, answering which games went
+ * through a given position. For every position of the main line of every game, the index holds
+ * a posting with the hash key of the position, see {@link Board#getIncrementalHashKey()}, the
+ * index of the game in the file and the ply, sorted by hash key so a position is found by a
+ * binary search over the memory-mapped file.
+ * <p>
+ * Hash keys may collide, so the games found for a {@link Board} or a FEN are replayed through
+ * a {@link PgnIndex} of the same PGN file and kept only if they really reach the position.
+ * <p>
+ * The index is built by {@link #build(Path, Path, int, int)}, replaying batches of games in
+ * parallel into sorted run files which are merged at the end. The runs are kept in a work
+ * directory next to the index until the build completes, so an interrupted build resumes from
+ * the batches already done.
+ */
+public class PositionIndex implements Closeable {
+
+    /**
+     * The default number of games replayed by each task of the build.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 16384;
+
+    private static final byte[] MAGIC = {'C', 'L', 'P', 'I'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int ENTRY_SIZE = 16;
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_ENTRIES = 1L << SEGMENT_SHIFT;
+
+    private static final Comparator<Run> RUN_ORDER = (a, b) -> {
+        int c = Long.compare(a.key, b.key);
+        return c != 0 ? c : Long.compare(a.value, b.value);
+    };
+
+    private final PgnIndex games;
+    private final ByteBuffer[] segments;
+    private final long size;
+
+    /**
+     * Opens a position index.
+     *
+     * @param indexFile the index file, as written by {@link #build(Path, Path, int, int)}
+     * @param games     the index of the PGN file the positions were read from, used to rule out
+     *                  hash collisions, or null to return every game matching the hash key
+     * @throws IOException if the file cannot be opened
+     */
+    public PositionIndex(Path indexFile, PgnIndex games) throws IOException {
+        this.games = games;
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            if (channel.read(header, 0) < HEADER_SIZE) {
+                throw new PgnException("Not a position index: " + indexFile);
+            }
+            header.flip();
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new PgnException("Not a position index: " + indexFile);
+            }
+            if (header.getInt() != VERSION || header.getInt() != ENTRY_SIZE) {
+                throw new PgnException("Unsupported position index version: " + indexFile);
+            }
+            this.size = header.getLong();
+            if (channel.size() < HEADER_SIZE + size * ENTRY_SIZE) {
+                throw new PgnException("Truncated position index: " + indexFile);
+            }
+            this.segments = new ByteBuffer[(int) ((size + SEGMENT_ENTRIES - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * ENTRY_SIZE,
+                        Math.min(SEGMENT_ENTRIES, size - first) * ENTRY_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Builds the position index of a PGN file using all the available processors.
+     *
+     * @param pgnFile   the pgn file
+     * @param indexFile the index file, created or replaced
+     * @return the number of postings
+     * @throws IOException if the files cannot be read or written
+     */
+    public static long build(Path pgnFile, Path indexFile) throws IOException {
+        return build(pgnFile, indexFile, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Builds the position index of a PGN file. Games with an illegal move are indexed up to that
+     * move.
+     * <p>
+     * A build interrupted by an error or a crash is resumed by calling this method again with
+     * the same batch size, as long as the PGN file did not change.
+     *
+     * @param pgnFile     the pgn file
+     * @param indexFile   the index file, created or replaced
+     * @param parallelism the number of threads replaying the games
+     * @param batchSize   the number of games replayed by each task, which is also the unit of
+     *                    work saved for resuming
+     * @return the number of postings
+     * @throws IOException if the files cannot be read or written
+     */
+    public static long build(Path pgnFile, Path indexFile, int parallelism, int batchSize) throws IOException {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        Path work = indexFile.resolveSibling(indexFile.getFileName() + ".work");
+        prepareWork(work, Files.size(pgnFile), batchSize);
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        ThreadLocal<MainLineReplayer> replayers = ThreadLocal.withInitial(MainLineReplayer::new);
+        Semaphore permits = new Semaphore(parallelism * 2);
+        List<Future<?>> tasks = new ArrayList<>();
+        int batches = 0;
+        try (PgnReader reader = new PgnReader(pgnFile)) {
+            int gameId = 0;
+            List<PgnRecord> records = new ArrayList<>();
+            PgnRecord record;
+            while (true) {
+                record = reader.read();
+                if (record != null) {
+                    records.add(record);
+                }
+                if (records.size() == batchSize || record == null && !records.isEmpty()) {
+                    Path run = run(work, batches++);
+                    if (!Files.exists(run)) {
+                        permits.acquire();
+                        List<PgnRecord> batch = records;
+                        int firstId = gameId;
+                        tasks.add(executor.submit(() -> {
+                            try {
+                                writeRun(run, index(batch, firstId, replayers.get()));
+                            } finally {
+                                permits.release();
+                            }
+                            return null;
+                        }));
+                    }
+                    gameId += records.size();
+                    records = new ArrayList<>();
+                }
+                if (record == null) {
+                    break;
+                }
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Position index build interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new PgnException("Error building the position index of " + pgnFile, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long count = merge(work, batches, indexFile);
+        try (Stream<Path> files = Files.list(work)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(work);
+        return count;
+    }
+
+    /**
+     * Gets the number of postings.
+     *
+     * @return the size
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Finds the games reaching a position with the given hash key, with no check for hash
+     * collisions.
+     *
+     * @param key the hash key, see {@link Board#getIncrementalHashKey()}
+     * @return the games and plies, sorted by game
+     */
+    public List<PositionHit> find(long key) {
+        List<PositionHit> hits = new ArrayList<>();
+        for (long i = lowerBound(key); i < size && key(i) == key; i++) {
+            ByteBuffer segment = segments[(int) (i >>> SEGMENT_SHIFT)];
+            int position = position(i);
+            hits.add(new PositionHit(segment.getInt(position + 8), segment.getInt(position + 12)));
+        }
+        return hits;
+    }
+
+    /**
+     * Finds the games reaching the position on the board.
+     *
+     * @param board the board
+     * @return the games and plies, sorted by game
+     * @throws IOException if the PGN file cannot be read
+     */
+    public List<PositionHit> find(Board board) throws IOException {
+        List<PositionHit> hits = find(board.getIncrementalHashKey());
+        if (games == null || hits.isEmpty()) {
+            return hits;
+        }
+        MainLineReplayer replayer = new MainLineReplayer();
+        List<PositionHit> verified = new ArrayList<>(hits.size());
+        for (PositionHit hit : hits) {
+            if (reaches(replayer, games.getRecord(hit.getGameId()), hit.getPly(), board)) {
+                verified.add(hit);
+            }
+        }
+        return verified;
+    }
+
+    /**
+     * Finds the games reaching the position.
+     *
+     * @param fen the position in FEN
+     * @return the games and plies, sorted by game
+     * @throws IOException if the PGN file cannot be read
+     */
+    public List<PositionHit> find(String fen) throws IOException {
+        Board board = new Board(new GameContext(), false, true);
+        board.loadFromFen(fen);
+        return find(board);
+    }
+
+    /**
+     * Releases the index. The mapped file is unmapped once unreachable.
+     */
+    @Override
+    public void close() {
+        Arrays.fill(segments, null);
+    }
+
+    private long key(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].getLong(position(index));
+    }
+
+    private static int position(long index) {
+        return (int) (index & (SEGMENT_ENTRIES - 1)) * ENTRY_SIZE;
+    }
+
+    private long lowerBound(long key) {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (key(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean reaches(MainLineReplayer replayer, PgnRecord record, int ply, Board position) {
+        try {
+            if (ply == 0) {
+                return samePosition(replayer.start(record), position);
+            }
+            boolean[] found = new boolean[1];
+            replayer.replay(record, (board, p, move) -> {
+                if (p < ply) {
+                    return true;
+                }
+                found[0] = samePosition(board, position);
+                return false;
+            });
+            return found[0];
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /*
+     * compares the pieces, side to move and castle rights, leaving the en passant square to the
+     * hash key, which only accounts for it when a capture is possible
+     */
+    private static boolean samePosition(Board a, Board b) {
+        for (Piece piece : Piece.allPieces) {
+            if (piece != Piece.NONE && a.getBitboard(piece) != b.getBitboard(piece)) {
+                return false;
+            }
+        }
+        return a.getSideToMove() == b.getSideToMove() &&
+                a.getCastleRight(Side.WHITE) == b.getCastleRight(Side.WHITE) &&
+                a.getCastleRight(Side.BLACK) == b.getCastleRight(Side.BLACK) &&
+                a.getIncrementalHashKey() == b.getIncrementalHashKey();
+    }
+
+    private static Postings index(List<PgnRecord> records, int firstId, MainLineReplayer replayer) {
+        Postings postings = new Postings(records.size() * 80);
+        for (int i = 0; i < records.size(); i++) {
+            int gameId = firstId + i;
+            PgnRecord record = records.get(i);
+            try {
+                postings.add(replayer.start(record).getIncrementalHashKey(), gameId, 0);
+                replayer.replay(record, (board, ply, move) -> {
+                    postings.add(board.getIncrementalHashKey(), gameId, ply);
+                    return true;
+                });
+            } catch (RuntimeException e) {
+                // keeps the positions reached before the illegal move
+            }
+        }
+        postings.sort();
+        return postings;
+    }
+
+    /*
+     * creates the work directory, clearing the runs left by the build of another version of the
+     * PGN file
+     */
+    private static void prepareWork(Path work, long pgnSize, int batchSize) throws IOException {
+        Files.createDirectories(work);
+        Path source = work.resolve("source");
+        String expected = pgnSize + " " + batchSize;
+        if (Files.exists(source) &&
+                expected.equals(new String(Files.readAllBytes(source), StandardCharsets.US_ASCII))) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(work)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.write(source, expected.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Path run(Path work, int batch) {
+        return work.resolve("run-" + batch);
+    }
+
+    /*
+     * writes the run under a temporary name, so only complete runs are found when resuming
+     */
+    private static void writeRun(Path run, Postings postings) throws IOException {
+        Path tmp = run.resolveSibling(run.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            for (int i = 0; i < postings.size; i++) {
+                out.writeLong(postings.keys[i]);
+                out.writeLong(postings.values[i]);
+            }
+        }
+        Files.move(tmp, run, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long merge(Path work, int batches, Path indexFile) throws IOException {
+        long count = 0;
+        for (int i = 0; i < batches; i++) {
+            count += Files.size(run(work, i)) / ENTRY_SIZE;
+        }
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        PriorityQueue<Run> queue = new PriorityQueue<>(Math.max(1, batches), RUN_ORDER);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tmp), 1 << 16))) {
+            for (int i = 0; i < batches; i++) {
+                Run run = new Run(run(work, i));
+                if (run.next()) {
+                    queue.add(run);
+                }
+            }
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(ENTRY_SIZE);
+            out.writeLong(count);
+            out.write(new byte[HEADER_SIZE - MAGIC.length - 16]);
+            Run run;
+            while ((run = queue.poll()) != null) {
+                out.writeLong(run.key);
+                out.writeLong(run.value);
+                if (run.next()) {
+                    queue.add(run);
+                }
+            }
+        } finally {
+            for (Run run : queue) {
+                run.in.close();
+            }
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /*
+     * the postings of a batch, the game id and ply packed into a single value
+     */
+    private static class Postings {
+
+        long[] keys;
+        long[] values;
+        int size;
+
+        Postings(int capacity) {
+            keys = new long[capacity];
+            values = new long[capacity];
+        }
+
+        void add(long key, int gameId, int ply) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = ((long) gameId << 32) | (ply & 0xFFFFFFFFL);
+            size++;
+        }
+
+        void sort() {
+            sort(0, size - 1);
+        }
+
+        private void sort(int low, int high) {
+            while (high - low > 16) {
+                int mid = (low + high) >>> 1;
+                long pivotKey = keys[mid];
+                long pivotValue = values[mid];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (less(keys[i], values[i], pivotKey, pivotValue)) {
+                        i++;
+                    }
+                    while (less(pivotKey, pivotValue, keys[j], values[j])) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                if (j - low < high - i) {
+                    sort(low, j);
+                    low = i;
+                } else {
+                    sort(i, high);
+                    high = j;
+                }
+            }
+            for (int i = low + 1; i <= high; i++) {
+                for (int j = i; j > low && less(keys[j], values[j], keys[j - 1], values[j - 1]); j--) {
+                    swap(j, j - 1);
+                }
+            }
+        }
+
+        private static boolean less(long key1, long value1, long key2, long value2) {
+            return key1 < key2 || key1 == key2 && value1 < value2;
+        }
+
+        private void swap(int i, int j) {
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            long value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /*
+     * a cursor over a sorted run file
+     */
+    private static class Run {
+
+        final DataInputStream in;
+        long remaining;
+        long key;
+        long value;
+
+        Run(Path file) throws IOException {
+            this.remaining = Files.size(file) / ENTRY_SIZE;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 14));
+        }
+
+        boolean next() throws IOException {
+            if (remaining == 0) {
+                in.close();
+                return false;
+            }
+            remaining--;
+            key = in.readLong();
+            value = in.readLong();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A read-only char sequence view over a range of bytes, without copying them.
+ * <p>
+ * Each byte is exposed as one char, which is exact for ASCII text such as PGN tags names and SAN
+ * moves. Multi-byte UTF-8 sequences, e.g.: player names or comments, are only decoded by
+ * {@link #toString()}.
+ */
+public final class ByteCharSequence implements CharSequence {
+
+    /**
+     * The empty sequence.
+     */
+    public static final ByteCharSequence EMPTY = new ByteCharSequence(ByteBuffer.allocate(0), 0, 0);
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Instantiates a new Byte char sequence. Only absolute reads are made on the buffer, so its
+     * position and limit are left untouched.
+     *
+     * @param buffer the buffer
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     */
+    public ByteCharSequence(ByteBuffer buffer, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.capacity()) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Instantiates a new Byte char sequence over a byte array.
+     *
+     * @param bytes the bytes
+     */
+    public ByteCharSequence(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    /**
+     * Gets the byte at the given index.
+     *
+     * @param index the index
+     * @return the byte
+     */
+    public byte byteAt(int index) {
+        return buffer.get(offset + index);
+    }
+
+    @Override
+    public ByteCharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new ByteCharSequence(buffer, offset + start, end - start);
+    }
+
+    /**
+     * Returns true if every byte is a 7-bit ASCII char.
+     *
+     * @return the boolean
+     */
+    public boolean isAscii() {
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the sequence has the same chars as the given text, ignoring case.
+     *
+     * @param text the text
+     * @return the boolean
+     */
+    public boolean equalsIgnoreCase(CharSequence text) {
+        if (text.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = (char) (buffer.get(offset + i) & 0xFF);
+            char d = text.charAt(i);
+            if (c != d && Character.toLowerCase(c) != Character.toLowerCase(d)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the bytes into a new array.
+     *
+     * @return the bytes
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Decodes the bytes as UTF-8. Bytes that are not valid UTF-8, e.g.: Latin-1 text, are decoded
+     * one char per byte.
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        byte[] bytes = toByteArray();
+        if (isAscii()) {
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        if (text.indexOf('\uFFFD') >= 0) {
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        return text;
+    }
+}
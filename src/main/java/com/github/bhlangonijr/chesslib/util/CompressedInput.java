@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens input that may be gzip compressed, telling it apart by its first two bytes rather than
+ * by the file name.
+ */
+public final class CompressedInput {
+
+    /**
+     * The default size of the input buffers, 1 MB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    private CompressedInput() {
+    }
+
+    /**
+     * Returns true if the file starts with the gzip magic bytes.
+     *
+     * @param path the path
+     * @return the boolean
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isGzip(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        }
+    }
+
+    /**
+     * Wraps the input into a buffered stream, decompressing it if it starts with the gzip magic
+     * bytes.
+     *
+     * @param input      the input stream
+     * @param bufferSize the size of the buffers
+     * @return the stream of the plain bytes
+     * @throws IOException if the input cannot be read
+     */
+    public static InputStream open(InputStream input, int bufferSize) throws IOException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+        }
+        BufferedInputStream in = new BufferedInputStream(input, bufferSize);
+        in.mark(2);
+        boolean gzip = in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        in.reset();
+        return gzip ? new BufferedInputStream(new GZIPInputStream(in, bufferSize), bufferSize) : in;
+    }
+
+    /**
+     * Opens a file, decompressing it if it starts with the gzip magic bytes.
+     *
+     * @param path       the path
+     * @param bufferSize the size of the buffers
+     * @return the stream of the plain bytes
+     * @throws IOException if the file cannot be read
+     */
+    public static InputStream open(Path path, int bufferSize) throws IOException {
+        InputStream input = Files.newInputStream(path);
+        try {
+            return open(input, bufferSize);
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+}
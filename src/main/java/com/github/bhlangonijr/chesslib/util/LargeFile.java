@@ -17,25 +17,51 @@
 package com.github.bhlangonijr.chesslib.util;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.Iterator;
 
 /**
  * The type Large file.
+ * <p>
+ * Reads a text file line by line, in UTF-8 unless told otherwise. Gzip compressed input is
+ * detected by its magic bytes and decompressed on the fly. PGN files are read faster with
+ * {@link com.github.bhlangonijr.chesslib.pgn.PgnReader}, or with
+ * {@link com.github.bhlangonijr.chesslib.pgn.PgnStreamReader} when compressed.
  */
 public class LargeFile implements Iterable<String> {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
     private BufferedReader reader;
 
     /**
-     * Instantiates a new Large file.
+     * Instantiates a new Large file, with buffers of 8 KB.
      *
      * @param filePath the file path
      * @throws Exception the exception
      */
     public LargeFile(String filePath) throws Exception {
-        reader = new BufferedReader(new FileReader(filePath));
+        this(filePath, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Instantiates a new Large file. Large buffers, e.g.:
+     * {@link CompressedInput#DEFAULT_BUFFER_SIZE}, speed up reading big files at the cost of
+     * memory held by each instance.
+     *
+     * @param filePath   the file path
+     * @param charset    the charset of the text
+     * @param bufferSize the size of the buffers
+     * @throws IOException if the file cannot be opened
+     */
+    public LargeFile(String filePath, Charset charset, int bufferSize) throws IOException {
+        reader = new BufferedReader(new InputStreamReader(
+                CompressedInput.open(Paths.get(filePath), bufferSize), charset), bufferSize);
     }
 
     /**
@@ -44,7 +70,20 @@ public class LargeFile implements Iterable<String> {
      * @param inputStream the input stream
      */
     public LargeFile(InputStream inputStream) {
-        reader = new BufferedReader(new InputStreamReader(inputStream));
+        reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Instantiates a new Large file, decompressing the input if gzip compressed.
+     *
+     * @param inputStream the input stream
+     * @param charset     the charset of the text
+     * @param bufferSize  the size of the buffers
+     * @throws IOException if the input cannot be read
+     */
+    public LargeFile(InputStream inputStream, Charset charset, int bufferSize) throws IOException {
+        reader = new BufferedReader(new InputStreamReader(
+                CompressedInput.open(inputStream, bufferSize), charset), bufferSize);
     }
 
     /**
@@ -67,9 +106,8 @@ public class LargeFile implements Iterable<String> {
         public boolean hasNext() {
             try {
                 currentLine = reader.readLine();
-            } catch (Exception ex) {
-                currentLine = null;
-                ex.printStackTrace();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
             }
 
             return currentLine != null;
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps strings to dense int ids and back, keeping a single instance of each distinct string.
+ * Ids are given in order of first appearance, starting at 0, and never change.
+ * <p>
+ * Safe for use by several threads; lookups of known strings do not lock.
+ */
+public final class StringDictionary {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] strings = new String[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Gets the id of the string, adding it if unknown.
+     *
+     * @param value the string
+     * @return the id
+     */
+    public int getId(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : add(value);
+    }
+
+    /**
+     * Gets the id of the string, without adding it.
+     *
+     * @param value the string
+     * @return the id, or -1 if unknown
+     */
+    public int find(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Gets the string with the given id.
+     *
+     * @param id the id
+     * @return the string
+     * @throws IndexOutOfBoundsException if there is no such id
+     */
+    public String get(int id) {
+        String[] values = strings;
+        if (id < 0 || id >= values.length || values[id] == null) {
+            throw new IndexOutOfBoundsException("Id: " + id);
+        }
+        return values[id];
+    }
+
+    /**
+     * Gets the single instance of the string held by the dictionary, adding it if unknown.
+     *
+     * @param value the string, or null
+     * @return the equal string of the dictionary, or null
+     */
+    public String intern(String value) {
+        return value == null ? null : get(getId(value));
+    }
+
+    /**
+     * Gets the number of distinct strings.
+     *
+     * @return the size
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    private synchronized int add(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (size == strings.length) {
+            strings = Arrays.copyOf(strings, size * 2);
+        }
+        strings[size] = value;
+        ids.put(value, size);
+        return size++;
+    }
+}
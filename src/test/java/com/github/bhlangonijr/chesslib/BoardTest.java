@@ -1,5 +1,6 @@
 package com.github.bhlangonijr.chesslib;
 
+import com.github.bhlangonijr.chesslib.game.GameContext;
 import com.github.bhlangonijr.chesslib.move.Move;
 import com.github.bhlangonijr.chesslib.move.MoveConversionException;
 import com.github.bhlangonijr.chesslib.move.MoveGeneratorException;
@@ -787,5 +788,90 @@ public class BoardTest {
         assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", board.getFen());
     }
 
+    @Test
+    public void testCountLegalMoves() {
+
+        String[] fens = {
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                "8/8/8/2k5/2pP4/8/B7/4K3 b - d3 0 3",
+                "8/8/3k4/8/1K1Pp2r/8/8/8 b - d3 0 1",
+                "4k3/8/8/8/1b6/2N5/8/4K1N1 w - - 0 1",
+                "3k4/3r4/8/8/3B4/8/3K4/8 w - - 0 1",
+                "8/2k5/8/8/8/8/6q1/K7 w - - 0 1",
+                "r3k3/1P6/8/8/8/8/8/4K2R w K - 0 1",
+        };
+        Board board = new Board();
+        for (String fen : fens) {
+            board.loadFromFen(fen);
+            List<Move> moves = board.legalMoves();
+            assertEquals(fen, moves.size(), board.countLegalMoves());
+            for (PieceType type : PieceType.values()) {
+                if (type == PieceType.NONE) {
+                    continue;
+                }
+                long expected = moves.stream()
+                        .filter(m -> board.getPiece(m.getFrom()).getPieceType() == type)
+                        .count();
+                assertEquals(fen + " " + type, expected, board.countLegalMoves(type));
+            }
+        }
+    }
+
+    @Test
+    public void testCountLegalMovesAlongGame() throws MoveConversionException {
+
+        MoveList list = new MoveList();
+        list.loadFromSan("1.e4 c5 2.Nf3 d6 3.d4 cxd4 4.Nxd4 Nf6 5.Nc3 a6 6.Bc4 Nbd7 7.O-O " +
+                "g6 8.a3 Bg7 9.Ba2 O-O 10.Be3 Ne5 11.Bg5 h6 12.Bxf6 Bxf6 13.Nd5 " +
+                "Bg7 14.c3 Nc6 15.Nc2 e6 16.Nde3 b5 17.Qd2 Bb7 18.Rad1 Qb6 19.Kh1 " +
+                "Ne7 20.Qxd6 Qxd6 21.Rxd6 Bxe4 22.f3 Nc8 23.Rd2 Bb7 24.Rfd1 Nb6");
+        Board board = new Board();
+        for (Move move : list) {
+            assertEquals(board.getFen(), board.legalMoves().size(), board.countLegalMoves());
+            board.doMove(move);
+        }
+    }
+
+    @Test
+    public void testForwardOnlyPlayAll() throws MoveConversionException {
 
-}
\ No newline at end of file
+        MoveList list = new MoveList();
+        list.loadFromSan("1.e4 d5 2.e5 f5 3.exf6 Nxf6 4.Nf3 e6 5.Bb5+ c6 6.O-O cxb5 " +
+                "7.d4 Bd6 8.c4 O-O 9.cxb5 Qc7 10.b6 Nc6 11.bxc7 a6 12.cxd8=Q");
+        Board board = new Board();
+        long[] expected = new long[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            board.doMove(list.get(i));
+            expected[i] = board.getIncrementalHashKey();
+        }
+
+        Board forward = new Board(new GameContext(), true, true);
+        assertArrayEquals(expected, forward.playAllHashes(Move.toPacked(list)));
+        assertEquals(board.getFen(), forward.getFen());
+        assertTrue(forward.getHistory().isEmpty());
+        assertTrue(forward.getBackup().isEmpty());
+
+        Board forward2 = new Board(new GameContext(), true, true);
+        assertEquals(board.getIncrementalHashKey(), forward2.playAll(Move.toPacked(list)));
+        assertEquals(board.getZobristKey(), forward2.getZobristKey());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testForwardOnlyUndo() {
+
+        Board board = new Board(new GameContext(), false, true);
+        board.doMove(new Move(Square.E2, Square.E4));
+        board.undoMove();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPlayAllIllegalMove() {
+
+        Board board = new Board(new GameContext(), false, true);
+        board.playAll(new int[]{Move.of(Square.E2, Square.E4).toPacked(), Move.of(Square.E2, Square.E4).toPacked()});
+    }
+}
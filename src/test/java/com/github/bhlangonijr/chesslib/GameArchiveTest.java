@@ -0,0 +1,88 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.pgn.GameArchiveReader;
+import com.github.bhlangonijr.chesslib.pgn.GameArchiveWriter;
+import com.github.bhlangonijr.chesslib.pgn.PgnException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.bhlangonijr.chesslib.PgnTestUtil.load;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The type Game archive test.
+ */
+public class GameArchiveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+
+        String pgn = "src/test/resources/linares_2002.pgn";
+        File archive = folder.newFile("linares_2002.bin");
+        long count = GameArchiveWriter.convert(pgn, archive.toPath());
+
+        List<Game> expected = load(pgn);
+        assertEquals(expected.size(), count);
+        assertTrue(archive.length() * 5 < new File(pgn).length());
+
+        List<Game> actual = new ArrayList<>();
+        try (GameArchiveReader reader = new GameArchiveReader(archive.toPath())) {
+            for (Game game : reader) {
+                actual.add(game);
+            }
+        }
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Game e = expected.get(i);
+            Game a = actual.get(i);
+            assertEquals(e.getRound().getEvent().getName(), a.getRound().getEvent().getName());
+            assertEquals(e.getRound().getEvent().getSite(), a.getRound().getEvent().getSite());
+            assertEquals(e.getRound().getNumber(), a.getRound().getNumber());
+            assertEquals(e.getDate(), a.getDate());
+            assertEquals(e.getWhitePlayer().getName(), a.getWhitePlayer().getName());
+            assertEquals(e.getBlackPlayer().getName(), a.getBlackPlayer().getName());
+            assertEquals(e.getWhitePlayer().getElo(), a.getWhitePlayer().getElo());
+            assertEquals(e.getBlackPlayer().getElo(), a.getBlackPlayer().getElo());
+            assertEquals(e.getResult(), a.getResult());
+            assertEquals(e.getEco(), a.getEco());
+            assertEquals(e.getProperty(), a.getProperty());
+            assertEquals(e.getHalfMoves(), a.getHalfMoves());
+            assertEquals(e.getHalfMoves().toSan(), a.getHalfMoves().toSan());
+            assertEquals(String.valueOf(i), a.getGameId());
+        }
+        assertSame(actual.get(0).getRound().getEvent().getName(), actual.get(1).getRound().getEvent().getName());
+    }
+
+    @Test
+    public void testStartingPosition() throws Exception {
+
+        String pgn = "src/test/resources/teststartpos.pgn";
+        File archive = folder.newFile("teststartpos.bin");
+        GameArchiveWriter.convert(pgn, archive.toPath());
+
+        Game expected = load(pgn).get(0);
+        try (GameArchiveReader reader = new GameArchiveReader(archive.toPath())) {
+            Game actual = reader.read();
+            assertEquals(expected.getFen(), actual.getFen());
+            assertEquals(expected.getHalfMoves().toSan(), actual.getHalfMoves().toSan());
+            assertEquals(null, reader.read());
+        }
+    }
+
+    @Test(expected = PgnException.class)
+    public void testInvalidArchive() throws Exception {
+        new GameArchiveReader(new ByteArrayInputStream("[Event \"?\"]".getBytes()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.game.GameNode;
+import com.github.bhlangonijr.chesslib.move.Move;
+import com.github.bhlangonijr.chesslib.pgn.PgnHolder;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * The type Game node test.
+ */
+public class GameNodeTest {
+
+    @Test
+    public void testTree() throws Exception {
+        PgnHolder pgn = new PgnHolder(null);
+        pgn.loadPgn("[Event \"?\"]\n[White \"a\"]\n[Black \"b\"]\n[Result \"*\"]\n\n" +
+                "{intro} 1. e4 e5 ({sharper} 1... c5 2. Nf3 (2. c3 d5) 2... d6) (1... e6) 2. Nf3 {main} $2 Nc6 *");
+        Game game = pgn.getGames().get(0);
+        GameNode root = game.getGameTree();
+
+        assertEquals("intro", root.getComment());
+        GameNode e4 = root.getMainChild();
+        assertEquals("e4", e4.getSan());
+        assertEquals(3, e4.getChildren().size());
+        assertEquals("e5", e4.getMainChild().getSan());
+
+        GameNode c5 = e4.getVariations().get(0);
+        assertEquals("c5", c5.getSan());
+        assertEquals("sharper", c5.getStartingComment());
+        GameNode nf3 = c5.getMainChild();
+        assertEquals("d6", nf3.getMainChild().getSan());
+        assertEquals("c3", c5.getVariations().size() == 0 ? null : c5.getVariations().get(0).getSan());
+        assertEquals(Move.of(Square.C2, Square.C3), c5.getVariations().get(0).getMove());
+        assertEquals("d5", c5.getVariations().get(0).getMainChild().getSan());
+        assertEquals("e6", e4.getVariations().get(1).getSan());
+
+        GameNode mainNf3 = e4.getMainChild().getMainChild();
+        assertEquals("main", mainNf3.getComment());
+        assertEquals("$2", mainNf3.getNags().get(0));
+        assertEquals(3, mainNf3.getPly());
+        assertEquals("Nc6", mainNf3.getMainChild().getSan());
+        assertNull(mainNf3.getMainChild().getMainChild());
+        assertEquals("[e2e4, e7e5, g1f3, b8c6]", mainNf3.getMainChild().getLine().toString());
+
+        assertEquals("e2e4 e7e5 g1f3 b8c6", game.getHalfMoves().toString());
+        assertEquals("e7e6", game.getVariations().get(7).toString());
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.move.MoveList;
+import com.github.bhlangonijr.chesslib.pgn.MoveTextListener;
+import com.github.bhlangonijr.chesslib.pgn.MoveTextTokenizer;
+import com.github.bhlangonijr.chesslib.pgn.PgnHolder;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The type Move text tokenizer test.
+ */
+public class MoveTextTokenizerTest {
+
+    private static String tokens(String text) {
+        final StringBuilder sb = new StringBuilder();
+        MoveTextTokenizer.tokenize(text, new MoveTextListener() {
+            @Override
+            public void onMove(CharSequence text, int start, int end) {
+                sb.append("M:").append(text, start, end).append(' ');
+            }
+
+            @Override
+            public void onComment(CharSequence text, int start, int end) {
+                sb.append("C:").append(text, start, end).append(' ');
+            }
+
+            @Override
+            public void onNag(CharSequence text, int start, int end) {
+                sb.append("N:").append(text, start, end).append(' ');
+            }
+
+            @Override
+            public void onVariationStart() {
+                sb.append("( ");
+            }
+
+            @Override
+            public void onVariationEnd() {
+                sb.append(") ");
+            }
+
+            @Override
+            public void onResult(CharSequence text, int start, int end) {
+                sb.append("R:").append(text, start, end);
+            }
+        });
+        return sb.toString();
+    }
+
+    @Test
+    public void testTokens() {
+        assertEquals("M:e4 M:e5 M:Nf3 N:$1 C:best ( M:Nc3 C:also ) M:Nc6 R:1-0",
+                tokens("1. e4 e5 2.Nf3 $1 {best} (2. Nc3;also\n) 2... Nc6 1-0"));
+        assertEquals("M:O-O M:0-0-0+ N:!? M:e8=Q# R:1/2-1/2",
+                tokens("10. O-O 0-0-0+ !? 11.e8=Q# 1/2-1/2"));
+        assertEquals("M:d4 R:*", tokens("%escaped line\n1.d4 *"));
+    }
+
+    @Test
+    public void testVariations() throws Exception {
+        PgnHolder pgn = new PgnHolder(null);
+        pgn.loadPgn("[Event \"?\"]\n[White \"a\"]\n[Black \"b\"]\n[Result \"*\"]\n\n" +
+                "1. e4 e5 (1... c5 2. Nf3 (2. c3 d5) 2... d6) 2. Nf3 {main} $2 Nc6 *");
+        Game game = pgn.getGames().get(0);
+
+        assertEquals("e2e4 e7e5 g1f3 b8c6", game.getHalfMoves().toString());
+        MoveList sicilian = game.getVariations().get(2);
+        assertEquals("c7c5 g1f3 d7d6", sicilian.toString());
+        assertEquals(-1, sicilian.getParent());
+        MoveList alapin = game.getVariations().get(4);
+        assertEquals("c2c3 d7d5", alapin.toString());
+        assertEquals(2, alapin.getParent());
+        assertEquals("rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2", alapin.getStartFen());
+        assertEquals("main ", game.getCommentary().get(8));
+        assertEquals("$2", game.getNag().get(8));
+    }
+}
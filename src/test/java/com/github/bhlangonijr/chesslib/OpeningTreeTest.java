@@ -0,0 +1,100 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.book.OpeningMove;
+import com.github.bhlangonijr.chesslib.book.OpeningTree;
+import com.github.bhlangonijr.chesslib.book.OpeningTreeBuilder;
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.game.GameResult;
+import com.github.bhlangonijr.chesslib.move.Move;
+import com.github.bhlangonijr.chesslib.pgn.PgnIterator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The type Opening tree test.
+ */
+public class OpeningTreeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFirstMoves() throws Exception {
+
+        String pgn = "src/test/resources/redqueen.pgn";
+        Map<Move, int[]> expected = new HashMap<>();
+        int games = 0;
+        for (Game game : new PgnIterator(pgn)) {
+            games++;
+            if (game.getHalfMoves().isEmpty()) {
+                continue;
+            }
+            int[] stats = expected.computeIfAbsent(game.getHalfMoves().get(0), m -> new int[4]);
+            stats[0]++;
+            if (game.getResult() == GameResult.WHITE_WON) {
+                stats[1]++;
+            } else if (game.getResult() == GameResult.DRAW) {
+                stats[2]++;
+            } else if (game.getResult() == GameResult.BLACK_WON) {
+                stats[3]++;
+            }
+        }
+
+        Path treeFile = folder.getRoot().toPath().resolve("redqueen.tree");
+        OpeningTreeBuilder builder = new OpeningTreeBuilder();
+        builder.setParallelism(4);
+        builder.setBatchSize(25);
+        builder.setMaxPly(10);
+        assertEquals(games, builder.build(Paths.get(pgn), treeFile));
+
+        try (OpeningTree tree = new OpeningTree(treeFile)) {
+            assertEquals(10, tree.getMaxPly());
+            List<OpeningMove> moves = tree.lookup(new Board());
+            assertEquals(expected.size(), moves.size());
+            int previous = Integer.MAX_VALUE;
+            for (OpeningMove move : moves) {
+                int[] stats = expected.get(move.getMove());
+                assertEquals(stats[0], move.getGames());
+                assertEquals(stats[1], move.getWhiteWins());
+                assertEquals(stats[2], move.getDraws());
+                assertEquals(stats[3], move.getBlackWins());
+                assertTrue(move.getGames() <= previous);
+                previous = move.getGames();
+            }
+
+            Board board = new Board();
+            board.doMove(moves.get(0).getMove());
+            int replies = 0;
+            for (OpeningMove move : tree.lookup(board.getFen())) {
+                replies += move.getGames();
+            }
+            assertTrue(replies > 0 && replies <= moves.get(0).getGames());
+        }
+    }
+
+    @Test
+    public void testMinGames() throws Exception {
+
+        Path treeFile = folder.getRoot().toPath().resolve("linares.tree");
+        OpeningTreeBuilder builder = new OpeningTreeBuilder();
+        builder.setMinGames(2);
+        builder.build(Paths.get("src/test/resources/linares_2002.pgn"), treeFile);
+
+        try (OpeningTree tree = new OpeningTree(treeFile)) {
+            for (OpeningMove move : tree.lookup(new Board())) {
+                assertTrue(move.getGames() >= 2);
+                assertTrue(move.getAverageElo() > 2000);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.pgn.ParallelPgnLoader;
+import com.github.bhlangonijr.chesslib.pgn.PgnHolder;
+import com.github.bhlangonijr.chesslib.pgn.PgnIterator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.github.bhlangonijr.chesslib.PgnTestUtil.describe;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The type Parallel pgn loader test.
+ */
+public class ParallelPgnLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testOrdered() throws Exception {
+
+        List<String> expected = describe(new PgnIterator("src/test/resources/cup.pgn"));
+
+        ParallelPgnLoader loader = new ParallelPgnLoader("src/test/resources/cup.pgn");
+        loader.setParallelism(4);
+        loader.setChunkSize(4096);
+        assertEquals(expected, describe(loader.load()));
+
+        PgnHolder holder = new PgnHolder(null);
+        holder.loadPgn(loader);
+        assertEquals(expected, describe(holder.getGames()));
+    }
+
+    @Test
+    public void testUnordered() throws Exception {
+
+        List<String> expected = describe(new PgnIterator("src/test/resources/redqueen.pgn"));
+
+        ParallelPgnLoader loader = new ParallelPgnLoader("src/test/resources/redqueen.pgn");
+        loader.setOrdered(false);
+        loader.setChunkSize(10000);
+        List<String> actual = describe(loader.load());
+
+        assertEquals(270, actual.size());
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testBoundaryAtEndOfSearchWindow() throws Exception {
+
+        String tags = "[Event \"e\"]\n[White \"%s\"]\n[Black \"b\"]\n[Result \"*\"]\n\n";
+        // the search for the next game starts at the first byte and reads 64 KB windows
+        for (int newline = (1 << 16) - 12; newline <= (1 << 16) + 12; newline++) {
+            StringBuilder first = new StringBuilder(String.format(tags, "w1")).append("1. e4 {");
+            String end = "} e5 *\n\n";
+            while (first.length() + end.length() - 1 < newline) {
+                first.append(first.length() % 10 == 0 ? ' ' : 'x');
+            }
+            String pgn = first + end + String.format(tags, "w2") + "1. d4 d5 *\n";
+            Path file = folder.newFile().toPath();
+            Files.write(file, pgn.getBytes(StandardCharsets.US_ASCII));
+
+            ParallelPgnLoader loader = new ParallelPgnLoader(file);
+            loader.setChunkSize(1);
+            List<String> games = describe(loader.load());
+            assertEquals(Arrays.asList("w1 - b: e2e4 e7e5", "w2 - b: d2d4 d7d5"), games);
+        }
+    }
+
+    @Test
+    public void testGamesStartingWithAnotherTag() throws Exception {
+
+        StringBuilder pgn = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            pgn.append("[Site \"s\"]\r\n[Event \"e\"]\r\n[White \"w").append(i).append("\"]\r\n[Black \"b\"]\r\n[Result \"*\"]\r\n\r\n")
+                    .append("1. e4 {").append(i % 2 == 0 ? "[%clk 0:01:00]" : "a comment").append("} e5 *\r\n\r\n");
+            expected.add("w" + i + " - b: e2e4 e7e5");
+        }
+        Path file = folder.newFile().toPath();
+        Files.write(file, pgn.toString().getBytes(StandardCharsets.US_ASCII));
+
+        ParallelPgnLoader loader = new ParallelPgnLoader(file);
+        loader.setParallelism(4);
+        loader.setChunkSize(100);
+        assertEquals(expected, describe(loader.load()));
+    }
+}
@@ -1,11 +1,13 @@
 package com.github.bhlangonijr.chesslib;
 
 import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.game.Player;
 import com.github.bhlangonijr.chesslib.move.Move;
 import com.github.bhlangonijr.chesslib.move.MoveList;
 import com.github.bhlangonijr.chesslib.pgn.PgnException;
 import com.github.bhlangonijr.chesslib.pgn.PgnHolder;
 import com.github.bhlangonijr.chesslib.util.LargeFile;
+import com.github.bhlangonijr.chesslib.util.StringDictionary;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -15,6 +17,8 @@ import java.util.Map;
 
 import static junit.framework.TestCase.assertFalse;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -538,4 +542,51 @@ public class PgnHolderTest {
         }
         assertEquals("8/8/2k5/4R3/3K4/8/8/8 w - - 19 102", board.getFen());
     }
+
+    @Test
+    public void testStringDictionary() {
+
+        StringDictionary dictionary = new StringDictionary();
+        String name = new String("Carlsen, Magnus");
+        assertEquals(0, dictionary.getId(name));
+        assertEquals(1, dictionary.getId("Caruana, Fabiano"));
+        assertEquals(0, dictionary.getId(new String("Carlsen, Magnus")));
+        assertSame(name, dictionary.intern(new String("Carlsen, Magnus")));
+        assertEquals("Caruana, Fabiano", dictionary.get(1));
+        assertEquals(-1, dictionary.find("Nakamura, Hikaru"));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    public void testDictionary() throws Exception {
+
+        PgnHolder plain = new PgnHolder("src/test/resources/cup.pgn");
+        plain.setDictionary(null);
+        plain.loadPgn();
+
+        PgnHolder pgn = new PgnHolder("src/test/resources/cup.pgn");
+        pgn.loadPgn();
+        assertEquals(plain.getGames().size(), pgn.getGames().size());
+
+        Map<String, Player> players = new HashMap<>();
+        for (int i = 0; i < pgn.getGames().size(); i++) {
+            Game expected = plain.getGames().get(i);
+            Game game = pgn.getGames().get(i);
+            assertEquals(expected.getWhitePlayer().getName(), game.getWhitePlayer().getName());
+            assertEquals(expected.getWhitePlayer().getElo(), game.getWhitePlayer().getElo());
+            assertEquals(expected.getBlackPlayer().getElo(), game.getBlackPlayer().getElo());
+            assertEquals(expected.getHalfMoves().toString(), game.getHalfMoves().toString());
+            assertEquals(expected.getRound().getEvent().getName(), game.getRound().getEvent().getName());
+            assertSame(pgn.getGames().get(0).getRound().getEvent().getName(), game.getRound().getEvent().getName());
+            for (Player player : new Player[]{game.getWhitePlayer(), game.getBlackPlayer()}) {
+                Player previous = players.putIfAbsent(player.getName() + "/" + player.getElo(), player);
+                if (previous != null) {
+                    assertSame(previous, player);
+                }
+            }
+        }
+        assertEquals(players.size(), pgn.getDictionary().getPlayerCount());
+        assertTrue(players.size() < pgn.getGames().size());
+        assertNotSame(plain.getGames().get(0).getWhitePlayer(), plain.getGames().get(1).getWhitePlayer());
+    }
 }
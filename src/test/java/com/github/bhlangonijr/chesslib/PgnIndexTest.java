@@ -0,0 +1,73 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.pgn.PgnException;
+import com.github.bhlangonijr.chesslib.pgn.PgnIndex;
+import com.github.bhlangonijr.chesslib.pgn.PgnIterator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The type Pgn index test.
+ */
+public class PgnIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRandomAccess() throws Exception {
+
+        Path pgn = Paths.get("src/test/resources/linares_2002.pgn");
+        Path indexFile = folder.newFile("linares_2002.idx").toPath();
+
+        List<Game> games = new ArrayList<>();
+        for (Game game : new PgnIterator(pgn.toString())) {
+            games.add(game);
+        }
+        assertEquals(games.size(), PgnIndex.build(pgn, indexFile));
+
+        try (PgnIndex index = new PgnIndex(pgn, indexFile)) {
+            assertEquals(games.size(), index.size());
+            for (int i = games.size() - 1; i >= 0; i -= 7) {
+                Game expected = games.get(i);
+                Game actual = index.getGame(i);
+                assertEquals(expected.getWhitePlayer().getName(), actual.getWhitePlayer().getName());
+                assertEquals(expected.getBlackPlayer().getName(), actual.getBlackPlayer().getName());
+                assertEquals(expected.getHalfMoves(), actual.getHalfMoves());
+
+                assertEquals(expected.getWhitePlayer().getName(), index.getWhite(i));
+                assertEquals(expected.getBlackPlayer().getName(), index.getBlack(i));
+                assertEquals(expected.getWhitePlayer().getElo(), index.getWhiteElo(i));
+                assertEquals(expected.getBlackPlayer().getElo(), index.getBlackElo(i));
+                assertEquals(expected.getResult(), index.getResult(i));
+                assertEquals(expected.getEco(), index.getEco(i));
+                assertEquals(expected.getRound().getEvent().getName(), index.getEvent(i));
+            }
+        }
+    }
+
+    @Test(expected = PgnException.class)
+    public void testOutOfDate() throws Exception {
+
+        File copy = folder.newFile("cct131.pgn");
+        Files.copy(Paths.get("src/test/resources/cct131.pgn"), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Path indexFile = folder.newFile("cct131.idx").toPath();
+        PgnIndex.build(copy.toPath(), indexFile);
+
+        Files.write(copy.toPath(), "\n".getBytes(), StandardOpenOption.APPEND);
+        new PgnIndex(copy.toPath(), indexFile).close();
+    }
+}
@@ -1,16 +1,47 @@
 package com.github.bhlangonijr.chesslib;
 
 import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.pgn.PgnHolder;
+import com.github.bhlangonijr.chesslib.pgn.PgnException;
 import com.github.bhlangonijr.chesslib.pgn.PgnIterator;
+import com.github.bhlangonijr.chesslib.util.LargeFile;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * The type Pgn iterator test.
  */
 public class PgnIteratorTest {
 
+    private static final String GOOD = "[Event \"A\"]\n[White \"a\"]\n[Black \"b\"]\n[Result \"1-0\"]\n\n" +
+            "1. e4 e5 1-0\n\n";
+    private static final String ILLEGAL = "[Event \"B\"]\n[White \"a\"]\n[Black \"b\"]\n[Result \"0-1\"]\n\n" +
+            "1. e4 Ke2 0-1\n\n";
+    private static final String STRAY = "[Site \"?\"]\n[White \"x\"]\n[Black \"y\"]\n\n1. e4 *\n\n";
+    private static final String OPEN_COMMENT = "[Event \"C\"]\n[White \"c\"]\n[Black \"d\"]\n\n" +
+            "1. d4 {broken\n\n";
+    private static final String LAST = "[Event \"D\"]\n[White \"e\"]\n[Black \"f\"]\n[Result \"*\"]\n\n" +
+            "1. c4 c5 *\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testPGNIteration() throws Exception {
 
@@ -90,4 +121,145 @@ public class PgnIteratorTest {
             }
         }
     }
+
+    @Test
+    public void testHeaderFilter() throws Exception {
+
+        int expected = 0;
+        for (Game game : new PgnIterator("src/test/resources/cup.pgn")) {
+            if (game.getWhitePlayer().getElo() >= 2600 && "1-0".equals(game.getResult().getDescription())) {
+                expected++;
+            }
+        }
+
+        PgnIterator games = new PgnIterator("src/test/resources/cup.pgn");
+        games.setFilter(record -> record.getTagAsInt("WhiteElo", 0) >= 2600 && record.hasTag("Result", "1-0"));
+        int count = 0;
+        for (Game game : games) {
+            assertEquals(true, game.getWhitePlayer().getElo() >= 2600);
+            count++;
+        }
+        assertEquals(expected, count);
+        assertEquals(true, count > 0 && count < 900);
+    }
+
+    @Test
+    public void testLazyLoad() throws Exception {
+
+        PgnHolder pgn = new PgnHolder("src/test/resources/cct131.pgn");
+        pgn.setLazyLoad(true);
+        pgn.setFilter(record -> record.hasTag("Black", "crafty"));
+        pgn.loadPgn();
+
+        assertEquals(1, pgn.getGames().size());
+        Game game = pgn.getGames().get(0);
+        assertEquals("Chirone", game.getWhitePlayer().getName());
+        assertEquals("143", game.getPlyCount());
+        assertEquals(true, game.isMoveTextPending());
+
+        assertEquals(143, game.getHalfMoves().size());
+        assertEquals(false, game.isMoveTextPending());
+        assertEquals(true, game.getCommentary().size() > 0);
+    }
+
+    @Test
+    public void testIteratorContract() throws Exception {
+
+        Iterator<Game> games = new PgnIterator("src/test/resources/cct131.pgn").iterator();
+        assertTrue(games.hasNext());
+        assertTrue(games.hasNext());
+        assertEquals("Rookie", games.next().getWhitePlayer().getName());
+        assertEquals("Chirone", games.next().getWhitePlayer().getName());
+        int count = 2;
+        while (games.hasNext()) {
+            games.next();
+            count++;
+        }
+        assertFalse(games.hasNext());
+        assertTrue(count > 2);
+        try {
+            games.next();
+            fail();
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTolerant() throws Exception {
+
+        File file = folder.newFile("broken.pgn");
+        Files.write(file.toPath(), (GOOD + ILLEGAL + STRAY + OPEN_COMMENT + LAST).getBytes(StandardCharsets.UTF_8));
+
+        try {
+            for (Game game : new PgnIterator(file.getPath())) {
+                game.getHalfMoves();
+            }
+            fail();
+        } catch (PgnException e) {
+            // expected
+        }
+
+        PgnIterator games = new PgnIterator(file.getPath());
+        games.setTolerant(true);
+        List<Long> offsets = new ArrayList<>();
+        List<String> reasons = new ArrayList<>();
+        games.setErrorListener((offset, reason, cause) -> {
+            offsets.add(offset);
+            reasons.add(reason);
+        });
+        List<String> events = new ArrayList<>();
+        for (Game game : games) {
+            events.add(game.getRound().getEvent().getName() + ":" + game.getHalfMoves().size());
+        }
+        assertEquals("[A:2, C:1, D:2]", events.toString());
+        assertEquals(3, games.getGamesLoaded());
+        assertEquals(2, games.getGamesSkipped());
+        assertEquals(1, games.getIllegalSanCount());
+        assertEquals(1, offsets.size());
+        assertEquals(GOOD.length(), offsets.get(0).longValue());
+        assertTrue(reasons.get(0), reasons.get(0).contains("Ke2"));
+    }
+
+    @Test
+    public void testTolerantLines() throws Exception {
+
+        byte[] pgn = (GOOD + ILLEGAL + STRAY + LAST).getBytes(StandardCharsets.UTF_8);
+        PgnIterator games = new PgnIterator(new LargeFile(new ByteArrayInputStream(pgn)));
+        games.setTolerant(true);
+        List<Long> offsets = new ArrayList<>();
+        games.setErrorListener((offset, reason, cause) -> offsets.add(offset));
+        List<String> events = new ArrayList<>();
+        for (Game game : games) {
+            events.add(game.getRound().getEvent().getName());
+        }
+        assertEquals("[A, D]", events.toString());
+        assertEquals(1, games.getGamesSkipped());
+        assertEquals(1, games.getIllegalSanCount());
+        assertEquals("[-1]", offsets.toString());
+    }
+
+    @Test
+    public void testParallelStream() throws Exception {
+
+        List<String> expected = new ArrayList<>();
+        for (Game game : new PgnIterator("src/test/resources/cup.pgn")) {
+            expected.add(game.getWhitePlayer().getName() + ": " + game.getHalfMoves().toString());
+        }
+
+        try (PgnIterator games = new PgnIterator("src/test/resources/cup.pgn")) {
+            List<String> actual = games.stream(true)
+                    .map(game -> game.getWhitePlayer().getName() + ": " + game.getHalfMoves().toString())
+                    .collect(Collectors.toList());
+            assertEquals(expected, actual);
+        }
+
+        try (PgnIterator games = new PgnIterator("src/test/resources/cup.pgn")) {
+            games.setFilter(record -> record.hasTag("Result", "1-0"));
+            long count = games.stream(true).filter(game -> "1-0".equals(game.getResult().getDescription())).count();
+            assertEquals(count, new PgnIterator("src/test/resources/cup.pgn").stream(false)
+                    .filter(game -> "1-0".equals(game.getResult().getDescription())).count());
+            assertTrue(count > 0);
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.pgn.PgnIterator;
+import com.github.bhlangonijr.chesslib.pgn.PgnPublisher;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.bhlangonijr.chesslib.PgnTestUtil.describe;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The type Pgn publisher test.
+ */
+public class PgnPublisherTest {
+
+    private static class Collector implements PgnPublisher.Subscriber {
+        private final int batch;
+        private final int limit;
+        private final List<String> games = new ArrayList<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private PgnPublisher.Subscription subscription;
+        private int pending;
+        private boolean completed;
+        private boolean overflow;
+        private Throwable error;
+
+        Collector(int batch, int limit) {
+            this.batch = batch;
+            this.limit = limit;
+        }
+
+        @Override
+        public void onSubscribe(PgnPublisher.Subscription subscription) {
+            this.subscription = subscription;
+            pending = batch;
+            subscription.request(batch);
+        }
+
+        @Override
+        public void onNext(Game game) {
+            overflow |= --pending < 0;
+            games.addAll(describe(Collections.singletonList(game)));
+            if (games.size() == limit) {
+                subscription.cancel();
+                finished.countDown();
+            } else if (pending == 0) {
+                pending = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            finished.countDown();
+        }
+    }
+
+    @Test
+    public void testBoundedDemand() throws Exception {
+
+        List<String> expected = describe(new PgnIterator("src/test/resources/cup.pgn"));
+
+        Collector collector = new Collector(7, -1);
+        new PgnPublisher(new PgnIterator("src/test/resources/cup.pgn"), 16).subscribe(collector);
+        assertTrue(collector.finished.await(60, TimeUnit.SECONDS));
+
+        assertNull(collector.error);
+        assertTrue(collector.completed);
+        assertFalse(collector.overflow);
+        assertEquals(expected, collector.games);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+
+        List<String> expected = describe(new PgnIterator("src/test/resources/cup.pgn")).subList(0, 10);
+
+        Collector collector = new Collector(3, 10);
+        new PgnPublisher(new PgnIterator("src/test/resources/cup.pgn")).subscribe(collector);
+        assertTrue(collector.finished.await(60, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        assertFalse(collector.completed);
+        assertNull(collector.error);
+        assertEquals(expected, collector.games);
+    }
+
+    @Test
+    public void testInvalidDemand() throws Exception {
+
+        CountDownLatch finished = new CountDownLatch(1);
+        Throwable[] error = new Throwable[1];
+        new PgnPublisher(new PgnIterator("src/test/resources/cup.pgn")).subscribe(new PgnPublisher.Subscriber() {
+            @Override
+            public void onSubscribe(PgnPublisher.Subscription subscription) {
+                subscription.request(0);
+            }
+
+            @Override
+            public void onNext(Game game) {
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                error[0] = e;
+                finished.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                finished.countDown();
+            }
+        });
+        assertTrue(finished.await(60, TimeUnit.SECONDS));
+        assertTrue(error[0] instanceof IllegalArgumentException);
+    }
+}
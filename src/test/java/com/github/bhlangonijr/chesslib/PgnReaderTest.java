@@ -0,0 +1,105 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.pgn.GameLoader;
+import com.github.bhlangonijr.chesslib.pgn.PgnReader;
+import com.github.bhlangonijr.chesslib.pgn.PgnRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The type Pgn reader test.
+ */
+public class PgnReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecords() throws Exception {
+
+        try (PgnReader reader = new PgnReader("src/test/resources/cct131.pgn")) {
+            PgnRecord record = reader.read();
+            assertEquals("Rookie", record.getTag("White").toString());
+            assertEquals("2285", record.getTag("whiteelo").toString());
+            assertEquals("Event", record.getTagName(0).toString());
+            assertNull(record.getTag("Foo"));
+
+            String moveText = record.getMoveText().toString();
+            assertEquals(true, moveText.startsWith("1. e4 e6"));
+            assertEquals(true, moveText.endsWith("1-0"));
+
+            byte[] bytes = Files.readAllBytes(Paths.get("src/test/resources/cct131.pgn"));
+            String text = new String(bytes, (int) record.getOffset(), record.getLength(), StandardCharsets.UTF_8);
+            assertEquals(true, text.startsWith("[Event "));
+            assertEquals(true, text.endsWith(moveText));
+
+            int count = 1;
+            while (reader.read() != null) {
+                count++;
+            }
+            assertEquals(3, count);
+        }
+    }
+
+    @Test
+    public void testSmallWindow() throws Exception {
+
+        List<String> expected = new ArrayList<>();
+        for (PgnRecord record : new PgnReader("src/test/resources/cup.pgn")) {
+            expected.add(record.getOffset() + " " + record.getTag("White") + " " + record.getMoveText());
+        }
+        assertEquals(900, expected.size());
+
+        List<String> actual = new ArrayList<>();
+        for (PgnRecord record : new PgnReader(Paths.get("src/test/resources/cup.pgn"), 512)) {
+            actual.add(record.getOffset() + " " + record.getTag("White") + " " + record.getMoveText());
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testUtf8() throws Exception {
+
+        File file = folder.newFile("utf8.pgn");
+        String pgn = "﻿[Event \"Café\"]\r\n[White \"Nimzowitsch, Aron\"]\r\n[Black \"Réti, Richard\"]\r\n" +
+                "[Result \"0-1\"]\r\n\r\n1. e4 {Müller} e5 0-1\r\n";
+        Files.write(file.toPath(), pgn.getBytes(StandardCharsets.UTF_8));
+
+        try (PgnReader reader = new PgnReader(file.getPath())) {
+            Game game = GameLoader.loadGame(reader.read());
+            assertEquals("Café", game.getRound().getEvent().getName());
+            assertEquals("Réti, Richard", game.getBlackPlayer().getName());
+            assertEquals("Müller ", game.getCommentary().get(1));
+            assertEquals("e2e4 e7e5", game.getHalfMoves().toString());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testEscapedTags() throws Exception {
+
+        File file = folder.newFile("escaped.pgn");
+        String pgn = "[Event \"a \\\"b\\\" \\\\ c\"]\n[White \"w\"]\n[Black \"b\"]\n[Result \"*\"]\n\n1. e4 *\n";
+        Files.write(file.toPath(), pgn.getBytes(StandardCharsets.UTF_8));
+
+        try (PgnReader reader = new PgnReader(file.getPath())) {
+            Game game = GameLoader.loadGame(reader.read());
+            assertEquals("a \"b\" \\ c", game.getRound().getEvent().getName());
+            String out = game.toPgn(false, false);
+            assertTrue(out, out.contains("[Event \"a \\\"b\\\" \\\\ c\"]"));
+        }
+    }
+}
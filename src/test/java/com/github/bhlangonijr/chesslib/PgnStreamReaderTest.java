@@ -0,0 +1,121 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.pgn.ParallelPgnLoader;
+import com.github.bhlangonijr.chesslib.pgn.PgnHolder;
+import com.github.bhlangonijr.chesslib.pgn.PgnIterator;
+import com.github.bhlangonijr.chesslib.pgn.PgnReader;
+import com.github.bhlangonijr.chesslib.pgn.PgnRecord;
+import com.github.bhlangonijr.chesslib.pgn.PgnStreamReader;
+import com.github.bhlangonijr.chesslib.util.CompressedInput;
+import com.github.bhlangonijr.chesslib.util.LargeFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static com.github.bhlangonijr.chesslib.PgnTestUtil.describe;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The type Pgn stream reader test.
+ */
+public class PgnStreamReaderTest {
+
+    private static final Path CUP = Paths.get("src/test/resources/cup.pgn");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path gzip(Path source) throws Exception {
+        File target = folder.newFile(source.getFileName() + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target.toPath()))) {
+            Files.copy(source, out);
+        }
+        return target.toPath();
+    }
+
+    @Test
+    public void testRecords() throws Exception {
+
+        Path gz = gzip(CUP);
+        assertTrue(CompressedInput.isGzip(gz));
+        assertFalse(CompressedInput.isGzip(CUP));
+
+        List<PgnRecord> expected = new ArrayList<>();
+        try (PgnReader reader = new PgnReader(CUP)) {
+            for (PgnRecord record : reader) {
+                expected.add(record);
+            }
+        }
+
+        for (int queueCapacity : new int[]{0, 2}) {
+            for (Path path : new Path[]{CUP, gz}) {
+                List<PgnRecord> actual = new ArrayList<>();
+                try (PgnStreamReader reader = new PgnStreamReader(Files.newInputStream(path), 4096, queueCapacity)) {
+                    for (PgnRecord record : reader) {
+                        actual.add(record);
+                    }
+                }
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getOffset(), actual.get(i).getOffset());
+                    assertEquals(expected.get(i).getLength(), actual.get(i).getLength());
+                    assertEquals(expected.get(i).getTag("White").toString(), actual.get(i).getTag("White").toString());
+                    assertEquals(expected.get(i).getMoveText().toString(), actual.get(i).getMoveText().toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGames() throws Exception {
+
+        List<String> expected = describe(new PgnIterator(CUP.toString()));
+        Path gz = gzip(CUP);
+
+        assertEquals(expected, describe(new PgnIterator(gz.toString())));
+
+        PgnHolder holder = new PgnHolder(gz.toString());
+        holder.loadPgn();
+        assertEquals(expected, describe(holder.getGames()));
+
+        ParallelPgnLoader loader = new ParallelPgnLoader(gz);
+        loader.setParallelism(4);
+        loader.setChunkSize(4096);
+        assertEquals(expected, describe(loader.load()));
+    }
+
+    @Test
+    public void testLargeFile() throws Exception {
+
+        List<String> expected = new ArrayList<>();
+        for (String line : new LargeFile(CUP.toString())) {
+            expected.add(line);
+        }
+        Path gz = gzip(CUP);
+
+        List<String> actual = new ArrayList<>();
+        for (String line : new LargeFile(gz.toString())) {
+            actual.add(line);
+        }
+        assertEquals(expected, actual);
+
+        actual.clear();
+        for (String line : new LargeFile(new FileInputStream(gz.toFile()), StandardCharsets.UTF_8, 512)) {
+            actual.add(line);
+        }
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.pgn.PgnIterator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers shared by the PGN tests.
+ */
+final class PgnTestUtil {
+
+    private PgnTestUtil() {
+    }
+
+    /**
+     * Loads all the games of a PGN file with a {@link PgnIterator}.
+     *
+     * @param fileName the file name
+     * @return the games
+     * @throws Exception if the file cannot be read
+     */
+    static List<Game> load(String fileName) throws Exception {
+        List<Game> games = new ArrayList<>();
+        for (Game game : new PgnIterator(fileName)) {
+            games.add(game);
+        }
+        return games;
+    }
+
+    /**
+     * Describes each game by its players and moves, to compare games loaded in different ways.
+     *
+     * @param games the games
+     * @return the descriptions, in the order of the games
+     */
+    static List<String> describe(Iterable<Game> games) {
+        List<String> result = new ArrayList<>();
+        for (Game game : games) {
+            result.add(game.getWhitePlayer().getName() + " - " + game.getBlackPlayer().getName() + ": " +
+                    game.getHalfMoves().toString());
+        }
+        return result;
+    }
+}
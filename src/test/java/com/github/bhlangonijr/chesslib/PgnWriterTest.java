@@ -0,0 +1,101 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.game.Event;
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.game.GenericPlayer;
+import com.github.bhlangonijr.chesslib.game.Round;
+import com.github.bhlangonijr.chesslib.pgn.PgnHolder;
+import com.github.bhlangonijr.chesslib.pgn.PgnWriter;
+import com.github.bhlangonijr.chesslib.util.LargeFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static com.github.bhlangonijr.chesslib.PgnTestUtil.load;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The type Pgn writer test.
+ */
+public class PgnWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertSameGames(List<Game> expected, List<Game> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Game e = expected.get(i);
+            Game a = actual.get(i);
+            assertEquals(e.getWhitePlayer().getName(), a.getWhitePlayer().getName());
+            assertEquals(e.getWhitePlayer().getElo(), a.getWhitePlayer().getElo());
+            assertEquals(e.getResult(), a.getResult());
+            assertEquals(e.getEco(), a.getEco());
+            assertEquals(e.getHalfMoves(), a.getHalfMoves());
+            assertEquals(e.getCommentary(), a.getCommentary());
+            assertEquals(e.getNag(), a.getNag());
+            assertEquals(e.getVariations(), a.getVariations());
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+
+        List<Game> games = load("src/test/resources/cct131.pgn");
+        StringWriter out = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            writer.writeGames(games);
+        }
+        String pgn = out.toString();
+        assertEquals(true, pgn.startsWith("[Event \"CCT 13\"]\n[Site \"FICS, San Jose, California US\"]\n"));
+        for (String line : pgn.split("\n")) {
+            assertEquals(line, true, line.length() < 80 || !line.contains(" "));
+        }
+
+        PgnHolder holder = new PgnHolder(null);
+        holder.loadPgn(pgn);
+        assertSameGames(games, holder.getGames());
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+
+        List<Game> games = load("src/test/resources/rav_alternative.pgn");
+        File file = folder.newFile("games.pgn.gz");
+        try (PgnWriter writer = new PgnWriter(file.toPath(), true)) {
+            writer.setIncludeVariations(false);
+            writer.setIncludeComments(false);
+            writer.writeGames(games);
+        }
+
+        PgnHolder holder = new PgnHolder(null);
+        holder.loadPgn(new LargeFile(new GZIPInputStream(new FileInputStream(file))));
+        assertEquals(games.size(), holder.getGames().size());
+        assertEquals(games.get(0).getHalfMoves(), holder.getGames().get(0).getHalfMoves());
+        assertEquals(null, holder.getGames().get(0).getVariations());
+    }
+
+    @Test
+    public void testMoveTextOnly() throws Exception {
+
+        Game game = new Game("1", new Round(new Event()));
+        game.setWhitePlayer(new GenericPlayer("w", "w"));
+        game.setBlackPlayer(new GenericPlayer("b", "b"));
+        game.setMoveText(new StringBuilder("1. e4 {best by test} e5\n2. Nf3"));
+
+        StringWriter out = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            writer.writeGame(game);
+        }
+        String pgn = out.toString();
+        assertTrue(pgn.contains("[TimeControl \"-\"]\n"));
+        assertTrue(pgn.endsWith("\n\n1. e4 {best by test} e5 2. Nf3 *\n\n"));
+    }
+}
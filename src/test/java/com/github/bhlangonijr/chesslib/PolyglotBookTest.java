@@ -0,0 +1,157 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.book.BookMove;
+import com.github.bhlangonijr.chesslib.book.PolyglotBook;
+import com.github.bhlangonijr.chesslib.book.PolyglotBookWriter;
+import com.github.bhlangonijr.chesslib.book.PolyglotKey;
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.game.GameResult;
+import com.github.bhlangonijr.chesslib.move.Move;
+import com.github.bhlangonijr.chesslib.pgn.PgnIterator;
+import com.github.bhlangonijr.chesslib.util.XorShiftRandom;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The type Polyglot book test.
+ */
+public class PolyglotBookTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static long[] table() {
+        XorShiftRandom random = new XorShiftRandom(2017L);
+        long[] table = new long[PolyglotKey.TABLE_SIZE];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = random.nextLong();
+        }
+        return table;
+    }
+
+    private static PolyglotKey keys() throws Exception {
+        StringBuilder text = new StringBuilder("const uint64 Random64[781] = {\n");
+        for (long value : table()) {
+            text.append(String.format("   0x%016XULL,\n", value));
+        }
+        text.append("};\n");
+        return PolyglotKey.load(new ByteArrayInputStream(text.toString().getBytes()));
+    }
+
+    private static long publishedKey(String... moves) {
+        Board board = new Board();
+        for (String move : moves) {
+            board.doMove(move);
+        }
+        return PolyglotKey.getDefault().getKey(board);
+    }
+
+    @Test
+    public void testPublishedKeys() {
+
+        assertEquals(0x463b96181691fc9cL, publishedKey());
+        assertEquals(0x823c9b50fd114196L, publishedKey("e4"));
+        assertEquals(0x0756b94461c50fb0L, publishedKey("e4", "d5"));
+        assertEquals(0x662fafb965db29d4L, publishedKey("e4", "d5", "e5"));
+        assertEquals(0x22a48b5a8e47ff78L, publishedKey("e4", "d5", "e5", "f5"));
+        assertEquals(0x652a607ca3f242c1L, publishedKey("e4", "d5", "e5", "f5", "Ke2"));
+        assertEquals(0x00fdd303c946bdd9L, publishedKey("e4", "d5", "e5", "f5", "Ke2", "Kf7"));
+        assertEquals(0x3c8123ea7b067637L, publishedKey("a4", "b5", "h4", "b4", "c4"));
+        assertEquals(0x5c3f9b829b279560L, publishedKey("a4", "b5", "h4", "b4", "c4", "bxc3", "Ra3"));
+    }
+
+    @Test
+    public void testKey() throws Exception {
+
+        PolyglotKey keys = keys();
+        long[] table = table();
+
+        Board board = new Board();
+        board.doMove(new Move(Square.E2, Square.E4));
+        Board fen = new Board();
+        fen.loadFromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        assertEquals(keys.getKey(fen), keys.getKey(board));
+        assertNotEquals(keys.getKey(new Board()), keys.getKey(board));
+
+        board.doMove(new Move(Square.D7, Square.D5));
+        board.doMove(new Move(Square.E4, Square.E5));
+        board.doMove(new Move(Square.F7, Square.F5));
+        fen.loadFromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq - 0 3");
+        assertEquals(table[772 + 5], keys.getKey(board) ^ keys.getKey(fen));
+    }
+
+    @Test
+    public void testBuildAndProbe() throws Exception {
+
+        String pgn = "src/test/resources/redqueen.pgn";
+        Map<Move, Integer> expected = new HashMap<>();
+        for (Game game : new PgnIterator(pgn)) {
+            if (game.getHalfMoves().isEmpty()) {
+                continue;
+            }
+            int score = game.getResult() == GameResult.WHITE_WON ? 2 : game.getResult() == GameResult.DRAW ? 1 : 0;
+            expected.merge(game.getHalfMoves().get(0), score, Integer::sum);
+        }
+
+        PolyglotKey keys = keys();
+        Path bookFile = folder.getRoot().toPath().resolve("redqueen.bin");
+        PolyglotBookWriter writer = new PolyglotBookWriter(keys);
+        int entries = writer.build(Paths.get(pgn), bookFile);
+        assertEquals(entries * 16L, Files.size(bookFile));
+
+        PolyglotBook book = new PolyglotBook(bookFile, keys);
+        assertEquals(entries, book.size());
+        List<BookMove> moves = book.getMoves(new Board());
+        assertEquals(expected.size(), moves.size());
+        for (BookMove move : moves) {
+            assertEquals(expected.get(move.getMove()).intValue(), move.getWeight());
+        }
+
+        int[] packed = new int[64];
+        int[] weights = new int[64];
+        int count = book.probe(new Board(), packed, weights);
+        assertEquals(moves.size(), count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(expected.get(Move.fromPacked(packed[i])).intValue(), weights[i]);
+        }
+        assertTrue(expected.containsKey(book.pickMove(new Board(), new Random(1))));
+
+        writer.setMinWeight(1);
+        writer.build(Paths.get(pgn), bookFile);
+        for (BookMove move : new PolyglotBook(bookFile, keys).getMoves(new Board())) {
+            assertTrue(move.getWeight() >= 1);
+        }
+    }
+
+    @Test
+    public void testCastling() throws Exception {
+
+        Path pgn = folder.getRoot().toPath().resolve("castle.pgn");
+        Files.write(pgn, ("[Event \"?\"]\n[White \"a\"]\n[Black \"b\"]\n[Result \"1-0\"]\n\n" +
+                "1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5 4. O-O Nf6 1-0\n").getBytes());
+        PolyglotKey keys = keys();
+        Path bookFile = folder.getRoot().toPath().resolve("castle.bin");
+        new PolyglotBookWriter(keys).build(pgn, bookFile);
+
+        Board board = new Board();
+        board.loadFromFen("r1bqk1nr/pppp1ppp/2n5/2b1p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4");
+        List<BookMove> moves = new PolyglotBook(bookFile, keys).getMoves(board);
+        assertEquals(1, moves.size());
+        assertEquals(new Move(Square.E1, Square.G1), moves.get(0).getMove());
+        assertEquals(2, moves.get(0).getWeight());
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.bhlangonijr.chesslib;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+import com.github.bhlangonijr.chesslib.move.MoveList;
+import com.github.bhlangonijr.chesslib.pgn.PgnIndex;
+import com.github.bhlangonijr.chesslib.pgn.PositionHit;
+import com.github.bhlangonijr.chesslib.pgn.PositionIndex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.bhlangonijr.chesslib.PgnTestUtil.load;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The type Position index test.
+ */
+public class PositionIndexTest {
+
+    private static final Path PGN = Paths.get("src/test/resources/linares_2002.pgn");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFind() throws Exception {
+
+        List<Game> games = load(PGN.toString());
+        Path gameIndex = folder.getRoot().toPath().resolve("linares.idx");
+        Path positionIndex = folder.getRoot().toPath().resolve("linares.pos");
+        PgnIndex.build(PGN, gameIndex);
+        long postings = PositionIndex.build(PGN, positionIndex, 3, 5);
+        assertFalse(Files.exists(positionIndex.resolveSibling("linares.pos.work")));
+
+        int expectedPostings = 0;
+        List<Integer> withE4 = new ArrayList<>();
+        for (int i = 0; i < games.size(); i++) {
+            MoveList moves = games.get(i).getHalfMoves();
+            expectedPostings += moves.size() + 1;
+            if (moves.size() > 0 && moves.get(0).toString().equals("e2e4")) {
+                withE4.add(i);
+            }
+        }
+        assertEquals(expectedPostings, postings);
+
+        try (PgnIndex pgnIndex = new PgnIndex(PGN, gameIndex);
+             PositionIndex index = new PositionIndex(positionIndex, pgnIndex)) {
+            assertEquals(postings, index.size());
+
+            List<Integer> found = new ArrayList<>();
+            for (PositionHit hit : index.find("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")) {
+                assertEquals(1, hit.getPly());
+                found.add(hit.getGameId());
+            }
+            assertEquals(withE4, found);
+
+            int gameId = games.size() / 2;
+            Board board = new Board();
+            MoveList moves = games.get(gameId).getHalfMoves();
+            for (int i = 0; i < 20; i++) {
+                board.doMove(moves.get(i));
+            }
+            assertTrue(index.find(board).contains(new PositionHit(gameId, 20)));
+            assertEquals(games.size(), index.find(new Board()).size());
+        }
+    }
+
+    @Test
+    public void testResume() throws Exception {
+
+        Path positionIndex = folder.getRoot().toPath().resolve("linares.pos");
+        Path work = positionIndex.resolveSibling("linares.pos.work");
+        Files.createDirectories(work);
+        Files.write(work.resolve("source"), (Files.size(PGN) + " 10").getBytes());
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(work.resolve("run-0")))) {
+            out.writeLong(42L);
+            out.writeLong(7L);
+        }
+
+        PositionIndex.build(PGN, positionIndex, 2, 10);
+        try (PositionIndex index = new PositionIndex(positionIndex, null)) {
+            List<PositionHit> hits = index.find(42L);
+            assertEquals(1, hits.size());
+            assertEquals(new PositionHit(0, 7), hits.get(0));
+            for (PositionHit hit : index.find(new Board().getIncrementalHashKey())) {
+                assertTrue(hit.getGameId() >= 10);
+            }
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package com.github.bhlangonijr.chesslib.move;
 
+import com.github.bhlangonijr.chesslib.Side;
 import com.github.bhlangonijr.chesslib.Square;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * The type Move list test.
@@ -179,4 +189,155 @@ public class MoveListTest {
         assertEquals("O-O-O#", sanGeneratedLastMove);
     }
 
+    @Test
+    public void testCheckpoints() throws MoveConversionException {
+        String san = "e4 Nc6 d4 Nf6 d5 Ne5 Nf3 d6 Nxe5 dxe5 Bb5+ Bd7 Bxd7+ Qxd7 Nc3 e6 O-O exd5 ";
+        MoveList plain = new MoveList();
+        plain.loadFromSan(san);
+        String[] expected = new String[plain.size() + 1];
+        for (int i = 0; i <= plain.size(); i++) {
+            expected[i] = plain.getFen(i);
+        }
+
+        for (int interval = 1; interval <= 4; interval++) {
+            MoveList list = new MoveList();
+            list.loadFromSan(san);
+            list.setCheckpointInterval(interval);
+            for (int i = list.size(); i >= 0; i--) {
+                assertEquals(expected[i], list.getFen(i));
+            }
+            for (int i = 0; i <= list.size(); i++) {
+                assertEquals(expected[i], list.getFen(i));
+            }
+            assertEquals(expected[7], MoveList.createMoveListFrom(list, 7).getStartFen());
+        }
+
+        MoveList list = new MoveList();
+        list.loadFromSan(san);
+        list.setCheckpointInterval(2);
+        assertEquals(expected[list.size()], list.getFen());
+        list.removeLast();
+        list.removeLast();
+        list.add(new Move("e1g1", Side.WHITE));
+        list.add(new Move("e6d5", Side.BLACK));
+        assertEquals(expected[expected.length - 1], list.getFen());
+        list.set(16, new Move("e1e2", Side.WHITE));
+        assertEquals("r3kb1r/pppq1ppp/5n2/3pp3/4P3/2N5/PPP1KPPP/R1BQ3R w kq - 0 10", list.getFen());
+    }
+
+    @Test
+    public void testListOperations() throws MoveConversionException {
+        String s = "e2e4 b8c6 d2d4 g8f6 d4d5 c6e5 g1f3 d7d6 f3e5 d6e5 f1b5 c8d7 b5d7 d8d7 b1c3 e7e6 e1g1 e6d5";
+        MoveList list = new MoveList();
+        list.loadFromText(s);
+        assertEquals(18, list.size());
+        assertEquals(s, list.toString());
+        assertEquals(new Move("e2e4", Side.WHITE), list.getFirst());
+        assertEquals(new Move("e6d5", Side.BLACK), list.getLast());
+
+        MoveList copy = new MoveList(list);
+        Move last = copy.removeLast();
+        Move first = copy.removeFirst();
+        copy.add(0, first);
+        copy.add(last);
+        assertEquals(s, copy.toString());
+
+        copy.subList(4, 18).clear();
+        assertEquals("e2e4 b8c6 d2d4 g8f6", copy.toString());
+        assertTrue(copy.remove(new Move("b8c6", Side.BLACK)));
+        assertEquals("e2e4 d2d4 g8f6", copy.toString());
+
+        MoveList packed = new MoveList();
+        for (int move : list.toPackedArray()) {
+            packed.addPacked(move);
+        }
+        assertEquals(s, packed.toString());
+        assertEquals(list.getFen(), packed.getFen());
+    }
+
+    @Test
+    public void testIncrementalSanCache() throws MoveConversionException {
+        String san = "e4 d5 exd5 Nf6 c4 c6 dxc6 Nc6 Nf3 e5 Be2 Bc5 O-O O-O d4 exd4 Nxd4 Nxd4 Qxd4 Bxd4";
+        MoveList full = new MoveList();
+        full.loadFromSan(san);
+        String[] expectedSan = full.toSanArray().clone();
+        String[] expectedFan = full.toFanArray().clone();
+
+        MoveList list = new MoveList();
+        for (int i = 0; i < full.size(); i++) {
+            list.add(full.get(i));
+            String[] sanArray = list.toSanArray();
+            assertEquals(i + 1, sanArray.length);
+            assertEquals(expectedSan[i], sanArray[i]);
+            assertEquals(expectedFan[i], list.toFanArray()[i]);
+        }
+
+        Move removed = list.remove(5);
+        list.add(5, removed);
+        assertArrayEquals(expectedSan, list.toSanArray());
+        assertArrayEquals(expectedFan, list.toFanArray());
+
+        list.removeLast();
+        assertEquals(expectedSan.length - 1, list.toSanArray().length);
+        assertEquals("Nf3 e5 Be2 Bc5 O-O O-O d4 exd4 Nxd4 Nxd4 Qxd4 ",
+                list.toSan().substring(list.toSan().indexOf("Nf3")));
+    }
+
+    @Test
+    public void testFanPromotion() throws MoveConversionException {
+        MoveList list = new MoveList("8/P7/8/8/8/8/6k1/4K3 w - - 0 1");
+        list.loadFromSan("a8=Q Kh2 Qb7");
+        assertEquals("♙a8=♕+ ♚h2 ♕b7 ", list.toFan());
+    }
+
+    @Test
+    public void testSanContext() throws Exception {
+        final String san = "e4 Nc6 d4 Nf6 d5 Ne5 Nf3 d6 Nxe5 dxe5 Bb5+ Bd7 Bxd7+ Qxd7 Nc3 e6 O-O exd5 ";
+        final String fen = "r3kb1r/pppq1ppp/5n2/3pp3/4P3/2N5/PPP2PPP/R1BQ1RK1 w kq - 0 10";
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            final boolean ownContext = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                MoveList list = new MoveList();
+                if (ownContext) {
+                    SanContext context = new SanContext();
+                    list.loadFromSan(san, context);
+                    return list.toSanArray(context).length + " " + list.getFen();
+                }
+                list.loadFromSan(san);
+                return list.toSanArray().length + " " + list.getFen();
+            }));
+        }
+        for (Future<String> result : results) {
+            assertEquals("18 " + fen, result.get());
+        }
+        executor.shutdown();
+
+        MoveList list = new MoveList();
+        list.loadFromSan("e4 Nc6 d4");
+        list.addSanMove("Nf6");
+        list.loadFromSan("d5 Ne5");
+        assertEquals("e2e4 b8c6 d2d4 g8f6 d4d5 c6e5", list.toString());
+    }
+
+    @Test
+    public void testEquals() {
+
+        MoveList list = new MoveList();
+        list.loadFromSan("e4 e5 Nf3");
+        MoveList same = new MoveList();
+        same.add(new Move(Square.E2, Square.E4));
+        same.add(new Move(Square.E7, Square.E5));
+        same.add(new Move(Square.G1, Square.F3));
+        assertEquals(list, same);
+        assertEquals(list.hashCode(), same.hashCode());
+
+        same.removeLast();
+        assertNotEquals(list, same);
+        same.add(new Move(Square.B1, Square.C3));
+        assertNotEquals(list, same);
+        assertNotEquals(list, "e2e4 e7e5 g1f3");
+    }
 }
@@ -0,0 +1,91 @@
+package com.github.bhlangonijr.chesslib.move;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.Square;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * The type Move test.
+ */
+public class MoveTest {
+
+    @Test
+    public void testCanonicalInstances() {
+
+        assertSame(Move.of(Square.E2, Square.E4), Move.of(Square.E2, Square.E4, Piece.NONE));
+        assertSame(Move.of(Square.E7, Square.E8, Piece.WHITE_QUEEN), Move.fromUci("e7e8q", Side.WHITE));
+        assertSame(Move.of(Square.A2, Square.B1, Piece.BLACK_KNIGHT), Move.fromUci("a2b1n", Side.BLACK));
+        assertSame(Move.of(Square.G1, Square.F3), Move.fromUci("g1f3", Side.WHITE));
+
+        Move move = new Move("e7e8q", Side.WHITE);
+        assertEquals(Move.of(Square.E7, Square.E8, Piece.WHITE_QUEEN), move);
+        assertEquals(Move.of(Square.E7, Square.E8, Piece.WHITE_QUEEN).hashCode(), move.hashCode());
+        assertNotEquals(Move.of(Square.E7, Square.E8, Piece.WHITE_ROOK), move);
+    }
+
+    @Test
+    public void testGeneratedMovesAreCanonical() {
+
+        Board board = new Board();
+        board.loadFromFen("r3k2r/pP1pqpb1/bn2pnp1/2pPN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq c6 0 2");
+        for (Move move : board.legalMoves()) {
+            assertSame(move, Move.fromUci(move.toString(), Side.WHITE));
+        }
+    }
+
+    @Test
+    public void testCanonicalInstancesAreImmutable() {
+
+        Move canonical = Move.of(Square.E2, Square.E4);
+        try {
+            canonical.setSan("e4");
+            fail("SAN set on a shared move");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertNull(canonical.getSan());
+
+        Move move = canonical.withSan("e4");
+        assertNotSame(canonical, move);
+        assertEquals(canonical, move);
+        assertEquals("e4", move.getSan());
+        assertNull(Move.of(Square.E2, Square.E4).getSan());
+
+        Move copy = new Move(Square.E2, Square.E4);
+        copy.setSan("e4");
+        assertEquals("e4", copy.getSan());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidUci() {
+
+        Move.fromUci("e2e9", Side.WHITE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPromotion() {
+
+        Move.fromUci("e2e4q", Side.WHITE);
+    }
+
+    @Test
+    public void testPackedMoves() {
+
+        Board board = new Board();
+        board.loadFromFen("r3k2r/pP1pqpb1/bn2pnp1/2pPN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq c6 0 2");
+        for (Move move : board.legalMoves()) {
+            int packed = move.toPacked();
+            assertTrue(packed > 0 && packed <= 0xFFFF);
+            assertSame(move, Move.fromPacked(packed));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPackedMove() {
+        Move.fromPacked(0);
+    }
+}
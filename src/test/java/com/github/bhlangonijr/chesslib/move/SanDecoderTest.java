@@ -0,0 +1,77 @@
+package com.github.bhlangonijr.chesslib.move;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.Square;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The type San decoder test.
+ */
+public class SanDecoderTest {
+
+    private static final String[] FENS = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "4k3/8/8/8/1b6/2N5/8/4K1N1 w - - 0 1",
+            "N3k2N/8/8/8/8/8/8/N3K2N w - - 0 1",
+            "3k4/8/8/8/8/8/6pp/K4R2 b - - 0 1",
+    };
+
+    @Test
+    public void testRoundTrip() {
+        Board board = new Board();
+        for (String fen : FENS) {
+            board.loadFromFen(fen);
+            for (Move move : board.legalMoves()) {
+                board.loadFromFen(fen);
+                String san = MoveList.encodeToSan(board, move);
+                board.loadFromFen(fen);
+                assertEquals(fen + " " + san, move, SanDecoder.decodeMove(board, san));
+            }
+        }
+    }
+
+    @Test
+    public void testSlice() {
+        Board board = new Board();
+        String text = "1. e4 e5 2. Nf3";
+        assertEquals(Move.of(Square.E2, Square.E4).toPacked(), SanDecoder.decode(board, text, 3, 5));
+        board.doMove(Move.of(Square.E2, Square.E4));
+        board.doMove(Move.of(Square.E7, Square.E5));
+        assertEquals(Move.of(Square.G1, Square.F3).toPacked(), SanDecoder.decode(board, text, 12, 15));
+    }
+
+    @Test
+    public void testVariants() {
+        Board board = new Board();
+        board.loadFromFen("4k3/1P6/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        assertEquals(Move.of(Square.B7, Square.B8, Piece.WHITE_QUEEN), SanDecoder.decodeMove(board, "b8Q+"));
+        assertEquals(Move.of(Square.B7, Square.B8, Piece.WHITE_KNIGHT), SanDecoder.decodeMove(board, "b8=N"));
+        assertEquals(Move.of(Square.E5, Square.D6), SanDecoder.decodeMove(board, "exd6 e.p."));
+        assertEquals(Move.of(Square.E5, Square.D6), SanDecoder.decodeMove(board, "exd6ep"));
+        assertEquals(Move.of(Square.E1, Square.D2), SanDecoder.decodeMove(board, "Kd2!?"));
+        assertEquals(SanDecoder.NULL_MOVE, SanDecoder.decode(board, "Z0"));
+    }
+
+    @Test
+    public void testPinnedCandidate() {
+        Board board = new Board();
+        board.loadFromFen("4k3/8/8/8/1b6/2N5/8/4K1N1 w - - 0 1");
+        assertEquals(Move.of(Square.G1, Square.E2), SanDecoder.decodeMove(board, "Ne2"));
+    }
+
+    @Test(expected = MoveConversionException.class)
+    public void testInvalidMove() {
+        SanDecoder.decode(new Board(), "Nd4");
+    }
+
+    @Test(expected = MoveConversionException.class)
+    public void testInvalidText() {
+        SanDecoder.decode(new Board(), "e9");
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.bhlangonijr.chesslib.move;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Square;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The type San encoder test.
+ */
+public class SanEncoderTest {
+
+    private static final String[] FENS = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "N3k2N/8/8/8/8/8/8/N3K2N w - - 0 1",
+            "6k1/5ppp/8/8/8/8/1Q6/R3K3 w - - 0 1",
+            "3qk3/8/8/8/8/8/8/R3K2R w - - 0 1",
+            "7k/8/8/2pP4/8/8/8/1B3RK1 w - c6 0 1",
+            "r4k1r/1bnB1n2/p2bpPq1/1P1pN1p1/5P2/2Pp2B1/P2R2PR/4K3 w - - 0 1",
+    };
+
+    @Test
+    public void testAgainstMoveGeneration() {
+        Board board = new Board();
+        StringBuilder san = new StringBuilder();
+        for (String fen : FENS) {
+            board.loadFromFen(fen);
+            for (Move move : board.legalMoves()) {
+                board.loadFromFen(fen);
+                san.setLength(0);
+                SanEncoder.encode(board, move, san);
+                String expectedFlag = board.isMated() ? "#" : board.isKingAttacked() ? "+" : "";
+                String flag = san.toString().replaceAll("[^+#]", "");
+                assertEquals(fen + " " + san, expectedFlag, flag);
+
+                board.loadFromFen(fen);
+                assertEquals(fen + " " + san, move, SanDecoder.decodeMove(board, san));
+            }
+        }
+    }
+
+    @Test
+    public void testCheckFromH8() {
+        Board board = new Board();
+        board.loadFromFen("r4k1r/1bnB1n2/p2bpPq1/1P1pN1p1/5P2/2Pp2B1/P2R2PR/4K3 w - - 0 1");
+        assertEquals("Rxh8+", SanEncoder.encode(board, Move.of(Square.H2, Square.H8)));
+    }
+
+    @Test
+    public void testDisambiguation() {
+        Board board = new Board();
+        board.loadFromFen("4k3/8/8/N7/8/8/8/N3K3 w - - 0 1");
+        assertEquals("N1b3", SanEncoder.encode(board, Move.of(Square.A1, Square.B3)));
+        board.loadFromFen("4k3/8/8/4N3/7N/8/8/4K3 w - - 0 1");
+        assertEquals("Neg6", SanEncoder.encode(board, Move.of(Square.E5, Square.G6)));
+        board.loadFromFen("k7/8/8/8/8/2Q1Q3/8/2Q1K3 w - - 0 1");
+        assertEquals("Qc3d2", SanEncoder.encode(board, Move.of(Square.C3, Square.D2)));
+        board.loadFromFen("4k3/8/8/8/1b6/2N5/8/4K1N1 w - - 0 1");
+        assertEquals("Ne2", SanEncoder.encode(board, Move.of(Square.G1, Square.E2)));
+    }
+
+    @Test
+    public void testMate() throws IOException {
+        Board board = new Board();
+        board.loadFromFen("6k1/5ppp/8/8/8/8/1Q6/R3K3 w - - 0 1");
+        StringWriter out = new StringWriter();
+        SanEncoder.encode(board, Move.of(Square.A1, Square.A8), out);
+        assertEquals("Ra8#", out.toString());
+    }
+
+    @Test(expected = MoveConversionException.class)
+    public void testIllegalMove() {
+        SanEncoder.encode(new Board(), Move.of(Square.E3, Square.E4));
+    }
+}